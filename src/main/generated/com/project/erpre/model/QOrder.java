@@ -32,6 +32,8 @@ public class QOrder extends EntityPathBase<Order> {
 
     public final StringPath orderHDeleteYn = createString("orderHDeleteYn");
 
+    public final DateTimePath<java.time.LocalDateTime> orderHEffectiveDate = createDateTime("orderHEffectiveDate", java.time.LocalDateTime.class);
+
     public final DateTimePath<java.time.LocalDateTime> orderHInsertDate = createDateTime("orderHInsertDate", java.time.LocalDateTime.class);
 
     public final StringPath orderHStatus = createString("orderHStatus");
@@ -0,0 +1,59 @@
+package com.project.erpre.model;
+
+import static com.querydsl.core.types.PathMetadataFactory.*;
+
+import com.querydsl.core.types.dsl.*;
+
+import com.querydsl.core.types.PathMetadata;
+import javax.annotation.processing.Generated;
+import com.querydsl.core.types.Path;
+
+
+/**
+ * QPriceImport is a Querydsl query type for PriceImport
+ */
+@Generated("com.querydsl.codegen.DefaultEntitySerializer")
+public class QPriceImport extends EntityPathBase<PriceImport> {
+
+    private static final long serialVersionUID = 1102115215L;
+
+    public static final QPriceImport priceImport = new QPriceImport("priceImport");
+
+    public final DateTimePath<java.sql.Timestamp> importEndDate = createDateTime("importEndDate", java.sql.Timestamp.class);
+
+    public final StringPath importFileName = createString("importFileName");
+
+    public final NumberPath<Long> importFileSize = createNumber("importFileSize", Long.class);
+
+    public final NumberPath<Integer> importInsertCount = createNumber("importInsertCount", Integer.class);
+
+    public final DateTimePath<java.sql.Timestamp> importInsertDate = createDateTime("importInsertDate", java.sql.Timestamp.class);
+
+    public final NumberPath<Long> importLoadedBytes = createNumber("importLoadedBytes", Long.class);
+
+    public final StringPath importMessage = createString("importMessage");
+
+    public final NumberPath<Integer> importNo = createNumber("importNo", Integer.class);
+
+    public final NumberPath<Integer> importRejectCount = createNumber("importRejectCount", Integer.class);
+
+    public final NumberPath<Integer> importRowCount = createNumber("importRowCount", Integer.class);
+
+    public final StringPath importStatus = createString("importStatus");
+
+    public final NumberPath<Integer> importUpdateCount = createNumber("importUpdateCount", Integer.class);
+
+    public QPriceImport(String variable) {
+        super(PriceImport.class, forVariable(variable));
+    }
+
+    public QPriceImport(Path<? extends PriceImport> path) {
+        super(path.getType(), path.getMetadata());
+    }
+
+    public QPriceImport(PathMetadata metadata) {
+        super(PriceImport.class, metadata);
+    }
+
+}
+
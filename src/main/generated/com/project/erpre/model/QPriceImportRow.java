@@ -0,0 +1,63 @@
+package com.project.erpre.model;
+
+import static com.querydsl.core.types.PathMetadataFactory.*;
+
+import com.querydsl.core.types.dsl.*;
+
+import com.querydsl.core.types.PathMetadata;
+import javax.annotation.processing.Generated;
+import com.querydsl.core.types.Path;
+
+
+/**
+ * QPriceImportRow is a Querydsl query type for PriceImportRow
+ */
+@Generated("com.querydsl.codegen.DefaultEntitySerializer")
+public class QPriceImportRow extends EntityPathBase<PriceImportRow> {
+
+    private static final long serialVersionUID = -1910525493L;
+
+    public static final QPriceImportRow priceImportRow = new QPriceImportRow("priceImportRow");
+
+    public final NumberPath<Integer> customerNo = createNumber("customerNo", Integer.class);
+
+    public final NumberPath<Integer> importNo = createNumber("importNo", Integer.class);
+
+    public final NumberPath<java.math.BigDecimal> priceCustomer = createNumber("priceCustomer", java.math.BigDecimal.class);
+
+    public final DatePath<java.sql.Date> priceEndDate = createDate("priceEndDate", java.sql.Date.class);
+
+    public final NumberPath<Integer> priceNo = createNumber("priceNo", Integer.class);
+
+    public final DatePath<java.sql.Date> priceStartDate = createDate("priceStartDate", java.sql.Date.class);
+
+    public final StringPath productCd = createString("productCd");
+
+    public final StringPath rawCustomerNo = createString("rawCustomerNo");
+
+    public final StringPath rawPriceCustomer = createString("rawPriceCustomer");
+
+    public final StringPath rawPriceEndDate = createString("rawPriceEndDate");
+
+    public final StringPath rawPriceStartDate = createString("rawPriceStartDate");
+
+    public final StringPath rawProductCd = createString("rawProductCd");
+
+    public final StringPath rejectReason = createString("rejectReason");
+
+    public final NumberPath<Integer> rowNo = createNumber("rowNo", Integer.class);
+
+    public QPriceImportRow(String variable) {
+        super(PriceImportRow.class, forVariable(variable));
+    }
+
+    public QPriceImportRow(Path<? extends PriceImportRow> path) {
+        super(path.getType(), path.getMetadata());
+    }
+
+    public QPriceImportRow(PathMetadata metadata) {
+        super(PriceImportRow.class, metadata);
+    }
+
+}
+
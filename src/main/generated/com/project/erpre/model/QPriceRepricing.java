@@ -0,0 +1,59 @@
+package com.project.erpre.model;
+
+import static com.querydsl.core.types.PathMetadataFactory.*;
+
+import com.querydsl.core.types.dsl.*;
+
+import com.querydsl.core.types.PathMetadata;
+import javax.annotation.processing.Generated;
+import com.querydsl.core.types.Path;
+
+
+/**
+ * QPriceRepricing is a Querydsl query type for PriceRepricing
+ */
+@Generated("com.querydsl.codegen.DefaultEntitySerializer")
+public class QPriceRepricing extends EntityPathBase<PriceRepricing> {
+
+    private static final long serialVersionUID = -1978235895L;
+
+    public static final QPriceRepricing priceRepricing = new QPriceRepricing("priceRepricing");
+
+    public final NumberPath<Integer> categoryNo = createNumber("categoryNo", Integer.class);
+
+    public final DateTimePath<java.sql.Timestamp> repricingEndDate = createDateTime("repricingEndDate", java.sql.Timestamp.class);
+
+    public final DateTimePath<java.sql.Timestamp> repricingInsertDate = createDateTime("repricingInsertDate", java.sql.Timestamp.class);
+
+    public final StringPath repricingMessage = createString("repricingMessage");
+
+    public final NumberPath<Integer> repricingNo = createNumber("repricingNo", Integer.class);
+
+    public final NumberPath<Integer> repricingProcessedCount = createNumber("repricingProcessedCount", Integer.class);
+
+    public final NumberPath<java.math.BigDecimal> repricingRate = createNumber("repricingRate", java.math.BigDecimal.class);
+
+    public final NumberPath<Integer> repricingSplitCount = createNumber("repricingSplitCount", Integer.class);
+
+    public final DatePath<java.sql.Date> repricingStartDate = createDate("repricingStartDate", java.sql.Date.class);
+
+    public final StringPath repricingStatus = createString("repricingStatus");
+
+    public final NumberPath<Integer> repricingTargetCount = createNumber("repricingTargetCount", Integer.class);
+
+    public final NumberPath<Integer> repricingUpdateCount = createNumber("repricingUpdateCount", Integer.class);
+
+    public QPriceRepricing(String variable) {
+        super(PriceRepricing.class, forVariable(variable));
+    }
+
+    public QPriceRepricing(Path<? extends PriceRepricing> path) {
+        super(path.getType(), path.getMetadata());
+    }
+
+    public QPriceRepricing(PathMetadata metadata) {
+        super(PriceRepricing.class, metadata);
+    }
+
+}
+
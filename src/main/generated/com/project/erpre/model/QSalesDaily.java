@@ -0,0 +1,51 @@
+package com.project.erpre.model;
+
+import static com.querydsl.core.types.PathMetadataFactory.*;
+
+import com.querydsl.core.types.dsl.*;
+
+import com.querydsl.core.types.PathMetadata;
+import javax.annotation.processing.Generated;
+import com.querydsl.core.types.Path;
+
+
+/**
+ * QSalesDaily is a Querydsl query type for SalesDaily
+ */
+@Generated("com.querydsl.codegen.DefaultEntitySerializer")
+public class QSalesDaily extends EntityPathBase<SalesDaily> {
+
+    private static final long serialVersionUID = 25675020L;
+
+    public static final QSalesDaily salesDaily = new QSalesDaily("salesDaily");
+
+    public final NumberPath<java.math.BigDecimal> amount = createNumber("amount", java.math.BigDecimal.class);
+
+    public final NumberPath<Integer> customerNo = createNumber("customerNo", Integer.class);
+
+    public final StringPath employeeId = createString("employeeId");
+
+    public final NumberPath<Integer> lineCount = createNumber("lineCount", Integer.class);
+
+    public final NumberPath<Integer> orderCount = createNumber("orderCount", Integer.class);
+
+    public final StringPath productCd = createString("productCd");
+
+    public final NumberPath<Long> qty = createNumber("qty", Long.class);
+
+    public final DatePath<java.time.LocalDate> salesDate = createDate("salesDate", java.time.LocalDate.class);
+
+    public QSalesDaily(String variable) {
+        super(SalesDaily.class, forVariable(variable));
+    }
+
+    public QSalesDaily(Path<? extends SalesDaily> path) {
+        super(path.getType(), path.getMetadata());
+    }
+
+    public QSalesDaily(PathMetadata metadata) {
+        super(SalesDaily.class, metadata);
+    }
+
+}
+
@@ -0,0 +1,39 @@
+package com.project.erpre.model;
+
+import static com.querydsl.core.types.PathMetadataFactory.*;
+
+import com.querydsl.core.types.dsl.*;
+
+import com.querydsl.core.types.PathMetadata;
+import javax.annotation.processing.Generated;
+import com.querydsl.core.types.Path;
+
+
+/**
+ * QSalesDailyOrder is a Querydsl query type for SalesDailyOrder
+ */
+@Generated("com.querydsl.codegen.DefaultEntitySerializer")
+public class QSalesDailyOrder extends EntityPathBase<SalesDailyOrder> {
+
+    private static final long serialVersionUID = 513022370L;
+
+    public static final QSalesDailyOrder salesDailyOrder = new QSalesDailyOrder("salesDailyOrder");
+
+    public final NumberPath<Integer> orderNo = createNumber("orderNo", Integer.class);
+
+    public final DatePath<java.time.LocalDate> salesDate = createDate("salesDate", java.time.LocalDate.class);
+
+    public QSalesDailyOrder(String variable) {
+        super(SalesDailyOrder.class, forVariable(variable));
+    }
+
+    public QSalesDailyOrder(Path<? extends SalesDailyOrder> path) {
+        super(path.getType(), path.getMetadata());
+    }
+
+    public QSalesDailyOrder(PathMetadata metadata) {
+        super(SalesDailyOrder.class, metadata);
+    }
+
+}
+
@@ -0,0 +1,26 @@
+package com.project.erpre.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+// Thread pool for long-running jobs started from a request (PriceImportService price sheet imports,
+// PriceRepricingService bulk repricing)
+// The request returns at once with the job number, progress is read from the job's table
+@Configuration
+public class JobExecutorConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor jobExecutor(@Value("${erpre.job.threads:2}") int threads,
+                                              @Value("${erpre.job.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity); // Full queue: the job is refused instead of piling up
+        executor.setThreadNamePrefix("job-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+}
@@ -0,0 +1,11 @@
+package com.project.erpre.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Enables @Scheduled background jobs (e.g. OrderService.verifyOrderTotals)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+}
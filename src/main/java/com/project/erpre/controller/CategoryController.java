@@ -78,4 +78,16 @@ public class CategoryController {
         return categoryService.getLowCategory(topCategoryId, middleCategoryId);
     }
 
+    // Direct subcategories
+    @GetMapping("/{categoryNo}/children")
+    public List<Category> getChildren(@PathVariable Integer categoryNo) {
+        return categoryService.getChildren(categoryNo);
+    }
+
+    // Parent categories (top category first)
+    @GetMapping("/{categoryNo}/ancestors")
+    public List<Category> getAncestors(@PathVariable Integer categoryNo) {
+        return categoryService.getAncestors(categoryNo);
+    }
+
 }
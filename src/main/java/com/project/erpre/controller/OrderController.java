@@ -5,16 +5,19 @@ import com.project.erpre.repository.CustomerRepository;
 import com.project.erpre.repository.EmployeeRepository;
 import com.project.erpre.service.OrderService;
 import com.project.erpre.service.ProductService;
+import com.project.erpre.util.KeysetSlice;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -70,6 +73,22 @@ public class OrderController {
         }
     }
 
+    // Create an order together with its lines in one call (replaces POST /api/order + POST /api/orderDetails/batch)
+    // Body: OrderDTO with customer.customerNo, employee.employeeId, orderHStatus and orderDetails
+    // Line and header totals are computed on the server
+    @PostMapping("/withDetails")
+    public ResponseEntity<?> createOrderWithDetails(@RequestBody OrderDTO orderDTO) {
+        try {
+            OrderDTO savedOrder = orderService.createOrderWithDetails(orderDTO);
+            return new ResponseEntity<>(savedOrder, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("Error occurred while creating order with details: ", e);
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     // Search API
     @GetMapping("/search")
     public List<Product> searchProducts(
@@ -98,15 +117,8 @@ public class OrderController {
     @PutMapping("/{orderNo}")
     public ResponseEntity<?> updateOrder(@PathVariable Integer orderNo, @RequestBody OrderDTO orderDTO) {
         try {
-            // Call order update service
+            // Call order update service (also deletes deletedDetailIds and adjusts the total)
             Order updatedOrder = orderService.updateOrder(orderNo, orderDTO);
-
-            if (orderDTO.getDeletedDetailIds() != null && !orderDTO.getDeletedDetailIds().isEmpty()) {
-                for (Integer detailId : orderDTO.getDeletedDetailIds()) {
-                    orderService.deleteOrderDetail(orderNo, detailId);
-                }
-            }
-
             return new ResponseEntity<>(updatedOrder, HttpStatus.OK);
         } catch (Exception e) {
             logger.error("Error occurred while updating order: ", e);
@@ -114,7 +126,39 @@ public class OrderController {
         }
     }
 
+    // Order board list / combined search (keyset pagination)
+    // Filters: status, customer, customer name, employee, insert date range (yyyy-MM-dd, both inclusive)
+    // Returns flat summary rows, pass nextCursor back as cursor to read the next page
+    @GetMapping("/list")
+    public ResponseEntity<?> getOrderList(@RequestParam(required = false) String status,
+                                          @RequestParam(required = false) Integer customerNo,
+                                          @RequestParam(required = false) String customerName,
+                                          @RequestParam(required = false) String employeeId,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "20") int size) {
+        try {
+            OrderSearchCondition condition = OrderSearchCondition.builder()
+                    .orderHStatus(status)
+                    .customerNo(customerNo)
+                    .customerName(customerName)
+                    .employeeId(employeeId)
+                    .startDate(startDate)
+                    .endDate(endDate)
+                    .build();
+            KeysetSlice<OrderSummaryDTO> slice = orderService.getOrderSummaries(condition, cursor, size);
+            return new ResponseEntity<>(slice, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("Error occurred while retrieving order list: ", e);
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     // Retrieve all orders
+    // Unpaged and serializes the whole entity graph, use /list for the order board
     @GetMapping("/all")
     public List<Order> getAllOrders() {
         return orderService.getAllOrders();
@@ -132,10 +176,14 @@ public class OrderController {
         return orderService.getOrdersByCustomerName(customerName);
     }
 
-    // Search orders by order date
+    // Search orders by order date (yyyy-MM-dd, yyyy-MM or yyyy)
     @GetMapping("/date")
-    public List<Order> getOrdersByOrderDate(@RequestParam String orderDate) {
-        return orderService.getOrdersByOrderDate(orderDate);
+    public ResponseEntity<?> getOrdersByOrderDate(@RequestParam String orderDate) {
+        try {
+            return new ResponseEntity<>(orderService.getOrdersByOrderDate(orderDate), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
     }
 
     // Order status update endpoint
@@ -148,9 +196,10 @@ public class OrderController {
                 return new ResponseEntity<>("Order not found.", HttpStatus.NOT_FOUND);
             }
 
-            // Update status from DTO
-            existingOrder.setOrderHStatus(orderDTO.getOrderHStatus());
-            existingOrder.setOrderHUpdateDate(LocalDateTime.now());
+            // Update status from DTO (also sets the effective date when the order is approved/denied)
+            LocalDateTime now = LocalDateTime.now();
+            existingOrder.changeStatus(orderDTO.getOrderHStatus(), now);
+            existingOrder.setOrderHUpdateDate(now);
 
             // Save updated entity
             Order updatedOrder = orderService.updateOrder(existingOrder);
@@ -161,6 +210,21 @@ public class OrderController {
         }
     }
 
+    // Bulk order status update endpoint (approve/deny many orders in one call)
+    // Body: { "orderNos": [...], "fromStatus": "ing", "toStatus": "approved" }
+    @PatchMapping("/updateStatus")
+    public ResponseEntity<?> updateOrderStatuses(@RequestBody OrderStatusTransitionDTO request) {
+        try {
+            OrderStatusTransitionDTO result = orderService.transitionOrderStatus(request);
+            return new ResponseEntity<>(result, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("Error occurred while updating order statuses: ", e);
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     // Add order detail item
     @PostMapping("/{orderNo}/details")
     public ResponseEntity<?> addOrderDetail(@PathVariable Integer orderNo, @RequestBody OrderDetailDTO orderDetailDTO) {
@@ -199,6 +263,18 @@ public class OrderController {
         }
     }
 
+    // Run the order total verification now instead of waiting for the schedule
+    // Returns the order numbers whose header total was repaired
+    @PostMapping("/verifyTotals")
+    public ResponseEntity<?> verifyOrderTotals() {
+        try {
+            return new ResponseEntity<>(orderService.verifyOrderTotals(), HttpStatus.OK);
+        } catch (Exception e) {
+            logger.error("Error occurred while verifying order totals: ", e);
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     @GetMapping("/count")
     public long getOrderCount() {
         return orderService.getTotalOrderCount();
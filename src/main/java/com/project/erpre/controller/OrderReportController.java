@@ -1,8 +1,15 @@
 package com.project.erpre.controller;
 
+import com.project.erpre.service.OrderFactStore;
 import com.project.erpre.service.OrderReportService;
+import com.project.erpre.service.SalesRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -10,15 +17,25 @@ import org.springframework.web.bind.annotation.RestController;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/orderReport")
 public class OrderReportController {
 
+    private static final Logger logger = LoggerFactory.getLogger(OrderReportController.class);
+
     @Autowired
     private OrderReportService orderReportService;
 
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private OrderFactStore orderFactStore;
+
     // 🔴 Total order amount retrieval method
     // This method receives start date (startDate), end date (endDate),
     // and period type (periodType) from the client,
@@ -53,4 +70,30 @@ public class OrderReportController {
         return orderReportService.getOrdersByFilter(filterType, startDateTime, endDateTime);
     }
 
+    // 🔴 Report cache statistics (hit/miss counts, hit rate, evictions, size)
+    @GetMapping("/cache/stats")
+    public Map<String, Object> getCacheStats() {
+        return orderReportService.getCacheStats();
+    }
+
+    // 🔴 Daily sales rollup backfill
+    // Rebuilds the rollup the reports read from for the given period (yyyy-MM-dd, both inclusive),
+    // e.g. after orders were changed directly in the database
+    @PostMapping("/rollup/rebuild")
+    public ResponseEntity<?> rebuildRollup(@RequestParam String startDate,
+                                           @RequestParam String endDate) {
+        try {
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+            int rows = salesRollupService.rebuild(LocalDate.parse(startDate, formatter), LocalDate.parse(endDate, formatter));
+            // The in-memory facts are reloaded as a whole, they come from the same orders
+            orderFactStore.reload();
+            return new ResponseEntity<>(rows, HttpStatus.OK);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("Error occurred while rebuilding the sales rollup: ", e);
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
 }
@@ -2,6 +2,13 @@ package com.project.erpre.controller;
 
 import com.project.erpre.model.Price;
 import com.project.erpre.model.PriceDTO;
+import com.project.erpre.model.PriceImportRow;
+import com.project.erpre.model.PriceLookupDTO;
+import com.project.erpre.model.PriceOverlapDTO;
+import com.project.erpre.model.PriceRepricingDTO;
+import com.project.erpre.model.PriceSearchCondition;
+import com.project.erpre.service.PriceImportService;
+import com.project.erpre.service.PriceRepricingService;
 import com.project.erpre.service.PriceService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,10 +16,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,26 +37,61 @@ public class PriceController {
     @Autowired
     private PriceService priceService;
 
+    @Autowired
+    private PriceImportService priceImportService;
+
+    @Autowired
+    private PriceRepricingService priceRepricingService;
+
     // 🟢 Insert price information
     @PostMapping("/insert")
-    public List<PriceDTO> insertPrice(@RequestBody List<PriceDTO> priceDTOs) {
+    public ResponseEntity<?> insertPrice(@RequestBody List<PriceDTO> priceDTOs) {
         logger.info("🟢 insertPrice : Received PriceDTO List: {}", priceDTOs);  // Log the PriceDTO list itself
-        return priceService.saveOrUpdate(priceDTOs);
+        return savePrices(priceDTOs);
     }
 
     // 🟢 Update price information
     @PutMapping("/update")
-    public List<PriceDTO> updatePrice(@RequestBody List<PriceDTO> priceDTOs) {
+    public ResponseEntity<?> updatePrice(@RequestBody List<PriceDTO> priceDTOs) {
         logger.info("🟢 updatePrice : Received PriceDTO List: {}", priceDTOs);  // Log the PriceDTO list itself
-        return priceService.saveOrUpdate(priceDTOs);
+        return savePrices(priceDTOs);
+    }
+
+    private ResponseEntity<?> savePrices(List<PriceDTO> priceDTOs) {
+        try {
+            return ResponseEntity.ok(priceService.saveOrUpdate(priceDTOs));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return overlapOrError(e, "Error occurred while saving prices: ");
+        }
     }
 
     // 🟢 Delete and restore price information
     @PutMapping("/updateDel")
-    public ResponseEntity<List<Price>> updatePriceDeleteYn(@RequestBody List<PriceDTO> priceDTOs) {
+    public ResponseEntity<?> updatePriceDeleteYn(@RequestBody List<PriceDTO> priceDTOs) {
         logger.info("🟢 Received PriceDTO List: {}", priceDTOs);  // Log PriceDTO list
-        List<Price> updatedPrices = priceService.updatePriceDeleteYn(priceDTOs);
-        return ResponseEntity.ok(updatedPrices);  // Return updated Price list
+        try {
+            List<Price> updatedPrices = priceService.updatePriceDeleteYn(priceDTOs);
+            return ResponseEntity.ok(updatedPrices);  // Return updated Price list
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return overlapOrError(e, "Error occurred while deleting/restoring prices: ");
+        }
+    }
+
+    // A concurrent write got in between the overlap check and the commit: the exclusion constraint
+    // ex_price_period rejects it with SQLState 23P01 (exclusion_violation)
+    private ResponseEntity<?> overlapOrError(Exception e, String message) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && "23P01".equals(((SQLException) cause).getSQLState())) {
+                return new ResponseEntity<>("Price periods overlap with a price saved in the meantime, please check again.",
+                        HttpStatus.CONFLICT);
+            }
+        }
+        logger.error(message, e);
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
     // [3] 🟣 Delete a specific price record
@@ -76,35 +123,145 @@ public class PriceController {
         return ResponseEntity.ok(duplicatePrices);
     }
 
+    // 🔴 Check a whole price list (e.g. an imported price sheet) for overlapping periods in one call
+    // Empty list = the list can be saved
+    @PostMapping("/check-duplicates")
+    public ResponseEntity<?> checkDuplicatePrices(@RequestBody List<PriceDTO> priceDTOs) {
+        try {
+            List<PriceOverlapDTO> overlaps = priceService.checkDuplicates(priceDTOs);
+            return new ResponseEntity<>(overlaps, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("Error occurred while checking prices for overlaps: ", e);
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // 🔴 Effective prices of a whole cart for a customer on a date (default today), in one call
+    @PostMapping("/effective")
+    public ResponseEntity<?> getEffectivePrices(@RequestBody PriceLookupDTO priceLookupDTO) {
+        try {
+            return new ResponseEntity<>(priceService.getEffectivePrices(priceLookupDTO), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("Error occurred while looking up effective prices: ", e);
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // 🟢 Import a customer price sheet (CSV with a header row: customer number, product code, price, start date, end date)
+    // Dates are yyyy-MM-dd, an empty end date is open. Answers 202 with the import at once, the import runs in the background
+    @PostMapping("/import")
+    public ResponseEntity<?> importPrices(@RequestParam("file") MultipartFile file) {
+        logger.info("🟢 importPrices : {} ({} bytes)", file.getOriginalFilename(), file.getSize());
+        try {
+            return new ResponseEntity<>(priceImportService.startImport(file), HttpStatus.ACCEPTED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (Exception e) {
+            logger.error("Error occurred while starting the price import: ", e);
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // 🔴 Price sheet import progress and result (status, loaded bytes, row / rejected / inserted / updated counts)
+    @GetMapping("/import/{importNo}")
+    public ResponseEntity<?> getPriceImport(@PathVariable("importNo") Integer importNo) {
+        return priceImportService.getImport(importNo)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> new ResponseEntity<>("Price import not found: " + importNo, HttpStatus.NOT_FOUND));
+    }
+
+    // 🔴 Rejected rows of a price sheet import with the reason (row = data row of the file, header excluded)
+    @GetMapping("/import/{importNo}/rejects")
+    public Page<PriceImportRow> getPriceImportRejects(
+            @PathVariable("importNo") Integer importNo,
+            @RequestParam(defaultValue = "1") int page,    // Page number (default: 1)
+            @RequestParam(defaultValue = "50") int size    // Items per page (default: 50)
+    ) {
+        return priceImportService.getRejectedRows(importNo, PageRequest.of(page - 1, size));
+    }
+
+    // 🟢 Reprice every customer price of the products under a category (subcategories included) by a rate from a date on
+    // Answers 202 with the repricing at once, the prices are changed in the background
+    @PostMapping("/repricing")
+    public ResponseEntity<?> repricePrices(@RequestBody PriceRepricingDTO priceRepricingDTO) {
+        logger.info("🟢 repricePrices : {}", priceRepricingDTO);
+        try {
+            return new ResponseEntity<>(priceRepricingService.startRepricing(priceRepricingDTO), HttpStatus.ACCEPTED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (Exception e) {
+            logger.error("Error occurred while starting the price repricing: ", e);
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // 🟢 Resume a failed repricing after its last committed chunk (the prices it already changed are not changed again)
+    @PostMapping("/repricing/{repricingNo}/resume")
+    public ResponseEntity<?> resumePriceRepricing(@PathVariable("repricingNo") Integer repricingNo) {
+        try {
+            return new ResponseEntity<>(priceRepricingService.resumeRepricing(repricingNo), HttpStatus.ACCEPTED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (Exception e) {
+            logger.error("Error occurred while resuming the price repricing: ", e);
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // 🔴 Repricing progress and result (status, target / processed / updated / split counts)
+    @GetMapping("/repricing/{repricingNo}")
+    public ResponseEntity<?> getPriceRepricing(@PathVariable("repricingNo") Integer repricingNo) {
+        return priceRepricingService.getRepricing(repricingNo)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> new ResponseEntity<>("Price repricing not found: " + repricingNo, HttpStatus.NOT_FOUND));
+    }
+
     // 🔴 Retrieve price information list (supports filtering, paging, and sorting)
+    // Dates are yyyy-MM-dd, only the filters that are sent become part of the query
+    // count: how totalElements is found, auto (estimate for large lists filtered by status only, else exact), exact, or none
     @GetMapping("/all")
-    public Page<PriceDTO> getAllPrices(
+    public ResponseEntity<?> getAllPrices(
             @RequestParam(required = false) Integer customerNo,  // Customer number filter
             @RequestParam(required = false) String productCd,    // Product code filter
-            @RequestParam(required = false) String startDate,    // Start date filter
-            @RequestParam(required = false) String endDate,      // End date filter
-            @RequestParam(required = false) String targetDate,   // Target application date
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,  // Start date filter
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,    // End date filter
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate targetDate, // Target application date
             @RequestParam(required = false) String customerSearchText,   // Search text (customer name)
             @RequestParam(required = false) String productSearchText,    // Search text (product name or product code)
             @RequestParam(required = false) String selectedStatus, // Status filter (all / active N / deleted Y)
             @RequestParam(defaultValue = "1") int page,          // Page number (default: 1)
             @RequestParam(defaultValue = "10") int size,         // Items per page (default: 10)
             @RequestParam(defaultValue = "priceNo") String sort, // Sort field (default: priceNo)
-            @RequestParam(defaultValue = "asc") String order     // Sort order (default: asc)
+            @RequestParam(defaultValue = "asc") String order,    // Sort order (default: asc)
+            @RequestParam(defaultValue = "auto") String count    // Total count mode (auto / exact / none)
     ) {
         logger.info("Fetching all prices with filters");
         Sort.Direction direction = order.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
         PageRequest pageRequest = PageRequest.of(page - 1, size, Sort.by(direction, sort));
-        return priceService.getAllPrices(
-                customerNo,
-                productCd,
-                startDate,
-                endDate,
-                targetDate,
-                customerSearchText,
-                productSearchText,
-                selectedStatus,
-                pageRequest
-        );
+        PriceSearchCondition condition = PriceSearchCondition.builder()
+                .customerNo(customerNo)
+                .productCd(productCd)
+                .startDate(startDate)
+                .endDate(endDate)
+                .targetDate(targetDate)
+                .customerSearchText(customerSearchText)
+                .productSearchText(productSearchText)
+                .selectedStatus(selectedStatus)
+                .build();
+        try {
+            return ResponseEntity.ok(priceService.getAllPrices(condition, pageRequest, count));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
     }
 }
@@ -2,8 +2,10 @@ package com.project.erpre.controller;
 
 import com.project.erpre.model.CategoryDTO;
 import com.project.erpre.model.ProductDTO;
+import com.project.erpre.model.ProductFacetsDTO;
 import com.project.erpre.service.CategoryService;
 import com.project.erpre.service.ProductService;
+import com.project.erpre.util.KeysetSlice;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -31,6 +33,8 @@ public class ProductController {
     private CategoryService categoryService;
 
     // 1. Product list 조회 + filtering + sorting + paging API
+    // count: how totalElements is found, auto (estimate for large unfiltered lists, else exact), exact, or none
+    // (none: no count query, totalElements only tells whether a next page exists)
     @GetMapping("/productList")
     public ResponseEntity<Page<ProductDTO>> getProductsAndCategories(
             @RequestParam(defaultValue = "1") int page,
@@ -42,23 +46,78 @@ public class ProductController {
             @RequestParam(required = false) String productCd,
             @RequestParam(required = false) String productNm,
             @RequestParam(required = false, defaultValue = "productCd") String sortColumn,
-            @RequestParam(required = false, defaultValue = "asc") String sortDirection
+            @RequestParam(required = false, defaultValue = "asc") String sortDirection,
+            @RequestParam(defaultValue = "auto") String count
     ) {
         try {
             Page<ProductDTO> result = productService.getProductsList(
                     page - 1, size, status,
                     topCategoryNo, middleCategoryNo, lowCategoryNo,
-                    productCd, productNm, sortColumn, sortDirection
+                    productCd, productNm, sortColumn, sortDirection, count
             );
             return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
 
+    // 1-1. Product list with keyset (cursor) paging: same filters and sorting as /productList
+    // Pass nextCursor back as cursor to read the next page, use /productList to jump to a page number
+    @GetMapping("/productList/cursor")
+    public ResponseEntity<?> getProductsListKeyset(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "all", required = false) String status,
+            @RequestParam(required = false) Integer topCategoryNo,
+            @RequestParam(required = false) Integer middleCategoryNo,
+            @RequestParam(required = false) Integer lowCategoryNo,
+            @RequestParam(required = false) String productCd,
+            @RequestParam(required = false) String productNm,
+            @RequestParam(required = false, defaultValue = "productCd") String sortColumn,
+            @RequestParam(required = false, defaultValue = "asc") String sortDirection
+    ) {
+        try {
+            KeysetSlice<ProductDTO> slice = productService.getProductsListKeyset(
+                    cursor, size, status,
+                    topCategoryNo, middleCategoryNo, lowCategoryNo,
+                    productCd, productNm, sortColumn, sortDirection
+            );
+            return ResponseEntity.ok(slice);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error occurred while retrieving product list: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    // 1-2. Filter counts for the product list: products per top/middle/low category and per status for the current filter
+    // (same filters as /productList; each option list is counted without its own filter, e.g. top categories with status only)
+    @GetMapping("/productList/facets")
+    public ResponseEntity<?> getProductFacets(
+            @RequestParam(defaultValue = "all", required = false) String status,
+            @RequestParam(required = false) Integer topCategoryNo,
+            @RequestParam(required = false) Integer middleCategoryNo,
+            @RequestParam(required = false) Integer lowCategoryNo,
+            @RequestParam(required = false) String productCd,
+            @RequestParam(required = false) String productNm
+    ) {
+        try {
+            ProductFacetsDTO facets = productService.getProductFacets(
+                    status, topCategoryNo, middleCategoryNo, lowCategoryNo, productCd, productNm);
+            return ResponseEntity.ok(facets);
+        } catch (Exception e) {
+            logger.error("Error occurred while counting product list filters: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
     // 🔴 0920 Yewon added
     // (Retrieve product list with paging by product code, product name,
     // top/middle/low category, and status)
+    // count: auto / exact / none, as for /productList
     @GetMapping("/productsFilter")
     public ResponseEntity<Page<ProductDTO>> getProductsFilter(
             @RequestParam(defaultValue = "1") int page,
@@ -69,21 +128,41 @@ public class ProductController {
             @RequestParam(defaultValue = "all", required = false) String status,
             @RequestParam(required = false) String productCd,          // Product code filter
             @RequestParam(required = false) String productNm,          // Product name filter
-            @RequestParam(required = false) Integer customerNo         // Customer selected when registering an order
+            @RequestParam(required = false) Integer customerNo,        // Customer selected when registering an order
+            @RequestParam(defaultValue = "auto") String count          // Total count mode
     ) {
         try {
             logger.info("🔴 customerNo : " + customerNo);
             Page<ProductDTO> result = productService.getProductsFilter(
                     page - 1, size, status,
                     topCategoryNo, middleCategoryNo, lowCategoryNo,
-                    productCd, productNm, customerNo
+                    productCd, productNm, customerNo, count
             );
             return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
 
+    // 🔴 Product autocomplete for the order-entry product picker (ranked, at most limit products, active products only)
+    // Code prefix first, then name prefix, then names containing every word of q (or codes containing q), best match first
+    @GetMapping("/autocomplete")
+    public ResponseEntity<?> getProductSuggestions(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        try {
+            return ResponseEntity.ok(productService.getProductSuggestions(q, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error occurred while searching products for autocomplete: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
     // 2. Product detail 조회 API (includes last 5 delivery records)
     @GetMapping("/productDetail/{productCd}")
     public ResponseEntity<List<ProductDTO>> getProductDetailsByProductCd(@PathVariable String productCd) {
@@ -101,6 +180,30 @@ public class ProductController {
         }
     }
 
+    // 🔴 Product detail cache statistics (hit/miss counts, hit rate, evictions, size)
+    @GetMapping("/productDetail/cache/stats")
+    public Map<String, Object> getProductDetailCacheStats() {
+        return productService.getProductDetailCacheStats();
+    }
+
+    // 2-1. Recent deliveries of many products in one call (e.g. the product codes of one product list page)
+    // productCds=P001,P002,... ; result: product code -> its last limit deliveries (newest first), in the order requested
+    @GetMapping("/recentDeliveries")
+    public ResponseEntity<?> getRecentDeliveries(
+            @RequestParam List<String> productCds,
+            @RequestParam(defaultValue = "5") int limit
+    ) {
+        try {
+            Map<String, List<ProductDTO>> deliveries = productService.getRecentDeliveries(productCds, limit);
+            return ResponseEntity.ok(deliveries);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error occurred while retrieving recent deliveries: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
     // 3. Product registration API
     @PostMapping("/add")
     public ResponseEntity<ProductDTO> addProduct(@RequestBody ProductDTO productDTO) {
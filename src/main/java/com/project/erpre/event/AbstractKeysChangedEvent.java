@@ -0,0 +1,42 @@
+package com.project.erpre.event;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Base of the "rows changed" events: the keys of the written rows (distinct, in publishing order, nulls left out),
+// or all when too many rows changed to list them (listeners then re-read everything)
+// Publishers publish inside the writing transaction. Listeners use
+// @TransactionalEventListener(phase = AFTER_COMMIT, fallbackExecution = true) so they only see committed data,
+// and still hear events published outside a transaction
+@Getter
+public abstract class AbstractKeysChangedEvent<K> {
+
+    private final Set<K> keys;
+
+    private final boolean all;
+
+    protected AbstractKeysChangedEvent(Collection<K> keys) {
+        Set<K> distinctKeys = keys.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        this.keys = Collections.unmodifiableSet(distinctKeys);
+        this.all = false;
+    }
+
+    // Every row changed, no keys
+    protected AbstractKeysChangedEvent() {
+        this.keys = Collections.emptySet();
+        this.all = true;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(keys=" + keys + ", all=" + all + ")";
+    }
+}
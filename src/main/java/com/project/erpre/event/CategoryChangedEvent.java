@@ -0,0 +1,16 @@
+package com.project.erpre.event;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+// Published whenever categories (m_category) are written (insert, update, delete with their subcategories)
+public class CategoryChangedEvent extends AbstractKeysChangedEvent<Integer> {
+
+    public CategoryChangedEvent(Collection<Integer> categoryNos) {
+        super(categoryNos);
+    }
+
+    public static CategoryChangedEvent of(Integer... categoryNos) {
+        return new CategoryChangedEvent(Arrays.asList(categoryNos));
+    }
+}
@@ -0,0 +1,16 @@
+package com.project.erpre.event;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+// Published whenever existing customers (m_customer) are updated (e.g. renamed)
+public class CustomerChangedEvent extends AbstractKeysChangedEvent<Integer> {
+
+    public CustomerChangedEvent(Collection<Integer> customerNos) {
+        super(customerNos);
+    }
+
+    public static CustomerChangedEvent of(Integer... customerNos) {
+        return new CustomerChangedEvent(Arrays.asList(customerNos));
+    }
+}
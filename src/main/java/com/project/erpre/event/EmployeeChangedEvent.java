@@ -0,0 +1,16 @@
+package com.project.erpre.event;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+// Published whenever existing employees (m_employee) are updated (e.g. renamed)
+public class EmployeeChangedEvent extends AbstractKeysChangedEvent<String> {
+
+    public EmployeeChangedEvent(Collection<String> employeeIds) {
+        super(employeeIds);
+    }
+
+    public static EmployeeChangedEvent of(String... employeeIds) {
+        return new EmployeeChangedEvent(Arrays.asList(employeeIds));
+    }
+}
@@ -0,0 +1,16 @@
+package com.project.erpre.event;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+// Published whenever order headers or lines are written (create, status change, line change, delete)
+public class OrderChangedEvent extends AbstractKeysChangedEvent<Integer> {
+
+    public OrderChangedEvent(Collection<Integer> orderNos) {
+        super(orderNos);
+    }
+
+    public static OrderChangedEvent of(Integer... orderNos) {
+        return new OrderChangedEvent(Arrays.asList(orderNos));
+    }
+}
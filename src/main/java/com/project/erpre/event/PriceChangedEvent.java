@@ -0,0 +1,25 @@
+package com.project.erpre.event;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+// Published whenever customer prices (m_price) are written (insert, update, delete/restore, delete)
+public class PriceChangedEvent extends AbstractKeysChangedEvent<Integer> {
+
+    public PriceChangedEvent(Collection<Integer> priceNos) {
+        super(priceNos);
+    }
+
+    private PriceChangedEvent() {
+        super();
+    }
+
+    public static PriceChangedEvent of(Integer... priceNos) {
+        return new PriceChangedEvent(Arrays.asList(priceNos));
+    }
+
+    // Too many prices changed to list them (e.g. a price sheet import or a repricing)
+    public static PriceChangedEvent all() {
+        return new PriceChangedEvent();
+    }
+}
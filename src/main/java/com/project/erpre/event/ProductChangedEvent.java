@@ -0,0 +1,25 @@
+package com.project.erpre.event;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+// Published whenever products (m_product) are written (insert, update, delete/restore)
+public class ProductChangedEvent extends AbstractKeysChangedEvent<String> {
+
+    public ProductChangedEvent(Collection<String> productCds) {
+        super(productCds);
+    }
+
+    private ProductChangedEvent() {
+        super();
+    }
+
+    public static ProductChangedEvent of(String... productCds) {
+        return new ProductChangedEvent(Arrays.asList(productCds));
+    }
+
+    // Data shown with every product changed (e.g. a category was renamed or moved)
+    public static ProductChangedEvent all() {
+        return new ProductChangedEvent();
+    }
+}
@@ -0,0 +1,37 @@
+package com.project.erpre.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+// Published after the daily sales rollup was refreshed and committed for the given days
+// Report caches drop every cached period that contains one of these days
+@Getter
+@ToString
+public class SalesRollupChangedEvent {
+
+    private final Set<LocalDate> salesDates;
+
+    public SalesRollupChangedEvent(Collection<LocalDate> salesDates) {
+        Set<LocalDate> distinctSalesDates = salesDates.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(TreeSet::new));
+        this.salesDates = Collections.unmodifiableSet(distinctSalesDates);
+    }
+
+    // Every day of [startDate, endDate]
+    public static SalesRollupChangedEvent between(LocalDate startDate, LocalDate endDate) {
+        Set<LocalDate> salesDates = new TreeSet<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            salesDates.add(date);
+        }
+        return new SalesRollupChangedEvent(salesDates);
+    }
+}
@@ -0,0 +1,15 @@
+package com.project.erpre.model;
+
+import java.sql.Timestamp;
+
+/**
+ * A job row whose status and result are recorded while the job runs on the job executor
+ * (PriceImport, PriceRepricing), see BackgroundJobs.
+ */
+public interface BackgroundJob {
+
+    void recordStatus(String status);
+
+    // Failure reason (null when done) and finish timestamp
+    void recordResult(String message, Timestamp endDate);
+}
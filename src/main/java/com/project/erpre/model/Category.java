@@ -32,7 +32,7 @@ public class Category {
     @Column(name = "category_nm", length = 100, nullable = false)
     private String categoryNm;
 
-    @Column(name = "category_insert_date", nullable = false, insertable = false)
+    @Column(name = "category_insert_date", nullable = false, insertable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
     // insertable = false: JPA ignores this field when inserting the entity,
     // and the database automatically sets the value. Example: automatically insert current time with CURRENT_TIMESTAMP.
     private Timestamp categoryInsertDate;
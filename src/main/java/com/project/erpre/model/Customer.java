@@ -64,7 +64,7 @@ public class Customer {
     @Column(name = "customer_transaction_end_date")
     private Timestamp customerTransactionEndDate;
 
-    @Column(name = "customer_insert_date", insertable = false, nullable = false)
+    @Column(name = "customer_insert_date", insertable = false, nullable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
     private Timestamp customerInsertDate;
 
     @Column(name = "customer_update_date")
@@ -2,6 +2,7 @@ package com.project.erpre.model;
 
 
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 import java.math.BigDecimal;
@@ -9,16 +10,26 @@ import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Entity
-@Table(name = "m_order_h")
+@Table(name = "m_order_h", indexes = {
+        // Order list keyset pagination: (insert date, order no) per filter
+        @Index(name = "idx_order_h_insert_date", columnList = "order_h_insert_date, order_h_no"),
+        @Index(name = "idx_order_h_status_insert_date", columnList = "order_h_status, order_h_insert_date, order_h_no"),
+        @Index(name = "idx_order_h_customer_insert_date", columnList = "customer_no, order_h_insert_date, order_h_no"),
+        @Index(name = "idx_order_h_employee_insert_date", columnList = "employee_id, order_h_insert_date, order_h_no"),
+        // Sales rollup / reports: range scan of decided orders by effective date
+        @Index(name = "idx_order_h_status_effective_date", columnList = "order_h_status, order_h_delete_yn, order_h_effective_date")
+})
 @Setter
 @Getter
 //@ToString()
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder // Adds the builder pattern
+@DynamicUpdate // Only changed columns are written, so a header save does not overwrite the total maintained by OrderRepository.addToTotalPrice
 public class Order {
 
     @Id
@@ -40,7 +51,7 @@ public class Order {
     @Column(name = "order_h_status")
     private String orderHStatus;
 
-    @Column(name = "order_h_insert_date", nullable = false, insertable = false)
+    @Column(name = "order_h_insert_date", nullable = false, insertable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
     // insertable = false: JPA ignores this field when inserting the entity,
     // and the database automatically sets the value. Example: automatically insert current time using CURRENT_TIMESTAMP.
     private LocalDateTime orderHInsertDate;
@@ -48,6 +59,9 @@ public class Order {
     @Column(name = "order_h_update_date")
     private LocalDateTime orderHUpdateDate;
 
+    @Column(name = "order_h_effective_date")
+    private LocalDateTime orderHEffectiveDate; // When the order got its current decision (approved/denied), null while in progress. Sales are reported on this date
+
     @Column(name = "order_h_delete_yn", length = 1, nullable = false, columnDefinition = "VARCHAR(1) DEFAULT 'N'")
     private String orderHDeleteYn; // Default value 'N'
 
@@ -69,10 +83,14 @@ public class Order {
                 .collect(Collectors.toList());
     }
 
-    public void recalculateTotalPrice() {
-        this.orderHTotalPrice = orderDetails.stream()
-                .map(OrderDetail::getOrderDTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    // Change the order status, the effective date follows the decision:
+    // set when the order is approved or denied, cleared when it goes back to in progress
+    public void changeStatus(String status, LocalDateTime changedAt) {
+        boolean decided = "approved".equals(status) || "denied".equals(status);
+        if (!Objects.equals(this.orderHStatus, status) || (decided && this.orderHEffectiveDate == null)) {
+            this.orderHEffectiveDate = decided ? changedAt : null;
+        }
+        this.orderHStatus = status;
     }
 
 }
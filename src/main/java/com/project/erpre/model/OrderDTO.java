@@ -21,6 +21,7 @@ public class OrderDTO {
     private String orderHStatus;
     private LocalDateTime orderHInsertDate;
     private LocalDateTime orderHUpdateDate;
+    private LocalDateTime orderHEffectiveDate; // When the order was approved/denied
     private String orderHDeleteYn; // Default value 'N' indicates deletion status
     private Timestamp orderHDeleteDate; // Deletion timestamp
 
@@ -9,7 +9,10 @@ import java.sql.Timestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "m_order_d")
+@Table(name = "m_order_d", indexes = {
+        @Index(name = "idx_order_d_order_h_no", columnList = "order_h_no"),
+        @Index(name = "idx_order_d_product_delivery_date", columnList = "product_cd, order_d_delivery_request_date DESC, order_d_no DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -45,7 +48,7 @@ public class OrderDetail {
     @Column(name = "order_d_delivery_request_date")
     private Timestamp orderDDeliveryRequestDate;
 
-    @Column(name = "order_d_insert_date", nullable = false, insertable = false)
+    @Column(name = "order_d_insert_date", nullable = false, insertable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
     // insertable = false: JPA ignores this field when inserting the entity,
     // and the database automatically sets the value. Example: automatically insert current time using CURRENT_TIMESTAMP.
     private LocalDateTime orderDInsertDate;
@@ -0,0 +1,23 @@
+package com.project.erpre.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OrderSearchCondition {
+
+    // Filters for the order list, only the non-null ones become predicates
+    private String orderHStatus; // ing, approved, denied
+    private Integer customerNo;
+    private String employeeId;
+    private String customerName; // Partial match on customer name
+    private LocalDate startDate; // Insert date from (inclusive)
+    private LocalDate endDate; // Insert date to (inclusive)
+}
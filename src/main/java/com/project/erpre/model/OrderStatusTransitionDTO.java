@@ -0,0 +1,25 @@
+package com.project.erpre.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OrderStatusTransitionDTO {
+
+    // Request: move these orders from fromStatus to toStatus
+    private List<Integer> orderNos;
+    private String fromStatus; // Current status the orders must be in (default "ing")
+    private String toStatus; // Target status (ing, approved, denied)
+
+    // Response: which orders actually moved and which were left untouched
+    // (not found, deleted, or no longer in fromStatus)
+    private List<Integer> transitioned;
+    private List<Integer> skipped;
+}
@@ -0,0 +1,31 @@
+package com.project.erpre.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OrderSummaryDTO {
+
+    // Flat row for the order board (no entity graph is serialized)
+    private Integer orderNo;
+    private Integer customerNo;
+    private String customerName;
+    private String employeeId;
+    private String employeeName;
+    private BigDecimal orderHTotalPrice;
+    private String orderHStatus;
+    private LocalDateTime orderHInsertDate;
+    private LocalDateTime orderHUpdateDate;
+
+    // Line summary (e.g. "Product A and 3 more")
+    private Long productCount;
+    private String firstProductNm;
+}
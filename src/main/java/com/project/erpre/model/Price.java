@@ -12,7 +12,12 @@ import java.sql.Date;
  * managing the applicable period of each price and deletion status.
  */
 @Entity
-@Table(name = "m_price")  // Maps to the m_price table
+@Table(name = "m_price", indexes = {  // Maps to the m_price table
+        // Price list: newest first, overall (per status) / per customer / per product
+        @Index(name = "idx_price_status_insert_date", columnList = "price_delete_yn, price_insert_date, price_no"),
+        @Index(name = "idx_price_customer_insert_date", columnList = "customer_no, price_insert_date, price_no"),
+        @Index(name = "idx_price_product_insert_date", columnList = "product_cd, price_insert_date, price_no")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
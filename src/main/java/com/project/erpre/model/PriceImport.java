@@ -0,0 +1,68 @@
+package com.project.erpre.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.sql.Timestamp;
+
+/**
+ * The PriceImport entity maps to the m_price_import table.
+ * One customer price sheet (CSV) import: its progress while it runs and its result afterwards.
+ * Status: queued -> loading -> validating -> merging -> done, or failed (importMessage holds the reason).
+ */
+@Entity
+@Table(name = "m_price_import")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceImport implements BackgroundJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "import_no")
+    private Integer importNo;  // Import ID (auto-increment, primary key)
+
+    @Column(name = "import_file_name", length = 255)
+    private String importFileName;  // Uploaded file name
+
+    @Column(name = "import_status", length = 20, nullable = false)
+    private String importStatus;  // queued, loading, validating, merging, done, failed
+
+    @Column(name = "import_file_size", nullable = false)
+    private long importFileSize;  // File size in bytes
+
+    @Column(name = "import_loaded_bytes", nullable = false)
+    private long importLoadedBytes;  // Bytes sent to the staging table so far (progress while loading)
+
+    @Column(name = "import_row_count", nullable = false)
+    private int importRowCount;  // Data rows in the file (header excluded)
+
+    @Column(name = "import_reject_count", nullable = false)
+    private int importRejectCount;  // Rows rejected by the validation (see m_price_import_row)
+
+    @Column(name = "import_insert_count", nullable = false)
+    private int importInsertCount;  // New prices
+
+    @Column(name = "import_update_count", nullable = false)
+    private int importUpdateCount;  // Prices of the same period whose amount changed
+
+    @Column(name = "import_message", length = 1000)
+    private String importMessage;  // Failure reason
+
+    @Column(name = "import_insert_date", nullable = false)
+    private Timestamp importInsertDate;  // Upload timestamp
+
+    @Column(name = "import_end_date")
+    private Timestamp importEndDate;  // Finish (done or failed) timestamp
+
+    @Override
+    public void recordStatus(String status) {
+        this.importStatus = status;
+    }
+
+    @Override
+    public void recordResult(String message, Timestamp endDate) {
+        this.importMessage = message;
+        this.importEndDate = endDate;
+    }
+}
@@ -0,0 +1,68 @@
+package com.project.erpre.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.sql.Date;
+
+/**
+ * The PriceImportRow entity maps to the m_price_import_row table.
+ * Staging rows of a price sheet import: the CSV values as sent, the parsed values and the validation result.
+ * Rows are loaded, validated and merged into m_price by PriceImportRepository in SQL, never edited through JPA.
+ * After the merge only the rejected rows are kept, as the import's reject report.
+ */
+@Entity
+@Table(name = "m_price_import_row")
+@IdClass(PriceImportRowId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceImportRow {
+
+    @Id
+    @Column(name = "import_no", nullable = false)
+    private Integer importNo;
+
+    @Id
+    @Column(name = "row_no", nullable = false)
+    private Integer rowNo;  // Data row of the file, starting at 1 (header excluded)
+
+    // Values as sent
+    @Column(name = "raw_customer_no", columnDefinition = "TEXT")
+    private String rawCustomerNo;
+
+    @Column(name = "raw_product_cd", columnDefinition = "TEXT")
+    private String rawProductCd;
+
+    @Column(name = "raw_price_customer", columnDefinition = "TEXT")
+    private String rawPriceCustomer;
+
+    @Column(name = "raw_price_start_date", columnDefinition = "TEXT")
+    private String rawPriceStartDate;
+
+    @Column(name = "raw_price_end_date", columnDefinition = "TEXT")
+    private String rawPriceEndDate;
+
+    // Parsed values (only for rows that passed the format checks)
+    @Column(name = "customer_no")
+    private Integer customerNo;
+
+    @Column(name = "product_cd", length = 10)
+    private String productCd;
+
+    @Column(name = "price_customer", precision = 15, scale = 2)
+    private BigDecimal priceCustomer;
+
+    @Column(name = "price_start_date")
+    private Date priceStartDate;
+
+    @Column(name = "price_end_date")
+    private Date priceEndDate;
+
+    @Column(name = "price_no")
+    private Integer priceNo;  // Stored price of exactly the same period (updated instead of inserted)
+
+    @Column(name = "reject_reason", length = 200)
+    private String rejectReason;  // Null = accepted
+}
@@ -0,0 +1,15 @@
+package com.project.erpre.model;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+// Composite key of PriceImportRow (import, row of the file)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceImportRowId implements Serializable {
+
+    private Integer importNo;
+    private Integer rowNo;
+}
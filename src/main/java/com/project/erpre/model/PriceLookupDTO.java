@@ -0,0 +1,21 @@
+package com.project.erpre.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Date;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PriceLookupDTO {
+
+    // Request: the customer's effective price of every product on targetDate
+    private Integer customerNo;
+    private Date targetDate; // Date the prices must be valid on (default today)
+    private List<String> productCds;
+}
@@ -0,0 +1,29 @@
+package com.project.erpre.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Date;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PriceOverlapDTO {
+
+    // Checked price: position in the submitted list and its period
+    private Integer rowIndex;
+    private Integer customerNo;
+    private String productCd;
+    private Date priceStartDate;
+    private Date priceEndDate;
+
+    // Price it overlaps with: either a later row of the same list (conflictRowIndex)
+    // or a stored price (conflictRowIndex null)
+    private Integer conflictRowIndex;
+    private Integer conflictPriceNo;
+    private Date conflictStartDate;
+    private Date conflictEndDate;
+}
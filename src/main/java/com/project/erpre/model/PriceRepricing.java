@@ -0,0 +1,78 @@
+package com.project.erpre.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+
+/**
+ * The PriceRepricing entity maps to the m_price_repricing table.
+ * One bulk repricing: every customer price of the products under a category (and its subcategories) changed by a rate
+ * from a start date on. Its progress while it runs and its result afterwards.
+ * Status: queued -> running -> done, or failed (repricingMessage holds the reason).
+ * A failed job keeps its committed chunks and can be resumed after the last of them (repricingLastPriceNo).
+ */
+@Entity
+@Table(name = "m_price_repricing")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceRepricing implements BackgroundJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "repricing_no")
+    private Integer repricingNo;  // Repricing ID (auto-increment, primary key)
+
+    @Column(name = "category_no", nullable = false)
+    private Integer categoryNo;  // Category whose products are repriced, subcategories included
+
+    @Column(name = "repricing_rate", precision = 7, scale = 4, nullable = false)
+    private BigDecimal repricingRate;  // Percent, 3 = raise by 3%, -5 = lower by 5%
+
+    @Column(name = "repricing_start_date", nullable = false)
+    private Date repricingStartDate;  // First day of the new prices
+
+    @Column(name = "repricing_status", length = 20, nullable = false)
+    private String repricingStatus;  // queued, running, done, failed
+
+    @Column(name = "repricing_target_count", nullable = false)
+    private int repricingTargetCount;  // Prices to reprice, counted when the job starts
+
+    @Column(name = "repricing_processed_count", nullable = false)
+    private int repricingProcessedCount;  // Prices repriced so far (progress)
+
+    @Column(name = "repricing_update_count", nullable = false)
+    private int repricingUpdateCount;  // Prices starting on or after the start date: amount changed in place
+
+    @Column(name = "repricing_split_count", nullable = false)
+    private int repricingSplitCount;  // Prices running across the start date: closed the day before, new price opened
+
+    @Column(name = "repricing_max_price_no")
+    private Integer repricingMaxPriceNo;  // Last price number when the job started, later prices (including the ones it opens) are left alone
+
+    @Column(name = "repricing_last_price_no")
+    private Integer repricingLastPriceNo;  // Last price number of the committed chunks, a resumed job continues after it
+
+    @Column(name = "repricing_message", length = 1000)
+    private String repricingMessage;  // Failure reason
+
+    @Column(name = "repricing_insert_date", nullable = false)
+    private Timestamp repricingInsertDate;  // Request timestamp
+
+    @Column(name = "repricing_end_date")
+    private Timestamp repricingEndDate;  // Finish (done or failed) timestamp
+
+    @Override
+    public void recordStatus(String status) {
+        this.repricingStatus = status;
+    }
+
+    @Override
+    public void recordResult(String message, Timestamp endDate) {
+        this.repricingMessage = message;
+        this.repricingEndDate = endDate;
+    }
+}
@@ -0,0 +1,22 @@
+package com.project.erpre.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PriceRepricingDTO {
+
+    // Request: change every customer price of the products under categoryNo (subcategories included) by rate percent
+    // from startDate on
+    private Integer categoryNo;
+    private BigDecimal rate; // Percent, 3 = raise by 3%, -5 = lower by 5%
+    private Date startDate;  // First day of the new prices
+}
@@ -0,0 +1,25 @@
+package com.project.erpre.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PriceSearchCondition {
+
+    // Filters for the price list, only the non-null ones become predicates
+    private Integer customerNo;
+    private String productCd;
+    private LocalDate startDate; // Price start date from (inclusive)
+    private LocalDate endDate; // Price end date to (inclusive)
+    private LocalDate targetDate; // Prices valid on this date (open start/end included)
+    private String customerSearchText; // Partial match on customer name
+    private String productSearchText; // Partial match on product name or code
+    private String selectedStatus; // all, active, deleted
+}
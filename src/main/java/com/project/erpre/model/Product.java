@@ -10,7 +10,12 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "m_product")
+@Table(name = "m_product", indexes = {
+        // Product list keyset pagination: (sort column, product code)
+        @Index(name = "idx_product_nm_cd", columnList = "product_nm, product_cd"),
+        @Index(name = "idx_product_price_cd", columnList = "product_price, product_cd"),
+        @Index(name = "idx_product_insert_date_cd", columnList = "product_insert_date, product_cd")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
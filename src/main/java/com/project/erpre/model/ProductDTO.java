@@ -22,6 +22,7 @@ public class ProductDTO {
     private String categoryNm;
     private LocalDateTime productInsertDate;
     private LocalDateTime productUpdateDate;
+    private Integer orderHNo;          // Order number of a delivery record
     private String employeeName;
     private Date orderDDeliveryRequestDate;
     private Integer orderDQty;
@@ -0,0 +1,25 @@
+package com.project.erpre.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductFacetGroupDTO {
+
+    // Category path and status shared by the products of the group (category numbers are null without a category)
+    private Integer topCategoryNo;
+    private String topCategory;
+    private Integer middleCategoryNo;
+    private String middleCategory;
+    private Integer lowCategoryNo;
+    private String lowCategory;
+    private String productDeleteYn;
+
+    // Number of products in the group
+    private Long productCount;
+}
@@ -0,0 +1,37 @@
+package com.project.erpre.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductFacetsDTO {
+
+    // Products matching the whole filter (the total of the product list)
+    private long total;
+
+    // Products per category option, each list counted with the other filters but not its own level and the levels below
+    // (top: status only, middle: status + top, low: status + top + middle); categories without products are left out
+    private List<CategoryCount> topCategories;
+    private List<CategoryCount> middleCategories;
+    private List<CategoryCount> lowCategories;
+
+    // Products per status option ("all", "active", "deleted"), counted with the category filters
+    private Map<String, Long> statuses;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class CategoryCount {
+        private Integer categoryNo;
+        private String categoryNm;
+        private long count;
+    }
+}
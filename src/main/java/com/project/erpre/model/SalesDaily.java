@@ -0,0 +1,49 @@
+package com.project.erpre.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The SalesDaily entity maps to the m_sales_daily table.
+ * Daily rollup of approved order lines per customer, product and employee, used by the sales reports.
+ * Rows are rebuilt per day by SalesDailyRepository, never edited through JPA.
+ */
+@Entity
+@Table(name = "m_sales_daily")
+@IdClass(SalesDailyId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesDaily {
+
+    @Id
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;  // Effective (approval) date of the orders
+
+    @Id
+    @Column(name = "customer_no", nullable = false)
+    private Integer customerNo;
+
+    @Id
+    @Column(name = "product_cd", length = 10, nullable = false)
+    private String productCd;
+
+    @Id
+    @Column(name = "employee_id", length = 50, nullable = false)
+    private String employeeId;
+
+    @Column(name = "order_count", nullable = false)
+    private int orderCount;  // Number of orders, counted once per order on its first line so it can be summed over any grouping without product
+
+    @Column(name = "line_count", nullable = false)
+    private int lineCount;  // Number of order lines
+
+    @Column(name = "qty", nullable = false)
+    private long qty;  // Sum of ordered quantity
+
+    @Column(name = "amount", nullable = false, precision = 17, scale = 2)
+    private BigDecimal amount;  // Sum of line totals
+}
@@ -0,0 +1,18 @@
+package com.project.erpre.model;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Composite key of SalesDaily (day, customer, product, employee)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesDailyId implements Serializable {
+
+    private LocalDate salesDate;
+    private Integer customerNo;
+    private String productCd;
+    private String employeeId;
+}
@@ -0,0 +1,28 @@
+package com.project.erpre.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * The SalesDailyOrder entity maps to the m_sales_daily_order table.
+ * Remembers the day each order was rolled into, so that the old day is refreshed as well
+ * when an order moves to another day or leaves the approved state.
+ */
+@Entity
+@Table(name = "m_sales_daily_order", indexes = {
+        @Index(name = "idx_sales_daily_order_sales_date", columnList = "sales_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesDailyOrder {
+
+    @Id
+    @Column(name = "order_h_no")
+    private Integer orderNo;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+}
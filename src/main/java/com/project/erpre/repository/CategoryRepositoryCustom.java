@@ -9,4 +9,7 @@ public interface CategoryRepositoryCustom {
     // 카테고리 조회
     List<CategoryDTO> getCategoryList(Integer one, Integer two, Integer three);
 
+    // 전체 카테고리 (삭제된 카테고리 포함, 메모리 카테고리 트리용)
+    List<CategoryDTO> findCategoryTreeRows();
+
 }
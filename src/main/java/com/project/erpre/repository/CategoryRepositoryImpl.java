@@ -47,6 +47,27 @@ public class CategoryRepositoryImpl implements CategoryRepositoryCustom {
                 .fetch();
     }
 
+    // 🔴 전체 카테고리 (삭제된 카테고리 포함, 메모리 카테고리 트리용)
+    // 엔티티가 아닌 컬럼 값으로 조회 -> 같은 요청에서 방금 저장한 엔티티(등록일시 등 DB 기본값이 비어 있음)가 아닌 DB 값
+    @Override
+    public List<CategoryDTO> findCategoryTreeRows() {
+        QCategory category = QCategory.category;
+
+        return queryFactory.select(Projections.fields(CategoryDTO.class,
+                        category.categoryNo,
+                        category.categoryLevel,
+                        category.parentCategoryNo,
+                        category.categoryNm,
+                        category.categoryInsertDate,
+                        category.categoryUpdateDate,
+                        category.categoryDeleteYn,
+                        category.categoryDeleteDate
+                ))
+                .from(category)
+                .orderBy(category.categoryNo.asc())
+                .fetch();
+    }
+
     private BooleanBuilder categoryFilterCondition(Integer topCategoryNo, Integer middleCategoryNo, Integer lowCategoryNo) {
         QCategory category = QCategory.category;
         QCategory middleCategory = new QCategory("middleCategory");
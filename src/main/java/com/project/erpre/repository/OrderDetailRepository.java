@@ -3,16 +3,22 @@ package com.project.erpre.repository;
 import com.project.erpre.model.OrderDetail;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface OrderDetailRepository extends JpaRepository<OrderDetail, Integer> {
+public interface OrderDetailRepository extends JpaRepository<OrderDetail, Integer>, OrderDetailRepositoryCustom {
 
    List<OrderDetail> findByOrderOrderNo(Integer orderNo);
 
    @Query("SELECT SUM(o.orderDQty) FROM OrderDetail o")
    Long sumOrderDQty(); // 모든 orderDQty의 합계를 반환하는 메서드
 
+   // 주문들에 들어 있는 제품 코드 (주문 변경 시 상품 상세 캐시 무효화)
+   @Query("SELECT DISTINCT d.product.productCd FROM OrderDetail d WHERE d.order.orderNo IN :orderNos")
+   List<String> findProductCdsByOrderNos(@Param("orderNos") Collection<Integer> orderNos);
+
 }
@@ -0,0 +1,12 @@
+package com.project.erpre.repository;
+
+import com.project.erpre.model.OrderDetailDTO;
+
+import java.util.List;
+
+public interface OrderDetailRepositoryCustom {
+
+    // 주문 상세 일괄 등록 (JDBC batch insert), 등록된 행 수 반환
+    int batchInsertOrderDetails(Integer orderHNo, List<OrderDetailDTO> orderDetails);
+
+}
@@ -0,0 +1,47 @@
+package com.project.erpre.repository;
+
+import com.project.erpre.model.OrderDetailDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+
+public class OrderDetailRepositoryImpl implements OrderDetailRepositoryCustom {
+
+    // 한 번에 보내는 batch 크기
+    private static final int BATCH_SIZE = 500;
+
+    // IDENTITY 키 때문에 JPA saveAll은 한 건씩 INSERT 하므로 JdbcTemplate으로 직접 batch 처리 (JPA 트랜잭션과 같은 커넥션 사용)
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderDetailRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // 🔴 주문 상세 일괄 등록
+    // 등록일시는 컬럼 기본값 사용, reWriteBatchedInserts 옵션으로 multi-row INSERT로 전송됨
+    @Override
+    public int batchInsertOrderDetails(Integer orderHNo, List<OrderDetailDTO> orderDetails) {
+        String sql = "INSERT INTO m_order_d (order_h_no, product_cd, order_d_price, order_d_qty, " +
+                "order_d_total_price, order_d_delivery_request_date, order_d_delete_yn) VALUES (?, ?, ?, ?, ?, ?, 'N')";
+
+        int[][] results = jdbcTemplate.batchUpdate(sql, orderDetails, BATCH_SIZE, (ps, detail) -> {
+            ps.setInt(1, orderHNo);
+            ps.setString(2, detail.getProductCd());
+            ps.setBigDecimal(3, detail.getOrderDPrice());
+            ps.setInt(4, detail.getOrderDQty());
+            ps.setBigDecimal(5, detail.getOrderDTotalPrice());
+            Timestamp deliveryRequestDate = detail.getOrderDDeliveryRequestDate();
+            if (deliveryRequestDate != null) {
+                ps.setTimestamp(6, deliveryRequestDate);
+            } else {
+                ps.setNull(6, Types.TIMESTAMP);
+            }
+        });
+
+        // rewrite된 batch는 SUCCESS_NO_INFO(-2)를 돌려줄 수 있으므로 결과 대신 건수로 반환
+        return (int) Arrays.stream(results).mapToLong(chunk -> chunk.length).sum();
+    }
+}
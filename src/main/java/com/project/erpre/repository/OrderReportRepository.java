@@ -8,94 +8,81 @@ import org.springframework.stereotype.Repository;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.util.List;
 
+// 매출 리포트 집계
+// 원본 주문(m_order_h/m_order_d) 대신 일별 집계 테이블(m_sales_daily)을 읽기 때문에 조회 비용이 주문 수가 아니라 기간(일수)에 비례함
+// 집계 기준일은 주문의 승인 일시(order_h_effective_date)이고 approved 상태, 삭제되지 않은 주문만 포함 (SalesDailyRepositoryImpl 참고)
 @Repository
 public interface OrderReportRepository extends JpaRepository<Order, Integer> {
 
     // 🔴 각 달별 주문 금액 집계
-    // 월별 주문 금액을 집계하는 쿼리입니다. orderHUpdateDate가 있을 경우 해당 월을 기준으로, 없을 경우 orderHInsertDate를 기준으로 집계합니다.
-    // approved 상태의 주문만 포함하며, 지정된 기간(startDate와 endDate) 내에 있는 주문을 집계합니다.
+    // 결과: [월, 주문 건수, 주문 금액]
     @Query("SELECT " +
-            "CASE WHEN o.orderHUpdateDate IS NOT NULL THEN MONTH(o.orderHUpdateDate) ELSE MONTH(o.orderHInsertDate) END, " +
-            "COUNT(o), " +  // 주문 건수 추가
-            "SUM(o.orderHTotalPrice) " +  // 총 금액 집계
-            "FROM Order o " +
-            "WHERE o.orderHStatus = 'approved' AND o.orderHDeleteYn = 'N' " +  // 삭제되지 않은 주문만 필터링
-            "AND ((o.orderHUpdateDate IS NOT NULL AND o.orderHUpdateDate BETWEEN :startDate AND :endDate) " +
-            "OR (o.orderHUpdateDate IS NULL AND o.orderHInsertDate BETWEEN :startDate AND :endDate)) " +
-            "GROUP BY CASE WHEN o.orderHUpdateDate IS NOT NULL THEN MONTH(o.orderHUpdateDate) ELSE MONTH(o.orderHInsertDate) END, " +
-            "CASE WHEN o.orderHUpdateDate IS NOT NULL THEN YEAR(o.orderHUpdateDate) ELSE YEAR(o.orderHInsertDate) END")
-    List<Object[]> countOrdersByMonth(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+            "MONTH(s.salesDate), " +
+            "SUM(s.orderCount), " +  // 주문 건수
+            "SUM(s.amount) " +  // 총 금액 집계
+            "FROM SalesDaily s " +
+            "WHERE s.salesDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY YEAR(s.salesDate), MONTH(s.salesDate)")
+    List<Object[]> countOrdersByMonth(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
     // 🔴 반기별 주문 금액 집계
-    // 반기별로 주문 금액을 집계하는 쿼리입니다. 해당 기간(startDate와 endDate) 내에서 월을 기준으로 두 반기(FirstHalf, SecondHalf)로 나누어 집계합니다.
-    // 반기 구분은 startMonth1과 endMonth1 파라미터를 사용하여 첫 반기를 정의합니다.
+    // 결과: [반기(FirstHalf/SecondHalf), 연도, 주문 건수, 주문 금액]
     @Query("SELECT " +
             "CASE " +
-            "  WHEN MONTH(COALESCE(o.orderHUpdateDate, o.orderHInsertDate)) BETWEEN 1 AND 6 THEN 'FirstHalf' " +
+            "  WHEN MONTH(s.salesDate) BETWEEN 1 AND 6 THEN 'FirstHalf' " +
             "  ELSE 'SecondHalf' " +
             "END AS halfYear, " +
-            "YEAR(COALESCE(o.orderHUpdateDate, o.orderHInsertDate)), " +
-            "COUNT(o), " +
-            "SUM(o.orderHTotalPrice) " +
-            "FROM Order o " +
-            "WHERE o.orderHStatus = 'approved' AND o.orderHDeleteYn = 'N' " +
-            "AND COALESCE(o.orderHUpdateDate, o.orderHInsertDate) BETWEEN :startDate AND :endDate " +
-            "GROUP BY halfYear, YEAR(COALESCE(o.orderHUpdateDate, o.orderHInsertDate)) " +
-            "ORDER BY YEAR(COALESCE(o.orderHUpdateDate, o.orderHInsertDate)), halfYear")
+            "YEAR(s.salesDate), " +
+            "SUM(s.orderCount), " +
+            "SUM(s.amount) " +
+            "FROM SalesDaily s " +
+            "WHERE s.salesDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY halfYear, YEAR(s.salesDate) " +
+            "ORDER BY YEAR(s.salesDate), halfYear")
     List<Object[]> countOrdersByHalfYear(
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
     );
 
     // 🔴 연도별 주문 금액 집계
-    // 연도별 주문 금액을 집계하는 쿼리입니다. orderHUpdateDate가 있을 경우 해당 연도를 기준으로, 없을 경우 orderHInsertDate를 기준으로 집계합니다.
-    // 지정된 기간(startDate와 endDate) 내에 있는 approved 상태의 주문만을 집계합니다.
+    // 결과: [연도, 주문 건수, 주문 금액]
     @Query("SELECT " +
-            "YEAR(CASE WHEN o.orderHUpdateDate IS NOT NULL THEN o.orderHUpdateDate ELSE o.orderHInsertDate END), " +
-            "COUNT(o), " +  // 주문 건수 추가
-            "SUM(o.orderHTotalPrice) " +  // 총 금액 집계
-            "FROM Order o " +
-            "WHERE o.orderHStatus = 'approved' AND o.orderHDeleteYn = 'N' " +  // 삭제되지 않은 주문만 필터링
-            "AND ((o.orderHUpdateDate IS NOT NULL AND o.orderHUpdateDate BETWEEN :startDate AND :endDate) " +
-            "OR (o.orderHUpdateDate IS NULL AND o.orderHInsertDate BETWEEN :startDate AND :endDate)) " +
-            "GROUP BY YEAR(CASE WHEN o.orderHUpdateDate IS NOT NULL THEN o.orderHUpdateDate ELSE o.orderHInsertDate END)")
-    List<Object[]> countOrdersByYear(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+            "YEAR(s.salesDate), " +
+            "SUM(s.orderCount), " +  // 주문 건수
+            "SUM(s.amount) " +  // 총 금액 집계
+            "FROM SalesDaily s " +
+            "WHERE s.salesDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY YEAR(s.salesDate)")
+    List<Object[]> countOrdersByYear(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
-    // 상품별 주문 금액, 건수 집계
-    @Query("SELECT p.productNm, COUNT(o), SUM(od.orderDTotalPrice) " +
-            "FROM OrderDetail od " +
-            "JOIN od.product p " +
-            "JOIN od.order o " +
-            "WHERE o.orderHStatus = 'approved' AND o.orderHDeleteYn = 'N' " +
-            "AND ((o.orderHUpdateDate IS NOT NULL AND o.orderHUpdateDate BETWEEN :startDate AND :endDate) " +
-            "OR (o.orderHUpdateDate IS NULL AND o.orderHInsertDate BETWEEN :startDate AND :endDate)) " +
-            "GROUP BY p.productNm " +  // 공백 추가
-            "ORDER BY SUM(od.orderDTotalPrice) DESC")
-    List<Object[]> countOrdersByProduct(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, Pageable pageable);
+    // 상품별 주문 금액, 건수 집계 (건수는 주문 상세 행 수)
+    @Query("SELECT p.productNm, SUM(s.lineCount), SUM(s.amount) " +
+            "FROM SalesDaily s " +
+            "JOIN Product p ON p.productCd = s.productCd " +
+            "WHERE s.salesDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY p.productNm " +
+            "ORDER BY SUM(s.amount) DESC")
+    List<Object[]> countOrdersByProduct(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, Pageable pageable);
 
     // 고객사별 주문 금액 집계
-    @Query("SELECT c.customerName, COUNT(o), SUM(o.orderHTotalPrice) " +
-            "FROM Order o " +
-            "JOIN o.customer c " +
-            "WHERE o.orderHStatus = 'approved' AND o.orderHDeleteYn = 'N' " +
-            "AND ((o.orderHUpdateDate IS NOT NULL AND o.orderHUpdateDate BETWEEN :startDate AND :endDate) " +
-            "OR (o.orderHUpdateDate IS NULL AND o.orderHInsertDate BETWEEN :startDate AND :endDate)) " +
-            "GROUP BY c.customerName " +  // 공백 추가
-            "ORDER BY SUM(o.orderHTotalPrice) DESC")
-    List<Object[]> countOrdersByCustomer(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, Pageable pageable);
+    @Query("SELECT c.customerName, SUM(s.orderCount), SUM(s.amount) " +
+            "FROM SalesDaily s " +
+            "JOIN Customer c ON c.customerNo = s.customerNo " +
+            "WHERE s.salesDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY c.customerName " +
+            "ORDER BY SUM(s.amount) DESC")
+    List<Object[]> countOrdersByCustomer(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, Pageable pageable);
 
     // 담당자(직원)별 주문 금액 집계
-    @Query("SELECT e.employeeName, COUNT(o), SUM(o.orderHTotalPrice) " +
-            "FROM Order o " +
-            "JOIN o.employee e " +
-            "WHERE o.orderHStatus = 'approved' AND o.orderHDeleteYn = 'N' " +
-            "AND ((o.orderHUpdateDate IS NOT NULL AND o.orderHUpdateDate BETWEEN :startDate AND :endDate) " +
-            "OR (o.orderHUpdateDate IS NULL AND o.orderHInsertDate BETWEEN :startDate AND :endDate)) " +
-            "GROUP BY e.employeeName " +  // 공백 추가
-            "ORDER BY SUM(o.orderHTotalPrice) DESC")
-    List<Object[]> countOrdersByEmployee(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, Pageable pageable);
+    @Query("SELECT e.employeeName, SUM(s.orderCount), SUM(s.amount) " +
+            "FROM SalesDaily s " +
+            "JOIN Employee e ON e.employeeId = s.employeeId " +
+            "WHERE s.salesDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY e.employeeName " +
+            "ORDER BY SUM(s.amount) DESC")
+    List<Object[]> countOrdersByEmployee(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, Pageable pageable);
 
 }
@@ -2,6 +2,7 @@ package com.project.erpre.repository;
 
 import com.project.erpre.model.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -10,9 +11,10 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Integer> {
+public interface OrderRepository extends JpaRepository<Order, Integer>, OrderRepositoryCustom {
 //crud 메서드 생성 가능
 
     // 주문 상태 별 주문 목록 조회
@@ -21,8 +23,27 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
     //고객사 이름별 주문 등록 조회
     List <Order> findByCustomerCustomerNameContaining (String name);
 
-    //날짜로 주문 목록 조회
-    List<Order> findByOrderHInsertDateContaining(String orderHInsertDate);
+    // 주문 수정 화면용 단건 조회: 헤더, 고객사, 담당자, 상세, 상품, 카테고리(3단계)를 한 번의 SELECT로 가져옴
+    // OrderDetail.product, Product.category, Category.parentCategory가 EAGER라서 fetch join으로 모두 채워야 추가 쿼리가 안 나감
+    @Query("SELECT DISTINCT o FROM Order o " +
+            "LEFT JOIN FETCH o.customer " +
+            "LEFT JOIN FETCH o.employee " +
+            "LEFT JOIN FETCH o.orderDetails od " +
+            "LEFT JOIN FETCH od.product p " +
+            "LEFT JOIN FETCH p.category lc " +
+            "LEFT JOIN FETCH lc.parentCategory mc " +
+            "LEFT JOIN FETCH mc.parentCategory " +
+            "WHERE o.orderNo = :orderNo")
+    Optional<Order> findOrderGraphById(@Param("orderNo") Integer orderNo);
+
+    // 주문 합계 증분 반영: 상세 추가/수정/삭제 시 차액만 더함 (상세 컬렉션을 로딩하지 않고 UPDATE 한 번)
+    // 영속성 컨텍스트의 주문은 합계가 오래된 값이 되므로 실행 전 flush, 실행 후 clear
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.orderHTotalPrice = COALESCE(o.orderHTotalPrice, 0) + :delta, " +
+            "o.orderHUpdateDate = :updateDate WHERE o.orderNo = :orderNo")
+    int addToTotalPrice(@Param("orderNo") Integer orderNo,
+                        @Param("delta") BigDecimal delta,
+                        @Param("updateDate") LocalDateTime updateDate);
 
     // 리스트에 포함된 모든 주문 조회
     List<Order> findAllByOrderNoIn(List<Integer> orderNos);
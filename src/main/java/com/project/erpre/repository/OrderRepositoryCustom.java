@@ -0,0 +1,32 @@
+package com.project.erpre.repository;
+
+import com.project.erpre.model.Order;
+import com.project.erpre.model.OrderSearchCondition;
+import com.project.erpre.model.OrderSummaryDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+
+    // 주문 목록 조회 (keyset 페이징, 등록일시 + 주문번호 내림차순)
+    // lastInsertDate/lastOrderNo가 null이면 첫 페이지
+    List<OrderSummaryDTO> findOrderSummaries(OrderSearchCondition condition,
+                                             LocalDateTime lastInsertDate, Integer lastOrderNo, int limit);
+
+    // 주문 검색 (기간, 상태, 고객사명, 담당자 조건 조합)
+    List<Order> searchOrders(OrderSearchCondition condition);
+
+    // 주문 상태 일괄 변경 (현재 상태가 fromStatus인 주문만 변경), 실제로 변경된 주문번호 반환
+    List<Integer> transitionOrderStatus(List<Integer> orderNos, String fromStatus, String toStatus, LocalDateTime updateDate);
+
+    // 기준일이 비어 있는 승인/반려 주문의 기준일 채우기, 채운 건수 반환
+    int fillMissingEffectiveDates();
+
+    // 헤더 합계와 상세 합계가 다른 주문번호 조회 (최대 limit건)
+    List<Integer> findTotalDriftOrderNos(int limit);
+
+    // 주문 헤더 합계를 상세 합계로 다시 계산, 실제로 보정된 주문번호 반환
+    List<Integer> repairOrderTotals(List<Integer> orderNos);
+
+}
@@ -0,0 +1,220 @@
+package com.project.erpre.repository;
+
+import com.project.erpre.model.Order;
+import com.project.erpre.model.OrderSearchCondition;
+import com.project.erpre.model.OrderSummaryDTO;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.project.erpre.model.QCustomer.customer;
+import static com.project.erpre.model.QEmployee.employee;
+import static com.project.erpre.model.QOrder.order;
+import static com.project.erpre.model.QOrderDetail.orderDetail;
+import static com.project.erpre.model.QProduct.product;
+
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    // QueryDSL 사용을 위한 JPAQueryFactory
+    private final JPAQueryFactory queryFactory;
+
+    // 집합 단위 UPDATE ... RETURNING 처리를 위한 JdbcTemplate (JPA 트랜잭션과 같은 커넥션 사용)
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderRepositoryImpl(EntityManager entityManager, JdbcTemplate jdbcTemplate) {
+        this.queryFactory = new JPAQueryFactory(entityManager);
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // 🔴 주문 목록 조회 (keyset 페이징)
+    // offset 없이 마지막 행의 (등록일시, 주문번호) 다음부터 읽기 때문에 몇 페이지든 비용이 같음
+    @Override
+    public List<OrderSummaryDTO> findOrderSummaries(OrderSearchCondition condition,
+                                                    LocalDateTime lastInsertDate, Integer lastOrderNo, int limit) {
+        BooleanBuilder builder = orderFilterCondition(condition);
+
+        // 커서 조건: (등록일시, 주문번호) < (마지막 등록일시, 마지막 주문번호)
+        // "등록일시 <= 마지막 등록일시"를 따로 두어 (상태, 등록일시) 인덱스를 마지막 값부터 읽게 함 (OR 조건만으로는 인덱스 범위가 안 됨)
+        if (lastInsertDate != null && lastOrderNo != null) {
+            builder.and(order.orderHInsertDate.loe(lastInsertDate));
+            builder.and(order.orderHInsertDate.lt(lastInsertDate)
+                    .or(order.orderHInsertDate.eq(lastInsertDate).and(order.orderNo.lt(lastOrderNo))));
+        }
+
+        List<OrderSummaryDTO> results = queryFactory.select(Projections.fields(OrderSummaryDTO.class,
+                        order.orderNo,
+                        customer.customerNo,
+                        customer.customerName,
+                        employee.employeeId,
+                        employee.employeeName,
+                        order.orderHTotalPrice,
+                        order.orderHStatus,
+                        order.orderHInsertDate,
+                        order.orderHUpdateDate))
+                .from(order)
+                .leftJoin(order.customer, customer)
+                .leftJoin(order.employee, employee)
+                .where(builder)
+                .orderBy(order.orderHInsertDate.desc(), order.orderNo.desc())
+                .limit(limit)
+                .fetch();
+
+        fillProductSummary(results);
+        return results;
+    }
+
+    // 🔴 주문 검색 (기간, 상태, 고객사명, 담당자 조건 조합)
+    // 고객사/담당자는 fetch join으로 함께 가져와서 직렬화 시 주문별 추가 조회가 없도록 함
+    @Override
+    public List<Order> searchOrders(OrderSearchCondition condition) {
+        return queryFactory.selectFrom(order)
+                .leftJoin(order.customer, customer).fetchJoin()
+                .leftJoin(order.employee, employee).fetchJoin()
+                .where(orderFilterCondition(condition))
+                .orderBy(order.orderHInsertDate.desc(), order.orderNo.desc())
+                .fetch();
+    }
+
+    // 🔴 주문 상태 일괄 변경
+    // 주문별 조회/저장 없이 UPDATE 한 번으로 처리, 현재 상태 조건으로 이미 처리된 주문은 건너뜀
+    // 승인/반려로 바뀌면 기준일(order_h_effective_date)을 변경 시각으로, 진행중으로 돌아가면 비움 (Order.changeStatus와 같은 규칙)
+    @Override
+    public List<Integer> transitionOrderStatus(List<Integer> orderNos, String fromStatus, String toStatus, LocalDateTime updateDate) {
+        String sql = "UPDATE m_order_h SET order_h_status = ?, order_h_update_date = ?, order_h_effective_date = ? " +
+                "WHERE order_h_no = ANY(?) AND order_h_status = ? AND order_h_delete_yn = 'N' " +
+                "RETURNING order_h_no";
+
+        boolean decided = "approved".equals(toStatus) || "denied".equals(toStatus);
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setString(1, toStatus);
+            ps.setTimestamp(2, Timestamp.valueOf(updateDate));
+            ps.setTimestamp(3, decided ? Timestamp.valueOf(updateDate) : null);
+            ps.setArray(4, con.createArrayOf("integer", orderNos.toArray()));
+            ps.setString(5, fromStatus);
+            return ps;
+        }, (rs, rowNum) -> rs.getInt(1));
+    }
+
+    // 🔴 기준일이 비어 있는 승인/반려 주문 채우기 (기준일 컬럼 추가 전에 처리된 주문)
+    // 예전 리포트 기준과 같은 수정일시(없으면 등록일시)로 채움
+    @Override
+    public int fillMissingEffectiveDates() {
+        return jdbcTemplate.update("UPDATE m_order_h SET order_h_effective_date = COALESCE(order_h_update_date, order_h_insert_date) " +
+                "WHERE order_h_status IN ('approved', 'denied') AND order_h_effective_date IS NULL");
+    }
+
+    // 🔴 합계 불일치 주문 조회
+    // 헤더 합계는 증분으로 관리되므로 서비스 밖의 변경(직접 SQL, 상품 삭제 cascade 등)이 있을 때만 어긋남
+    @Override
+    public List<Integer> findTotalDriftOrderNos(int limit) {
+        String sql = "SELECT h.order_h_no FROM m_order_h h " +
+                "LEFT JOIN (SELECT order_h_no, SUM(order_d_total_price) AS line_total " +
+                "           FROM m_order_d GROUP BY order_h_no) d ON d.order_h_no = h.order_h_no " +
+                "WHERE h.order_h_total_price IS DISTINCT FROM COALESCE(d.line_total, 0) " +
+                "ORDER BY h.order_h_no LIMIT ?";
+
+        return jdbcTemplate.queryForList(sql, Integer.class, limit);
+    }
+
+    // 🔴 주문 합계 보정
+    // 헤더를 먼저 잠가서 진행 중인 증분 UPDATE가 끝난 뒤에 상세 합계를 다시 읽음 (보정 중 증분이 덮어써지지 않게)
+    @Override
+    public List<Integer> repairOrderTotals(List<Integer> orderNos) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT order_h_no FROM m_order_h WHERE order_h_no = ANY(?) ORDER BY order_h_no FOR UPDATE");
+            ps.setArray(1, con.createArrayOf("integer", orderNos.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getInt(1));
+
+        String sql = "UPDATE m_order_h h SET order_h_total_price = t.line_total " +
+                "FROM (SELECT o.order_h_no, COALESCE(SUM(d.order_d_total_price), 0) AS line_total " +
+                "      FROM m_order_h o LEFT JOIN m_order_d d ON d.order_h_no = o.order_h_no " +
+                "      WHERE o.order_h_no = ANY(?) GROUP BY o.order_h_no) t " +
+                "WHERE h.order_h_no = t.order_h_no AND h.order_h_total_price IS DISTINCT FROM t.line_total " +
+                "RETURNING h.order_h_no";
+
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("integer", orderNos.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getInt(1));
+    }
+
+    // 🔴 주문 목록 필터 조건 (값이 있는 조건만 추가)
+    // 날짜는 컬럼을 가공하지 않고 [시작일 00:00, 종료일 다음날 00:00) 범위로 비교해서 인덱스를 탈 수 있게 함
+    private BooleanBuilder orderFilterCondition(OrderSearchCondition condition) {
+        BooleanBuilder builder = new BooleanBuilder();
+        if (condition == null) {
+            return builder;
+        }
+
+        // 주문 상태 조건
+        if (condition.getOrderHStatus() != null && !condition.getOrderHStatus().isEmpty()) {
+            builder.and(order.orderHStatus.eq(condition.getOrderHStatus()));
+        }
+
+        // 고객사 조건
+        if (condition.getCustomerNo() != null) {
+            builder.and(order.customer.customerNo.eq(condition.getCustomerNo()));
+        }
+
+        // 담당자 조건
+        if (condition.getEmployeeId() != null && !condition.getEmployeeId().isEmpty()) {
+            builder.and(order.employee.employeeId.eq(condition.getEmployeeId()));
+        }
+
+        // 고객사명 조건 (조인한 customer 기준)
+        if (condition.getCustomerName() != null && !condition.getCustomerName().isEmpty()) {
+            builder.and(customer.customerName.containsIgnoreCase(condition.getCustomerName()));
+        }
+
+        // 기간 조건 (등록일시)
+        if (condition.getStartDate() != null) {
+            builder.and(order.orderHInsertDate.goe(condition.getStartDate().atStartOfDay()));
+        }
+        if (condition.getEndDate() != null) {
+            builder.and(order.orderHInsertDate.lt(condition.getEndDate().plusDays(1).atStartOfDay()));
+        }
+
+        return builder;
+    }
+
+    // 🔴 페이지에 포함된 주문들의 상품 건수/대표 상품명을 한 번에 조회 (주문별 개별 조회 X)
+    private void fillProductSummary(List<OrderSummaryDTO> summaries) {
+        if (summaries.isEmpty()) {
+            return;
+        }
+
+        List<Integer> orderNos = summaries.stream()
+                .map(OrderSummaryDTO::getOrderNo)
+                .collect(Collectors.toList());
+
+        Map<Integer, Tuple> lineSummary = queryFactory.select(orderDetail.order.orderNo, orderDetail.count(), product.productNm.min())
+                .from(orderDetail)
+                .join(orderDetail.product, product)
+                .where(orderDetail.order.orderNo.in(orderNos))
+                .groupBy(orderDetail.order.orderNo)
+                .fetch()
+                .stream()
+                .collect(Collectors.toMap(tuple -> tuple.get(orderDetail.order.orderNo), tuple -> tuple));
+
+        for (OrderSummaryDTO summary : summaries) {
+            Tuple tuple = lineSummary.get(summary.getOrderNo());
+            summary.setProductCount(tuple != null ? tuple.get(orderDetail.count()) : 0L);
+            summary.setFirstProductNm(tuple != null ? tuple.get(product.productNm.min()) : null);
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.project.erpre.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.erpre.util.PageCountMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// 페이징 목록의 전체 개수 (목록 조회마다 붙는 두 번째 COUNT 쿼리를 줄임)
+// 1. 목록은 페이지 크기 + 1건을 조회 -> 마지막 페이지면 개수 조회 없이 계산, NONE이면 다음 페이지 여부만
+// 2. 조건 없는 큰 목록(AUTO)은 실행 계획의 예상 행 수 (페이지 번호 표시에는 대략적인 값으로 충분)
+// 3. 그 외에는 정확한 개수를 조건별로 짧은 시간 캐시 (같은 조건으로 페이지를 넘길 때 다시 세지 않음)
+@Component
+public class PageCounter {
+
+    // EXPLAIN (FORMAT JSON) 결과의 첫 번째 (최상위) 노드 예상 행 수
+    private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\"\\s*:\\s*(\\d+)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 조건 키 -> 개수 (키 길이로 무게를 매겨 고객 가격 IN 목록 같은 긴 조건도 메모리 상한 안에서)
+    private final Cache<String, Long> counts;
+
+    // 예상 행 수가 이 값 이상일 때만 예상 행 수 사용 (작은 목록은 정확히 세도 빠름)
+    private final long estimateThreshold;
+
+    public PageCounter(JdbcTemplate jdbcTemplate,
+                       @Value("${erpre.paging.count-cache-seconds:30}") long cacheSeconds,
+                       @Value("${erpre.paging.estimate-threshold:100000}") long estimateThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.estimateThreshold = estimateThreshold;
+        this.counts = Caffeine.newBuilder()
+                .maximumWeight(1_000_000)
+                .weigher((String key, Long count) -> key.length())
+                .expireAfterWrite(Duration.ofSeconds(cacheSeconds))
+                .build();
+    }
+
+    // 🔴 페이지 만들기
+    // rows: 페이지 크기 + 1건까지 조회한 결과, countKey: 조회 종류 + 조건 (같은 키 = 같은 개수)
+    // estimateSql: 조건 없는 목록의 예상 행 수를 볼 SQL (조건이 있으면 null), exactCount: 정확한 개수 조회
+    public <T> Page<T> page(List<T> rows, Pageable pageable, PageCountMode mode,
+                            String countKey, String estimateSql, LongSupplier exactCount) {
+        long offset = pageable.getOffset();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<T> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+
+        // 마지막 페이지 (첫 페이지가 비어 있는 경우 포함): 개수가 정해짐
+        if (!hasNext && (!content.isEmpty() || offset == 0)) {
+            return new PageImpl<>(content, pageable, offset + content.size());
+        }
+
+        long estimate = mode == PageCountMode.AUTO && estimateSql != null ? estimate(estimateSql) : -1;
+        long total;
+        if (mode == PageCountMode.NONE) {
+            total = offset + content.size();
+        } else if (estimate >= estimateThreshold) {
+            total = estimate;
+        } else {
+            total = counts.get(countKey, key -> exactCount.getAsLong());
+        }
+
+        // 다음 페이지가 있으면 전체 개수는 적어도 다음 페이지 첫 행까지 (예상 행 수, 캐시된 개수가 작을 때도)
+        if (hasNext) {
+            total = Math.max(total, offset + content.size() + 1);
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    // 실행 계획의 예상 행 수 (통계 기준, ANALYZE 전이면 부정확), 조건 키와 같이 캐시
+    private long estimate(String sql) {
+        return counts.get("estimate:" + sql, key -> {
+            String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class);
+            Matcher matcher = PLAN_ROWS.matcher(plan != null ? plan : "");
+            return matcher.find() ? Long.parseLong(matcher.group(1)) : 0L;
+        });
+    }
+}
@@ -0,0 +1,10 @@
+package com.project.erpre.repository;
+
+import com.project.erpre.model.PriceImport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PriceImportRepository extends JpaRepository<PriceImport, Integer>, PriceImportRepositoryCustom {
+
+}
@@ -0,0 +1,28 @@
+package com.project.erpre.repository;
+
+import java.io.InputStream;
+import java.util.List;
+
+public interface PriceImportRepositoryCustom {
+
+    // CSV(헤더 포함: 고객 번호, 제품 코드, 가격, 시작일, 종료일)를 COPY로 스테이징 테이블에 적재, 적재된 행 수 반환
+    int copyRows(Integer importNo, InputStream csv);
+
+    // 진행 상황 기록 (적재한 바이트 수)
+    void updateLoadedBytes(Integer importNo, long loadedBytes);
+
+    // 스테이징 행 검증 (형식, 고객/제품 존재, 기간, 목록 내부/기존 가격과의 겹침), 거부된 행 수 반환
+    int validateRows(Integer importNo);
+
+    // 같은 기간의 기존 가격 금액 수정, 수정된 가격 수 반환
+    int updatePricesFromRows(Integer importNo);
+
+    // 새 가격 등록, 등록된 가격 수 반환
+    int insertPricesFromRows(Integer importNo);
+
+    // 반영된 가격 번호 조회
+    List<Integer> findMergedPriceNos(Integer importNo);
+
+    // 반영이 끝난 행 삭제 (거부된 행만 결과로 남김)
+    int deleteAcceptedRows(Integer importNo);
+}
@@ -0,0 +1,194 @@
+package com.project.erpre.repository;
+
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+
+public class PriceImportRepositoryImpl implements PriceImportRepositoryCustom {
+
+    // 가격 적용 기간: 시작일/종료일을 포함하는 daterange, NULL이면 그 방향으로 무한 (ex_price_period와 같은 식)
+    private static final String PERIOD = "daterange(p.price_start_date, p.price_end_date, '[]')";
+
+    // 날짜 형식 yyyy-MM-dd (일자가 그 달의 마지막 날 이후인 경우는 따로 확인)
+    private static final String DATE_FORMAT = "'^[1-9][0-9]{3}-(0[1-9]|1[0-2])-(0[1-9]|[12][0-9]|3[01])$'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PriceImportRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // 🔴 CSV 적재 (COPY FROM STDIN)
+    // 파일을 그대로 서버로 흘려보내므로 행 수와 상관없이 메모리 사용량 일정
+    // COPY는 import_no를 채울 수 없어서 트랜잭션 임시 테이블에 먼저 받고 (순서대로 행 번호 부여) 스테이징 테이블로 옮김
+    // 호출하는 쪽의 트랜잭션 안에서 실행 (임시 테이블은 커밋 시 삭제)
+    @Override
+    public int copyRows(Integer importNo, InputStream csv) {
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) con -> {
+            try (Statement statement = con.createStatement()) {
+                statement.execute("CREATE TEMP TABLE tmp_price_import (" +
+                        "  row_no bigserial, customer_no text, product_cd text, price_customer text, " +
+                        "  price_start_date text, price_end_date text" +
+                        ") ON COMMIT DROP");
+            }
+
+            try {
+                con.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                        "COPY tmp_price_import (customer_no, product_cd, price_customer, price_start_date, price_end_date) " +
+                                "FROM STDIN WITH (FORMAT csv, HEADER true)", csv);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            // 앞뒤 공백 제거, 빈 값은 NULL (종료일이 비어 있으면 무기한)
+            int rows;
+            try (PreparedStatement ps = con.prepareStatement("INSERT INTO m_price_import_row " +
+                    "(import_no, row_no, raw_customer_no, raw_product_cd, raw_price_customer, raw_price_start_date, raw_price_end_date) " +
+                    "SELECT ?, CAST(row_no AS integer), NULLIF(trim(customer_no), ''), NULLIF(trim(product_cd), ''), " +
+                    "       NULLIF(trim(price_customer), ''), NULLIF(trim(price_start_date), ''), NULLIF(trim(price_end_date), '') " +
+                    "FROM tmp_price_import")) {
+                ps.setInt(1, importNo);
+                rows = ps.executeUpdate();
+            }
+
+            // 방금 채운 행의 통계가 없으면 검증 쿼리의 조인 계획이 잘못 잡힘
+            try (Statement statement = con.createStatement()) {
+                statement.execute("ANALYZE m_price_import_row");
+            }
+            return rows;
+        });
+    }
+
+    @Override
+    public void updateLoadedBytes(Integer importNo, long loadedBytes) {
+        jdbcTemplate.update("UPDATE m_price_import SET import_loaded_bytes = ? WHERE import_no = ?", loadedBytes, importNo);
+    }
+
+    // 🔴 스테이징 행 검증 (거부 사유를 앞 단계부터 하나만 기록)
+    // 1. 형식 (고객 번호, 제품 코드, 가격, 날짜) -> 통과한 행만 타입 변환
+    // 2. 시작일 > 종료일, 없는/삭제된 고객, 없는/삭제된 제품
+    // 3. 목록 내부 기간 겹침 (겹치는 행 모두 거부)
+    // 4. 기존 가격과 기간이 똑같으면 그 가격의 금액 수정, 일부만 겹치면 거부
+    @Override
+    public int validateRows(Integer importNo) {
+        jdbcTemplate.update("UPDATE m_price_import_row r SET reject_reason = v.reason, " +
+                "  customer_no = CASE WHEN v.reason IS NULL THEN CAST(r.raw_customer_no AS integer) END, " +
+                "  product_cd = CASE WHEN v.reason IS NULL THEN r.raw_product_cd END, " +
+                "  price_customer = CASE WHEN v.reason IS NULL THEN CAST(r.raw_price_customer AS numeric(15, 2)) END, " +
+                "  price_start_date = CASE WHEN v.reason IS NULL THEN CAST(r.raw_price_start_date AS date) END, " +
+                "  price_end_date = CASE WHEN v.reason IS NULL THEN CAST(r.raw_price_end_date AS date) END " +
+                "FROM (SELECT row_no, CASE " +
+                "        WHEN raw_customer_no IS NULL OR raw_customer_no !~ '^[0-9]{1,9}$' THEN 'Invalid customer number' " +
+                "        WHEN raw_product_cd IS NULL OR length(raw_product_cd) > 10 THEN 'Invalid product code' " +
+                "        WHEN raw_price_customer IS NULL OR raw_price_customer !~ '^[0-9]{1,13}([.][0-9]{1,2})?$' THEN 'Invalid price' " +
+                "        WHEN " + invalidDate("raw_price_start_date") + " THEN 'Invalid start date' " +
+                "        WHEN " + invalidDate("raw_price_end_date") + " THEN 'Invalid end date' " +
+                "      END AS reason " +
+                "      FROM m_price_import_row WHERE import_no = ?) v " +
+                "WHERE r.import_no = ? AND r.row_no = v.row_no", importNo, importNo);
+
+        jdbcTemplate.update("UPDATE m_price_import_row r SET reject_reason = v.reason " +
+                "FROM (SELECT x.row_no, CASE " +
+                "        WHEN x.price_start_date > x.price_end_date THEN 'Start date is after the end date' " +
+                "        WHEN c.customer_no IS NULL THEN 'Unknown customer' " +
+                "        WHEN p.product_cd IS NULL THEN 'Unknown product' " +
+                "      END AS reason " +
+                "      FROM m_price_import_row x " +
+                "      LEFT JOIN m_customer c ON c.customer_no = x.customer_no AND c.customer_delete_yn = 'N' " +
+                "      LEFT JOIN m_product p ON p.product_cd = x.product_cd AND p.product_delete_yn = 'N' " +
+                "      WHERE x.import_no = ? AND x.reject_reason IS NULL) v " +
+                "WHERE r.import_no = ? AND r.row_no = v.row_no AND v.reason IS NOT NULL", importNo, importNo);
+
+        // 목록 내부 겹침: 겹치는 행 중 가장 앞의 행 번호를 사유에 기록
+        jdbcTemplate.update("UPDATE m_price_import_row r SET reject_reason = 'Overlaps row ' || v.conflict_row_no " +
+                "FROM (SELECT a.row_no, MIN(b.row_no) AS conflict_row_no " +
+                "      FROM m_price_import_row a " +
+                "      JOIN m_price_import_row b ON b.import_no = a.import_no AND b.customer_no = a.customer_no " +
+                "           AND b.product_cd = a.product_cd AND b.row_no <> a.row_no AND b.reject_reason IS NULL " +
+                "           AND daterange(b.price_start_date, b.price_end_date, '[]') " +
+                "               && daterange(a.price_start_date, a.price_end_date, '[]') " +
+                "      WHERE a.import_no = ? AND a.reject_reason IS NULL " +
+                "      GROUP BY a.row_no) v " +
+                "WHERE r.import_no = ? AND r.row_no = v.row_no", importNo, importNo);
+
+        // 기간이 똑같은 기존 가격 (겹침 방지 제약이 있어 많아야 1건)
+        // daterange끼리 = 비교: NULL 기간도 같은 값으로 비교되고, ex_price_period의 GiST 인덱스로 기간까지 찾음
+        jdbcTemplate.update("UPDATE m_price_import_row r SET price_no = p.price_no " +
+                "FROM m_price p " +
+                "WHERE r.import_no = ? AND r.reject_reason IS NULL " +
+                "  AND p.customer_no = r.customer_no AND p.product_cd = r.product_cd AND p.price_delete_yn = 'N' " +
+                "  AND " + PERIOD + " = daterange(r.price_start_date, r.price_end_date, '[]')", importNo);
+
+        jdbcTemplate.update("UPDATE m_price_import_row r " +
+                "SET reject_reason = 'Overlaps price ' || v.price_no || ' (' || COALESCE(CAST(v.price_start_date AS text), 'open') " +
+                "    || ' ~ ' || COALESCE(CAST(v.price_end_date AS text), 'open') || ')' " +
+                "FROM (SELECT DISTINCT ON (x.row_no) x.row_no, p.price_no, p.price_start_date, p.price_end_date " +
+                "      FROM m_price_import_row x " +
+                "      JOIN m_price p ON p.customer_no = x.customer_no AND p.product_cd = x.product_cd " +
+                "           AND p.price_delete_yn = 'N' AND " + PERIOD +
+                "               && daterange(x.price_start_date, x.price_end_date, '[]') " +
+                "      WHERE x.import_no = ? AND x.reject_reason IS NULL AND x.price_no IS NULL " +
+                "      ORDER BY x.row_no, p.price_start_date NULLS FIRST) v " +
+                "WHERE r.import_no = ? AND r.row_no = v.row_no", importNo, importNo);
+
+        Integer rejected = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM m_price_import_row " +
+                "WHERE import_no = ? AND reject_reason IS NOT NULL", Integer.class, importNo);
+        return rejected != null ? rejected : 0;
+    }
+
+    // 🔴 같은 기간의 기존 가격: 금액이 다를 때만 수정
+    @Override
+    public int updatePricesFromRows(Integer importNo) {
+        return jdbcTemplate.update("UPDATE m_price p SET price_customer = r.price_customer, price_update_date = now() " +
+                "FROM m_price_import_row r " +
+                "WHERE r.import_no = ? AND r.reject_reason IS NULL AND r.price_no = p.price_no " +
+                "  AND p.price_delete_yn = 'N' AND p.price_customer <> r.price_customer", importNo);
+    }
+
+    // 🔴 새 가격 등록 (파일의 행 순서대로), 등록된 가격 번호를 스테이징 행에 기록
+    // 통과한 행끼리는 기간이 겹치지 않으므로 고객 + 제품 + 시작일로 행을 찾을 수 있음
+    @Override
+    public int insertPricesFromRows(Integer importNo) {
+        return jdbcTemplate.update("WITH inserted AS (" +
+                "  INSERT INTO m_price (customer_no, product_cd, price_customer, price_start_date, price_end_date, " +
+                "                      price_insert_date, price_delete_yn) " +
+                "  SELECT customer_no, product_cd, price_customer, price_start_date, price_end_date, now(), 'N' " +
+                "  FROM m_price_import_row " +
+                "  WHERE import_no = ? AND reject_reason IS NULL AND price_no IS NULL " +
+                "  ORDER BY row_no " +
+                "  RETURNING price_no, customer_no, product_cd, price_start_date" +
+                ") " +
+                "UPDATE m_price_import_row r SET price_no = i.price_no " +
+                "FROM inserted i " +
+                "WHERE r.import_no = ? AND r.reject_reason IS NULL AND r.price_no IS NULL " +
+                "  AND r.customer_no = i.customer_no AND r.product_cd = i.product_cd " +
+                "  AND COALESCE(r.price_start_date, '-infinity') = COALESCE(i.price_start_date, '-infinity')", importNo, importNo);
+    }
+
+    @Override
+    public List<Integer> findMergedPriceNos(Integer importNo) {
+        return jdbcTemplate.queryForList("SELECT price_no FROM m_price_import_row " +
+                "WHERE import_no = ? AND reject_reason IS NULL AND price_no IS NOT NULL", Integer.class, importNo);
+    }
+
+    @Override
+    public int deleteAcceptedRows(Integer importNo) {
+        return jdbcTemplate.update("DELETE FROM m_price_import_row WHERE import_no = ? AND reject_reason IS NULL", importNo);
+    }
+
+    // 날짜 값이 있는데 형식이 틀렸거나 그 달에 없는 날짜 (2024-02-30 등) -> 형변환 오류 없이 판단
+    private static String invalidDate(String column) {
+        return "CASE WHEN " + column + " IS NULL THEN false " +
+                "WHEN " + column + " !~ " + DATE_FORMAT + " THEN true " +
+                "ELSE CAST(substr(" + column + ", 9, 2) AS integer) > EXTRACT(DAY FROM " +
+                "make_date(CAST(substr(" + column + ", 1, 4) AS integer), CAST(substr(" + column + ", 6, 2) AS integer), 1) " +
+                "+ INTERVAL '1 month - 1 day') END";
+    }
+}
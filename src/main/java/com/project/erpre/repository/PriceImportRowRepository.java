@@ -0,0 +1,15 @@
+package com.project.erpre.repository;
+
+import com.project.erpre.model.PriceImportRow;
+import com.project.erpre.model.PriceImportRowId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PriceImportRowRepository extends JpaRepository<PriceImportRow, PriceImportRowId> {
+
+    // 🔴 가격표 가져오기의 거부된 행 조회 (페이징, 파일의 행 순서)
+    Page<PriceImportRow> findByImportNoAndRejectReasonIsNotNullOrderByRowNo(Integer importNo, Pageable pageable);
+}
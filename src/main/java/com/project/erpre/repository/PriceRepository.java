@@ -1,8 +1,6 @@
 package com.project.erpre.repository;
 
 import com.project.erpre.model.Price;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,7 +10,7 @@ import java.sql.Date;
 import java.util.List;
 
 @Repository
-public interface PriceRepository extends JpaRepository<Price, Integer> {
+public interface PriceRepository extends JpaRepository<Price, Integer>, PriceRepositoryCustom {
 
     /*
     JpaRepository는 기본적으로 다음과 같은 CRUD 메서드를 제공합니다.
@@ -25,43 +23,30 @@ public interface PriceRepository extends JpaRepository<Price, Integer> {
     ---------------------------------------
      */
 
-    // 🔴 특정 고객과 특정 제품의 가격 정보 조회
-    List<Price> findByCustomer_CustomerNoAndProduct_ProductCd(Integer customerNo, String productCd);
-
-    // 🔴 겹치는 가격 정보 조회
-    @Query("SELECT p FROM Price p WHERE "
-            + "p.customer.customerNo = :customerNo AND "
-            + "p.product.productCd = :productCd AND "
-            + "p.priceDeleteYn = 'N' AND " // 삭제되지 않은 데이터만 조회
-            + "((:priceEndDate >= p.priceStartDate AND :priceStartDate <= p.priceEndDate) " // 구간이 겹치는 경우
-            + "OR (:priceStartDate <= p.priceStartDate AND :priceEndDate >= p.priceEndDate) " // 등록된 구간이 기존 구간을 완전히 포함하는 경우
-            + "OR (p.priceStartDate IS NULL OR p.priceEndDate IS NULL))")  // 기존 데이터의 시작일/종료일이 NULL인 경우도 포함
-    List<Price> findOverlappingPrices(@Param("customerNo") Integer customerNo,
-                                      @Param("productCd") String productCd,
-                                      @Param("priceStartDate") Date priceStartDate,
-                                      @Param("priceEndDate") Date priceEndDate);
-
-
-    // 🔴 가격 정보 조회 (필터링, 페이징, 정렬 지원)
-    @Query("SELECT p FROM Price p WHERE "
-            + "(:customerNo IS NULL OR p.customer.customerNo = :customerNo) AND "
-            + "(:productCd IS NULL OR p.product.productCd = :productCd) AND "
-            + "(:startDate IS NULL OR p.priceStartDate >= TO_DATE(:startDate, 'YYYY-MM-DD')) AND "
-            + "(:endDate IS NULL OR p.priceEndDate <= TO_DATE(:endDate, 'YYYY-MM-DD')) AND "
-            + "(:targetDate IS NULL OR (p.priceStartDate <= TO_DATE(:targetDate, 'YYYY-MM-DD') AND p.priceEndDate >= TO_DATE(:targetDate, 'YYYY-MM-DD'))) AND "
-            + "(:customerSearchText IS NULL OR LOWER(p.customer.customerName) LIKE LOWER(CONCAT('%', :customerSearchText, '%'))) AND "
-            + "(:productSearchText IS NULL OR LOWER(p.product.productNm) LIKE LOWER(CONCAT('%', :productSearchText, '%')) OR p.product.productCd LIKE CONCAT('%', :productSearchText, '%')) AND "
-            + "(COALESCE(:selectedStatus, 'all') = 'all' OR "
-            + "(COALESCE(:selectedStatus, 'all') = 'deleted' AND p.priceDeleteYn = 'Y') OR "
-            + "(COALESCE(:selectedStatus, 'all') = 'active' AND p.priceDeleteYn = 'N'))")
-    Page<Price> findPricesWithFilters(@Param("customerNo") Integer customerNo,
-                                      @Param("productCd") String productCd,
-                                      @Param("startDate") String startDate,
-                                      @Param("endDate") String endDate,
-                                      @Param("targetDate") String targetDate,
-                                      @Param("customerSearchText") String customerSearchText,
-                                      @Param("productSearchText") String productSearchText,
-                                      @Param("selectedStatus") String selectedStatus,  // 상태 필터
-                                      PageRequest pageRequest);
-
-}
\ No newline at end of file
+    // 🔴 삭제되지 않은 가격 전체 조회 (가격표 인덱스 적재용, 엔티티 대신 컬럼만 조회)
+    // 결과: [가격 번호, 고객 번호, 제품 코드, 고객별 가격, 시작일, 종료일]
+    @Query("SELECT p.priceNo, p.customer.customerNo, p.product.productCd, p.priceCustomer, p.priceStartDate, p.priceEndDate "
+            + "FROM Price p WHERE p.priceDeleteYn = 'N'")
+    List<Object[]> findActivePriceRows();
+
+    // 🔴 특정 고객과 특정 제품의 삭제되지 않은 가격 조회 (결과 형식은 위와 같음)
+    @Query("SELECT p.priceNo, p.customer.customerNo, p.product.productCd, p.priceCustomer, p.priceStartDate, p.priceEndDate "
+            + "FROM Price p WHERE p.customer.customerNo = :customerNo AND p.product.productCd = :productCd AND p.priceDeleteYn = 'N'")
+    List<Object[]> findActivePriceRows(@Param("customerNo") Integer customerNo, @Param("productCd") String productCd);
+
+    // 🔴 특정 고객의 특정 날짜 적용 가격 (삭제되지 않은 가격, 고객별 가격표 캐시 적재용)
+    // 시작일이 NULL이면 바로 적용, 종료일이 NULL이면 무기한 / 기간이 겹치는 예전 데이터는 시작일이 늦은 가격이 뒤에 오도록 정렬
+    // 적용 기간 daterange로 비교해서 겹침 방지 제약 ex_price_period의 GiST 인덱스 사용
+    // (고객 번호로만 찾으면 지난 가격 이력까지 전부 읽음, 식이 제약과 같아야 하므로 SQL로 조회)
+    // 결과: [가격 번호, 제품 코드, 고객별 가격]
+    @Query(value = "SELECT p.price_no, p.product_cd, p.price_customer FROM m_price p "
+            + "WHERE p.customer_no = :customerNo AND p.price_delete_yn = 'N' "
+            + "AND daterange(p.price_start_date, p.price_end_date, '[]') @> CAST(:day AS date) "
+            + "ORDER BY p.price_start_date ASC NULLS FIRST, p.price_no ASC", nativeQuery = true)
+    List<Object[]> findPriceRowsOn(@Param("customerNo") Integer customerNo, @Param("day") Date day);
+
+    // 가격 번호로 고객 번호, 제품 코드 조회 (삭제 여부 무관)
+    // 결과: [고객 번호, 제품 코드]
+    @Query("SELECT p.customer.customerNo, p.product.productCd FROM Price p WHERE p.priceNo IN :priceNos")
+    List<Object[]> findCustomerProductByPriceNos(@Param("priceNos") List<Integer> priceNos);
+}
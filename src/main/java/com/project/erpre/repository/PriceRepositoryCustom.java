@@ -0,0 +1,28 @@
+package com.project.erpre.repository;
+
+import com.project.erpre.model.PriceDTO;
+import com.project.erpre.model.PriceOverlapDTO;
+import com.project.erpre.model.PriceSearchCondition;
+import com.project.erpre.util.PageCountMode;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface PriceRepositoryCustom {
+
+    // 가격 목록 조회 (입력된 조건만 WHERE에 추가, 페이징 + 정렬), 엔티티 대신 PriceDTO로 바로 조회
+    // countMode: 전체 개수 계산 방식
+    Page<PriceDTO> findPrices(PriceSearchCondition condition, Pageable pageable, PageCountMode countMode);
+
+    // 특정 고객과 특정 제품의 가격 조회 (PriceDTO)
+    List<PriceDTO> findPricesByCustomerAndProduct(Integer customerNo, String productCd);
+
+    // 가격 번호 목록으로 가격 조회 (PriceDTO, 시작일 순)
+    List<PriceDTO> findPricesByPriceNos(Collection<Integer> priceNos);
+
+    // 가격 목록의 적용 기간 겹침 검사 (삭제되지 않은 기존 가격 + 목록 내부), 한 번의 쿼리
+    // 목록에 priceNo가 있는 가격은 수정 대상이므로 기존 기간 대신 새 기간으로 비교
+    List<PriceOverlapDTO> findPriceOverlaps(List<PriceDTO> prices);
+}
@@ -0,0 +1,329 @@
+package com.project.erpre.repository;
+
+import com.project.erpre.model.PriceDTO;
+import com.project.erpre.model.PriceOverlapDTO;
+import com.project.erpre.model.PriceSearchCondition;
+import com.project.erpre.model.QCategory;
+import com.project.erpre.util.PageCountMode;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.Wildcard;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.project.erpre.model.QCategory.category;
+import static com.project.erpre.model.QCustomer.customer;
+import static com.project.erpre.model.QPrice.price;
+import static com.project.erpre.model.QProduct.product;
+
+public class PriceRepositoryImpl implements PriceRepositoryCustom {
+
+    // 가격 적용 기간: 시작일/종료일을 포함하는 daterange, NULL이면 그 방향으로 무한
+    // (겹침 방지 제약 ex_price_period와 같은 식이어야 제약의 GiST 인덱스를 사용)
+    private static final String PERIOD = "daterange(p.price_start_date, p.price_end_date, '[]')";
+
+    // 카테고리 조인용 별칭 (제품 카테고리의 상위 = 중분류, 그 상위 = 대분류)
+    private static final QCategory middleCategory = new QCategory("middleCategory");
+    private static final QCategory topCategory = new QCategory("topCategory");
+
+    // QueryDSL 사용을 위한 JPAQueryFactory
+    private final JPAQueryFactory queryFactory;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 목록 전체 개수 (마지막 페이지 계산, 예상 행 수, 조건별 개수 캐시)
+    private final PageCounter pageCounter;
+
+    public PriceRepositoryImpl(EntityManager entityManager, JdbcTemplate jdbcTemplate, PageCounter pageCounter) {
+        this.queryFactory = new JPAQueryFactory(entityManager);
+        this.jdbcTemplate = jdbcTemplate;
+        this.pageCounter = pageCounter;
+    }
+
+    // 🔴 가격 목록 조회 (필터링, 페이징, 정렬)
+    // 입력된 조건만 WHERE에 넣어서 조건 조합마다 맞는 인덱스를 타게 함 ((:x IS NULL OR ...) 형태의 고정 쿼리 X)
+    // 엔티티 대신 화면에 필요한 컬럼만 PriceDTO로 조회 (고객명, 제품명, 카테고리 경로까지 쿼리 1번)
+    @Override
+    public Page<PriceDTO> findPrices(PriceSearchCondition condition, Pageable pageable, PageCountMode countMode) {
+        BooleanBuilder builder = priceFilterCondition(condition);
+
+        List<PriceDTO> content = selectPriceDTO()
+                .where(builder)
+                .orderBy(priceOrderSpecifiers(pageable.getSort()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1)  // 다음 페이지 여부 확인용 1건 더
+                .fetch()
+                .stream()
+                .map(PriceRepositoryImpl::toPriceDTO)
+                .collect(Collectors.toList());
+
+        // 개수 조회는 필요할 때만 따로: 정렬 없이, 검색 조건에 필요한 조인만
+        // 마지막 페이지면 생략, 상태 조건만 있는 큰 목록은 예상 행 수, 그 외에는 조건별로 짧게 캐시 (PageCounter)
+        return pageCounter.page(content, pageable, countMode, "prices:" + builder, priceEstimateSql(condition), () -> {
+            JPAQuery<Long> countQuery = queryFactory.select(Wildcard.count).from(price);
+            if (condition.getCustomerSearchText() != null) {
+                countQuery.join(price.customer, customer);
+            }
+            if (condition.getProductSearchText() != null) {
+                countQuery.join(price.product, product);
+            }
+            Long count = countQuery.where(builder).fetchOne();
+            return count != null ? count : 0;
+        });
+    }
+
+    // 상태 조건만 있는 가격 목록의 예상 행 수를 볼 SQL (다른 조건이 있으면 null)
+    private static String priceEstimateSql(PriceSearchCondition condition) {
+        if (condition.getCustomerNo() != null || condition.getProductCd() != null
+                || condition.getStartDate() != null || condition.getEndDate() != null || condition.getTargetDate() != null
+                || condition.getCustomerSearchText() != null || condition.getProductSearchText() != null) {
+            return null;
+        }
+        if ("active".equals(condition.getSelectedStatus())) {
+            return "SELECT 1 FROM m_price WHERE price_delete_yn = 'N'";
+        }
+        if ("deleted".equals(condition.getSelectedStatus())) {
+            return "SELECT 1 FROM m_price WHERE price_delete_yn = 'Y'";
+        }
+        return "SELECT 1 FROM m_price";
+    }
+
+    // 🔴 특정 고객과 특정 제품의 가격 조회 (삭제 여부 무관, 시작일 순)
+    @Override
+    public List<PriceDTO> findPricesByCustomerAndProduct(Integer customerNo, String productCd) {
+        return selectPriceDTO()
+                .where(price.customer.customerNo.eq(customerNo), price.product.productCd.eq(productCd))
+                .orderBy(price.priceStartDate.asc().nullsFirst(), price.priceNo.asc())
+                .fetch()
+                .stream()
+                .map(PriceRepositoryImpl::toPriceDTO)
+                .collect(Collectors.toList());
+    }
+
+    // 가격 번호 목록으로 가격 조회 (기간 겹침 검사 결과 표시용)
+    @Override
+    public List<PriceDTO> findPricesByPriceNos(Collection<Integer> priceNos) {
+        if (priceNos.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return selectPriceDTO()
+                .where(price.priceNo.in(priceNos))
+                .orderBy(price.priceStartDate.asc().nullsFirst(), price.priceNo.asc())
+                .fetch()
+                .stream()
+                .map(PriceRepositoryImpl::toPriceDTO)
+                .collect(Collectors.toList());
+    }
+
+    // PriceDTO 조회 컬럼: 가격 + 고객명, 제품명 + 카테고리 (소 > 중 > 대분류를 한 번에 조인)
+    // 제품에 카테고리가 없으면 카테고리 컬럼은 NULL
+    private JPAQuery<Tuple> selectPriceDTO() {
+        return queryFactory.select(price.priceNo,
+                        customer.customerNo,
+                        customer.customerName,
+                        product.productCd,
+                        product.productNm,
+                        price.priceCustomer,
+                        price.priceStartDate,
+                        price.priceEndDate,
+                        price.priceInsertDate,
+                        price.priceUpdateDate,
+                        price.priceDeleteYn,
+                        price.priceDeleteDate,
+                        category.categoryNm,
+                        middleCategory.categoryNm,
+                        topCategory.categoryNm)
+                .from(price)
+                .join(price.customer, customer)
+                .join(price.product, product)
+                .leftJoin(product.category, category)
+                .leftJoin(category.parentCategory, middleCategory)
+                .leftJoin(middleCategory.parentCategory, topCategory);
+    }
+
+    private static PriceDTO toPriceDTO(Tuple tuple) {
+        PriceDTO priceDTO = new PriceDTO();
+        priceDTO.setPriceNo(tuple.get(price.priceNo));
+        priceDTO.setCustomerNo(tuple.get(customer.customerNo));
+        priceDTO.setCustomerName(tuple.get(customer.customerName));
+        priceDTO.setProductCd(tuple.get(product.productCd));
+        priceDTO.setProductNm(tuple.get(product.productNm));
+        priceDTO.setPriceCustomer(tuple.get(price.priceCustomer));
+        priceDTO.setPriceStartDate(tuple.get(price.priceStartDate));
+        priceDTO.setPriceEndDate(tuple.get(price.priceEndDate));
+        priceDTO.setPriceInsertDate(tuple.get(price.priceInsertDate));
+        priceDTO.setPriceUpdateDate(tuple.get(price.priceUpdateDate));
+        priceDTO.setPriceDeleteYn(tuple.get(price.priceDeleteYn));
+        priceDTO.setPriceDeleteDate(tuple.get(price.priceDeleteDate));
+
+        // 카테고리 경로: 대분류 > 중분류 > 소분류 (Category.getCategoryPath와 같은 형식)
+        String categoryNm = tuple.get(category.categoryNm);
+        if (categoryNm != null) {
+            StringBuilder path = new StringBuilder(categoryNm);
+            for (String parentNm : new String[]{tuple.get(middleCategory.categoryNm), tuple.get(topCategory.categoryNm)}) {
+                if (parentNm != null) {
+                    path.insert(0, parentNm + " > ");
+                }
+            }
+            priceDTO.setCategoryNm(categoryNm);
+            priceDTO.setCategoryPath(path.toString());
+        }
+        return priceDTO;
+    }
+
+    private BooleanBuilder priceFilterCondition(PriceSearchCondition condition) {
+        BooleanBuilder builder = new BooleanBuilder();
+
+        // 고객/제품 조건 (조인 없이 FK 컬럼으로 비교)
+        if (condition.getCustomerNo() != null) {
+            builder.and(price.customer.customerNo.eq(condition.getCustomerNo()));
+        }
+        if (condition.getProductCd() != null) {
+            builder.and(price.product.productCd.eq(condition.getProductCd()));
+        }
+
+        // 기간 조건 (시작일 이후 시작, 종료일 이전 종료)
+        if (condition.getStartDate() != null) {
+            builder.and(price.priceStartDate.goe(Date.valueOf(condition.getStartDate())));
+        }
+        if (condition.getEndDate() != null) {
+            builder.and(price.priceEndDate.loe(Date.valueOf(condition.getEndDate())));
+        }
+
+        // 적용일 조건 (시작일/종료일이 비어 있으면 그 방향으로 제한 없음)
+        if (condition.getTargetDate() != null) {
+            Date targetDate = Date.valueOf(condition.getTargetDate());
+            builder.and(price.priceStartDate.isNull().or(price.priceStartDate.loe(targetDate)));
+            builder.and(price.priceEndDate.isNull().or(price.priceEndDate.goe(targetDate)));
+        }
+
+        // 고객명/제품명·제품코드 부분 검색 (pg_trgm GIN 인덱스: lower(customer_name), lower(product_nm), lower(product_cd))
+        if (condition.getCustomerSearchText() != null) {
+            builder.and(customer.customerName.containsIgnoreCase(condition.getCustomerSearchText()));
+        }
+        if (condition.getProductSearchText() != null) {
+            builder.and(product.productNm.containsIgnoreCase(condition.getProductSearchText())
+                    .or(product.productCd.containsIgnoreCase(condition.getProductSearchText())));
+        }
+
+        // 상태 조건 (all이면 조건 없음)
+        if ("active".equals(condition.getSelectedStatus())) {
+            builder.and(price.priceDeleteYn.eq("N"));
+        } else if ("deleted".equals(condition.getSelectedStatus())) {
+            builder.and(price.priceDeleteYn.eq("Y"));
+        }
+
+        return builder;
+    }
+
+    // 🔴 정렬 조건 (화면의 정렬 필드만 허용), 같은 값끼리 페이지가 섞이지 않도록 가격 번호를 마지막 정렬로 추가
+    // 가격 번호는 마지막 정렬 필드와 같은 방향 -> 기본 정렬(등록일시 DESC)도 (..., price_insert_date, price_no) 인덱스를
+    // 역방향으로 그대로 읽음 (방향이 섞이면 인덱스로 정렬할 수 없음)
+    private static OrderSpecifier<?>[] priceOrderSpecifiers(Sort sort) {
+        List<OrderSpecifier<?>> orderSpecifiers = new ArrayList<>();
+        boolean lastAsc = true;
+        for (Sort.Order order : sort) {
+            boolean asc = order.isAscending();
+            int before = orderSpecifiers.size();
+            switch (order.getProperty()) {
+                case "customer.customerName":
+                    orderSpecifiers.add(asc ? customer.customerName.asc() : customer.customerName.desc());
+                    break;
+                case "product.productNm":
+                    orderSpecifiers.add(asc ? product.productNm.asc() : product.productNm.desc());
+                    break;
+                case "priceCustomer":
+                    orderSpecifiers.add(asc ? price.priceCustomer.asc() : price.priceCustomer.desc());
+                    break;
+                case "priceStartDate":
+                    orderSpecifiers.add(asc ? price.priceStartDate.asc() : price.priceStartDate.desc());
+                    break;
+                case "priceEndDate":
+                    orderSpecifiers.add(asc ? price.priceEndDate.asc() : price.priceEndDate.desc());
+                    break;
+                case "priceInsertDate":
+                    orderSpecifiers.add(asc ? price.priceInsertDate.asc() : price.priceInsertDate.desc());
+                    break;
+                case "priceUpdateDate":
+                    orderSpecifiers.add(asc ? price.priceUpdateDate.asc() : price.priceUpdateDate.desc());
+                    break;
+                case "priceDeleteDate":
+                    orderSpecifiers.add(asc ? price.priceDeleteDate.asc() : price.priceDeleteDate.desc());
+                    break;
+                default:
+                    break;
+            }
+            if (orderSpecifiers.size() > before) {
+                lastAsc = asc;
+            }
+        }
+        Sort.Order priceNoOrder = sort.getOrderFor("priceNo");
+        boolean priceNoAsc = priceNoOrder != null ? priceNoOrder.isAscending() : lastAsc;
+        orderSpecifiers.add(priceNoAsc ? price.priceNo.asc() : price.priceNo.desc());
+        return orderSpecifiers.toArray(new OrderSpecifier<?>[0]);
+    }
+
+    // 🔴 가격 목록 기간 겹침 검사
+    // 목록 전체를 배열 파라미터로 넘겨 unnest로 펼친 뒤, 기존 가격과의 겹침과 목록 내부 겹침을 한 번에 조회
+    // 5,000건짜리 가격표도 쿼리 1번 (건별 검사 쿼리 반복 없음)
+    @Override
+    public List<PriceOverlapDTO> findPriceOverlaps(List<PriceDTO> prices) {
+        if (prices.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        String sql = "WITH c AS (" +
+                "  SELECT CAST(t.idx - 1 AS integer) AS idx, t.price_no, t.customer_no, t.product_cd, t.start_date, t.end_date, " +
+                "         daterange(t.start_date, t.end_date, '[]') AS period " +
+                "  FROM unnest(?::integer[], ?::integer[], ?::varchar[], ?::date[], ?::date[]) " +
+                "       WITH ORDINALITY AS t(price_no, customer_no, product_cd, start_date, end_date, idx)" +
+                ") " +
+                // 1. 기존 가격과 겹침 (목록에서 수정 중인 가격은 기존 기간으로 비교하지 않음)
+                "SELECT c.idx, c.customer_no, c.product_cd, c.start_date, c.end_date, " +
+                "       NULL::integer AS conflict_idx, p.price_no, p.price_start_date, p.price_end_date " +
+                "FROM c JOIN m_price p ON p.customer_no = c.customer_no AND p.product_cd = c.product_cd " +
+                "     AND p.price_delete_yn = 'N' AND " + PERIOD + " && c.period " +
+                "WHERE NOT EXISTS (SELECT 1 FROM c r WHERE r.price_no = p.price_no) " +
+                "UNION ALL " +
+                // 2. 목록 내부 겹침 (같은 쌍을 두 번 반환하지 않도록 뒤쪽 행과만 비교)
+                "SELECT a.idx, a.customer_no, a.product_cd, a.start_date, a.end_date, " +
+                "       b.idx, b.price_no, b.start_date, b.end_date " +
+                "FROM c a JOIN c b ON b.idx > a.idx AND b.customer_no = a.customer_no AND b.product_cd = a.product_cd " +
+                "     AND b.period && a.period " +
+                "ORDER BY 1, 6 NULLS FIRST, 7";
+
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("integer", prices.stream().map(PriceDTO::getPriceNo).toArray()));
+            ps.setArray(2, con.createArrayOf("integer", prices.stream().map(PriceDTO::getCustomerNo).toArray()));
+            ps.setArray(3, con.createArrayOf("varchar", prices.stream().map(PriceDTO::getProductCd).toArray()));
+            ps.setArray(4, con.createArrayOf("date", prices.stream().map(PriceDTO::getPriceStartDate).toArray()));
+            ps.setArray(5, con.createArrayOf("date", prices.stream().map(PriceDTO::getPriceEndDate).toArray()));
+            return ps;
+        }, (rs, rowNum) -> PriceOverlapDTO.builder()
+                .rowIndex(rs.getInt(1))
+                .customerNo(rs.getInt(2))
+                .productCd(rs.getString(3))
+                .priceStartDate(rs.getDate(4))
+                .priceEndDate(rs.getDate(5))
+                .conflictRowIndex((Integer) rs.getObject(6))
+                .conflictPriceNo((Integer) rs.getObject(7))
+                .conflictStartDate(rs.getDate(8))
+                .conflictEndDate(rs.getDate(9))
+                .build());
+    }
+}
@@ -0,0 +1,14 @@
+package com.project.erpre.repository;
+
+import com.project.erpre.model.PriceRepricing;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PriceRepricingRepository extends JpaRepository<PriceRepricing, Integer>, PriceRepricingRepositoryCustom {
+
+    // 일부 묶음이 커밋된 상태로 실패한 조정 (이어서 처리해야 하는 작업)
+    List<PriceRepricing> findByRepricingStatusAndRepricingLastPriceNoIsNotNull(String repricingStatus);
+}
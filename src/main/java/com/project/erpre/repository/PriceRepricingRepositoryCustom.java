@@ -0,0 +1,25 @@
+package com.project.erpre.repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.List;
+
+public interface PriceRepricingRepositoryCustom {
+
+    // 카테고리와 그 하위 카테고리 번호 전체 조회 (카테고리가 없으면 빈 목록)
+    List<Integer> findCategorySubtree(Integer categoryNo);
+
+    // 조정 대상 가격의 마지막 가격 번호 (시작 시점), 이후 등록되는 가격은 대상이 아님
+    int findMaxPriceNo();
+
+    // 조정 대상 가격 수 (카테고리 하위 제품의 삭제되지 않은 가격 중 기준일 이후에도 적용되는 가격)
+    int countTargetPrices(List<Integer> categoryNos, Date startDate, int maxPriceNo);
+
+    // 가격 번호 순으로 afterPriceNo 다음부터 최대 chunkSize건 조정
+    // 결과: [마지막 처리 가격 번호 (없으면 0), 처리한 수, 금액만 수정한 수, 종료 + 새 가격 등록한 수]
+    int[] repriceChunk(List<Integer> categoryNos, BigDecimal rate, Date startDate,
+                       int afterPriceNo, int maxPriceNo, int chunkSize);
+
+    // 재시작으로 중단된 조정 (대기/진행 중으로 남은 작업)을 실패로 표시, 표시한 수
+    int failInterruptedRepricings(String message);
+}
@@ -0,0 +1,114 @@
+package com.project.erpre.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+public class PriceRepricingRepositoryImpl implements PriceRepricingRepositoryCustom {
+
+    // 조정 대상: 카테고리 하위 제품(삭제되지 않은 제품)의 삭제되지 않은 가격 중 기준일 이후에도 적용되는 가격
+    // 작업 시작 시점의 가격만 (작업 중 등록된 가격, 작업이 새로 연 가격은 제외)
+    // 파라미터: 카테고리 번호 배열, 기준일, 시작 시점의 마지막 가격 번호
+    private static final String TARGET_PRICES = "p.price_delete_yn = 'N' " +
+            "AND p.product_cd IN (SELECT product_cd FROM m_product WHERE category_no = ANY(?) AND product_delete_yn = 'N') " +
+            "AND (p.price_end_date IS NULL OR p.price_end_date >= ?) " +
+            "AND p.price_no <= ? ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PriceRepricingRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // 🔴 카테고리 하위 트리 (재귀 조회, 삭제 여부 무관: 삭제된 카테고리 아래 제품도 그 카테고리에 속함)
+    @Override
+    public List<Integer> findCategorySubtree(Integer categoryNo) {
+        return jdbcTemplate.queryForList("WITH RECURSIVE subtree AS (" +
+                "  SELECT category_no FROM m_category WHERE category_no = ? " +
+                "  UNION " +
+                "  SELECT c.category_no FROM m_category c JOIN subtree s ON c.parent_category_no = s.category_no" +
+                ") SELECT category_no FROM subtree ORDER BY category_no", Integer.class, categoryNo);
+    }
+
+    @Override
+    public int findMaxPriceNo() {
+        Integer maxPriceNo = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(price_no), 0) FROM m_price", Integer.class);
+        return maxPriceNo != null ? maxPriceNo : 0;
+    }
+
+    @Override
+    public int countTargetPrices(List<Integer> categoryNos, Date startDate, int maxPriceNo) {
+        Integer count = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT COUNT(*) FROM m_price p WHERE " + TARGET_PRICES);
+            ps.setArray(1, con.createArrayOf("integer", categoryNos.toArray()));
+            ps.setDate(2, startDate);
+            ps.setInt(3, maxPriceNo);
+            return ps;
+        }, rs -> rs.next() ? rs.getInt(1) : 0);
+        return count != null ? count : 0;
+    }
+
+    // 🔴 한 묶음 조정 (한 문장, 호출하는 쪽의 트랜잭션 안에서 실행 -> 묶음마다 커밋해서 잠금을 오래 잡지 않음)
+    // 1. 가격 번호 순으로 다음 묶음을 잠금 (FOR UPDATE, 다른 작업이 같은 가격을 동시에 수정하지 못하게)
+    // 2. 기준일 이후 시작하는 가격 -> 금액만 수정
+    // 3. 기준일에 걸친 가격 (시작일 NULL 포함) -> 기준일 전날로 종료하고 기준일부터 원래 종료일까지 새 가격 등록
+    //    (기간 겹침 방지 제약은 커밋 시점에 검사하므로 종료와 등록을 한 문장에서 해도 됨)
+    // 금액은 소수점 둘째 자리에서 반올림
+    @Override
+    public int[] repriceChunk(List<Integer> categoryNos, BigDecimal rate, Date startDate,
+                              int afterPriceNo, int maxPriceNo, int chunkSize) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("WITH chunk AS (" +
+                    "  SELECT p.price_no, p.customer_no, p.product_cd, p.price_customer, p.price_start_date, p.price_end_date " +
+                    "  FROM m_price p " +
+                    "  WHERE " + TARGET_PRICES + "AND p.price_no > ? " +
+                    "  ORDER BY p.price_no " +
+                    "  LIMIT ? " +
+                    "  FOR UPDATE" +
+                    "), factor AS (" +
+                    "  SELECT 1 + CAST(? AS numeric) / 100 AS value, CAST(? AS date) AS start_date" +
+                    "), raised AS (" +
+                    "  UPDATE m_price p SET price_customer = round(c.price_customer * f.value, 2), price_update_date = now() " +
+                    "  FROM chunk c, factor f " +
+                    "  WHERE p.price_no = c.price_no AND c.price_start_date >= f.start_date " +
+                    "  RETURNING p.price_no" +
+                    "), closed AS (" +
+                    "  UPDATE m_price p SET price_end_date = f.start_date - 1, price_update_date = now() " +
+                    "  FROM chunk c, factor f " +
+                    "  WHERE p.price_no = c.price_no AND (c.price_start_date IS NULL OR c.price_start_date < f.start_date) " +
+                    "  RETURNING c.price_no, c.customer_no, c.product_cd, c.price_customer, c.price_end_date" +
+                    "), opened AS (" +
+                    "  INSERT INTO m_price (customer_no, product_cd, price_customer, price_start_date, price_end_date, " +
+                    "                      price_insert_date, price_delete_yn) " +
+                    "  SELECT c.customer_no, c.product_cd, round(c.price_customer * f.value, 2), f.start_date, c.price_end_date, now(), 'N' " +
+                    "  FROM closed c, factor f " +
+                    "  ORDER BY c.price_no " +
+                    "  RETURNING price_no" +
+                    ") " +
+                    "SELECT COALESCE((SELECT MAX(price_no) FROM chunk), 0), (SELECT COUNT(*) FROM chunk), " +
+                    "       (SELECT COUNT(*) FROM raised), (SELECT COUNT(*) FROM opened)");
+            ps.setArray(1, con.createArrayOf("integer", categoryNos.toArray()));
+            ps.setDate(2, startDate);
+            ps.setInt(3, maxPriceNo);
+            ps.setInt(4, afterPriceNo);
+            ps.setInt(5, chunkSize);
+            ps.setBigDecimal(6, rate);
+            ps.setDate(7, startDate);
+            return ps;
+        }, rs -> {
+            rs.next();
+            return new int[]{rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4)};
+        });
+    }
+
+    // 🔴 중단된 조정 실패 처리 (작업은 이 서버의 작업 스레드에서만 실행 -> 시작 시점에 대기/진행 중인 작업은 더 진행되지 않음)
+    // 커밋된 묶음과 마지막 가격 번호는 남아 있으므로 이어서 처리할 수 있음
+    @Override
+    public int failInterruptedRepricings(String message) {
+        return jdbcTemplate.update("UPDATE m_price_repricing SET repricing_status = 'failed', repricing_message = ?, " +
+                "repricing_end_date = now() WHERE repricing_status IN ('queued', 'running')", message);
+    }
+}
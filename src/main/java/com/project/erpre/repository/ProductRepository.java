@@ -27,12 +27,17 @@ public interface ProductRepository extends JpaRepository<Product, String>, Produ
     // 3. 상품 코드의 중복 여부를 확인하는 메서드
     boolean existsByProductCd(String productCd);
 
+    // 4. 주어진 품번 중 삭제되지 않은 상품의 품번만 반환하는 메서드 (주문 상세 일괄 등록 검증용, 엔티티 로딩 없음)
+    @Query("SELECT p.productCd FROM Product p WHERE p.productCd IN :productCds AND p.productDeleteYn = 'N'")
+    List<String> findActiveProductCdsIn(@Param("productCds") List<String> productCds);
 
 
 
+
+    // 제품 코드/제품명 부분 검색 (대소문자 무시, lower(...) pg_trgm GIN 인덱스)
     @Query("SELECT p FROM Product p WHERE " +
-            "(p.productCd LIKE %:productCd%) AND " +
-            "(p.productNm LIKE %:productNm%) AND " +
+            "(LOWER(p.productCd) LIKE LOWER(CONCAT('%', :productCd, '%'))) AND " +
+            "(LOWER(p.productNm) LIKE LOWER(CONCAT('%', :productNm, '%'))) AND " +
             "(:topCategory IS NULL OR p.category.parentCategoryNo IS NULL AND :middleCategory IS NULL AND :lowCategory IS NULL OR " +
             "(p.category.parentCategoryNo IS NULL AND :topCategory IS NOT NULL AND :middleCategory IS NULL AND :lowCategory IS NULL) OR " +
             "(p.category.parentCategoryNo = :middleCategory AND p.category.categoryNo IS NULL) OR " +
@@ -1,22 +1,44 @@
 package com.project.erpre.repository;
 
 import com.project.erpre.model.ProductDTO;
+import com.project.erpre.model.ProductFacetGroupDTO;
+import com.project.erpre.util.PageCountMode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 public interface ProductRepositoryCustom {
 
-    // 1. 상품 목록 조회 + 필터링 + 정렬 + 페이징
-    Page<ProductDTO> productsList(Pageable pageable, String status, Integer topCategoryNo, Integer middleCategoryNo, Integer lowCategoryNo, String productCd, String productNm, String sortColumn, String sortDirection);
+    // 1. 상품 목록 조회 + 필터링 + 정렬 + 페이징 (countMode: 전체 개수 계산 방식)
+    Page<ProductDTO> productsList(Pageable pageable, String status, Integer topCategoryNo, Integer middleCategoryNo, Integer lowCategoryNo, String productCd, String productNm, String sortColumn, String sortDirection, PageCountMode countMode);
+
+    // 상품 목록 조회 (keyset 페이징, 정렬 컬럼 + 제품 코드 순), sortDirection은 "asc" 또는 "desc"
+    // lastSortValue/lastProductCd: 이전 페이지 마지막 행의 정렬 값과 제품 코드 (lastProductCd가 null이면 첫 페이지)
+    List<ProductDTO> productsListKeyset(String status, Integer topCategoryNo, Integer middleCategoryNo, Integer lowCategoryNo,
+                                        String productCd, String productNm, String sortColumn, String sortDirection,
+                                        Object lastSortValue, String lastProductCd, int limit);
+
+    // 상품 목록 필터 개수용 (대분류, 중분류, 소분류, 상태) 묶음별 상품 수, 상품 코드/상품명 조건만 적용
+    List<ProductFacetGroupDTO> findProductFacetGroups(String productCd, String productNm);
 
     // 0920 예원 추가 (상품코드, 상품명, 대분류, 중분류, 소분류, 상태별 상품목록 페이징 적용하여 가져오기)
+    // customerNo/customerPrices: 선택된 고객과 그 고객의 오늘 적용 가격 (제품 코드 -> 고객별 가격), null이면 고객 조건 없음
     Page<ProductDTO> findProductsFilter(Pageable pageable, String status,
                                         Integer topCategoryNo, Integer middleCategoryNo, Integer lowCategoryNo,
-                                        String productCd, String productNm, Integer customerNo);
+                                        String productCd, String productNm,
+                                        Integer customerNo, Map<String, BigDecimal> customerPrices,
+                                        PageCountMode countMode);
 
     // 2. 상품 상세정보 조회 (최근 납품내역 5건 포함)
     List<ProductDTO> findProductDetailsByProductCd(String productCd);
 
+    // 상품 자동완성 (제품 코드/제품명 검색어, 순위순 최대 limit건, 삭제되지 않은 상품만)
+    List<ProductDTO> findProductSuggestions(String searchText, int limit);
+
+    // 제품별 최근 납품내역 limit건 (여러 제품을 한 번에, 요청한 제품 순서, 제품 코드는 중복 없이)
+    Map<String, List<ProductDTO>> findRecentDeliveries(List<String> productCds, int limit);
+
 }
@@ -2,11 +2,17 @@ package com.project.erpre.repository;
 
 import com.project.erpre.model.*;
 import com.project.erpre.service.ProductService;
+import com.project.erpre.util.PageCountMode;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Ops;
 import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.Wildcard;
+import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.slf4j.Logger;
@@ -14,13 +20,19 @@ import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.math.BigDecimal;
 import java.sql.Date;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
 
 import static com.project.erpre.model.QCategory.category;
@@ -34,42 +46,110 @@ public class ProductRepositoryImpl implements ProductRepositoryCustom {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductRepositoryImpl.class);
 
+    // 자동완성: 검색어 단어 수 상한 (단어마다 LIKE 조건 하나)
+    private static final int SUGGESTION_MAX_WORDS = 5;
+
     // QueryDSL 사용을 위한 JPAQueryFactory
     private final JPAQueryFactory queryFactory;
 
-    public ProductRepositoryImpl(EntityManager entityManager) {
+    // pg_trgm 연산자/함수 (word_similarity), COLLATE "C" 정렬은 JPQL로 표현할 수 없어서 SQL로 조회
+    private final JdbcTemplate jdbcTemplate;
+
+    // 목록 전체 개수 (마지막 페이지 계산, 예상 행 수, 조건별 개수 캐시)
+    private final PageCounter pageCounter;
+
+    public ProductRepositoryImpl(EntityManager entityManager, JdbcTemplate jdbcTemplate, PageCounter pageCounter) {
         this.queryFactory = new JPAQueryFactory(entityManager);
+        this.jdbcTemplate = jdbcTemplate;
+        this.pageCounter = pageCounter;
     }
 
     // 🔴 상품 목록 조회 + 필터링 + 정렬 + 페이징
     @Override
-    public Page<ProductDTO> productsList(Pageable pageable, String status, Integer topCategoryNo, Integer middleCategoryNo, Integer lowCategoryNo, String productCd, String productNm, String sortColumn, String sortDirection) {
+    public Page<ProductDTO> productsList(Pageable pageable, String status, Integer topCategoryNo, Integer middleCategoryNo, Integer lowCategoryNo, String productCd, String productNm, String sortColumn, String sortDirection, PageCountMode countMode) {
         QProduct product = QProduct.product;
         QCategory category = QCategory.category;
         QCategory middleCategory = new QCategory("middleCategory");
         QCategory topCategory = new QCategory("topCategory");
 
-        BooleanBuilder builder = new BooleanBuilder();
+        BooleanBuilder builder = productsListCondition(status, topCategoryNo, middleCategoryNo, lowCategoryNo, productCd, productNm);
 
-        OrderSpecifier<?> orderSpecifier = getOrderSpecifier(sortColumn, sortDirection);
+        OrderSpecifier<?>[] orderSpecifiers = getOrderSpecifiers(sortColumn, sortDirection);
 
-        // 상태 조건
-        if (!status.equals("all")) {
-            builder.and(product.productDeleteYn.eq(status.equals("active") ? "N" : "Y"));
-        }
+        // 쿼리 실행
+        List<ProductDTO> results = queryFactory.select(Projections.fields(ProductDTO.class,
+                        product.productCd,
+                        product.productNm,
+                        product.productInsertDate,
+                        product.productUpdateDate,
+                        product.productDeleteDate,
+                        product.productDeleteYn,
+                        category.categoryNm.as("lowCategory"),
+                        middleCategory.categoryNm.as("middleCategory"),
+                        topCategory.categoryNm.as("topCategory"),
+                        category.categoryNo.as("lowCategoryNo"),
+                        middleCategory.categoryNo.as("middleCategoryNo"),
+                        topCategory.categoryNo.as("topCategoryNo"),
+                        product.productPrice))
+                .from(product)
+                .leftJoin(product.category, category)
+                .leftJoin(category.parentCategory, middleCategory)
+                .leftJoin(middleCategory.parentCategory, topCategory)
+                .where(builder)
+                .orderBy(orderSpecifiers)
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1)  // 다음 페이지 여부 확인용 1건 더
+                .fetch();
 
-        // 카테고리 조건
-        if (topCategoryNo != null || middleCategoryNo != null || lowCategoryNo != null) {
-            builder.and(categoryFilterCondition(topCategoryNo, middleCategoryNo, lowCategoryNo));
+        // 총 개수 계산 (필요할 때만, 카테고리 조건이 있으면 카테고리 조인)
+        boolean categoryFiltered = topCategoryNo != null || middleCategoryNo != null || lowCategoryNo != null;
+        boolean filtered = categoryFiltered || (productCd != null && !productCd.isEmpty());
+        return pageCounter.page(results, pageable, countMode, "productsList:" + builder,
+                filtered ? null : productEstimateSql(status),
+                () -> {
+                    JPAQuery<Long> countQuery = queryFactory.select(Wildcard.count).from(product);
+                    if (categoryFiltered) {
+                        countQuery.leftJoin(product.category, category)
+                                .leftJoin(category.parentCategory, middleCategory);
+                    }
+                    Long count = countQuery.where(builder).fetchOne();
+                    return count != null ? count : 0;
+                });
+    }
+
+    // 조건 없는 상품 목록(상태 조건만)의 예상 행 수를 볼 SQL
+    private static String productEstimateSql(String status) {
+        String productDeleteYn = productDeleteYnOf(status);
+        if (productDeleteYn == null) {
+            return "SELECT 1 FROM m_product";
         }
+        return "SELECT 1 FROM m_product WHERE product_delete_yn = '" + productDeleteYn + "'";
+    }
 
-        // 상품 코드/상품명 조건
-        if (productCd != null && !productCd.isEmpty()) {
-            builder.and(product.productCd.containsIgnoreCase(productCd).or(product.productNm.containsIgnoreCase(productNm)));
+    // 🔴 상품 목록 조회 (keyset 페이징)
+    // offset 없이 (정렬 컬럼, 제품 코드) 순서에서 이전 페이지 마지막 행 다음부터 limit건 -> 몇 페이지든 비용이 같고,
+    // 앞 페이지에 상품이 등록/삭제되어도 다음 페이지가 밀리지 않음
+    // 정렬은 offset 방식과 같음 (PostgreSQL 기본: 오름차순은 NULL이 마지막, 내림차순은 NULL이 처음)
+    @Override
+    public List<ProductDTO> productsListKeyset(String status, Integer topCategoryNo, Integer middleCategoryNo, Integer lowCategoryNo,
+                                               String productCd, String productNm, String sortColumn, String sortDirection,
+                                               Object lastSortValue, String lastProductCd, int limit) {
+        QProduct product = QProduct.product;
+        QCategory category = QCategory.category;
+        QCategory middleCategory = new QCategory("middleCategory");
+        QCategory topCategory = new QCategory("topCategory");
+
+        BooleanBuilder builder = productsListCondition(status, topCategoryNo, middleCategoryNo, lowCategoryNo, productCd, productNm);
+
+        ComparableExpressionBase<?> sortExpression = getSortExpression(sortColumn);
+        boolean asc = sortDirection.equals("asc");
+
+        // 커서 조건: 이전 페이지 마지막 행 (정렬 값, 제품 코드) 다음
+        if (lastProductCd != null) {
+            builder.and(seekCondition(sortExpression, asc, lastSortValue, lastProductCd));
         }
 
-        // 쿼리 실행
-        List<ProductDTO> results = queryFactory.select(Projections.fields(ProductDTO.class,
+        return queryFactory.select(Projections.fields(ProductDTO.class,
                         product.productCd,
                         product.productNm,
                         product.productInsertDate,
@@ -88,76 +168,194 @@ public class ProductRepositoryImpl implements ProductRepositoryCustom {
                 .leftJoin(category.parentCategory, middleCategory)
                 .leftJoin(middleCategory.parentCategory, topCategory)
                 .where(builder)
-                .orderBy(orderSpecifier)
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
+                .orderBy(getOrderSpecifiers(sortColumn, sortDirection))
+                .limit(limit)
                 .fetch();
+    }
 
-        // 총 개수 계산
-        long total = queryFactory.selectFrom(product)
-                .where(builder)
-                .fetchCount();
+    // 🔴 상품 목록 필터 조건 (offset/keyset 방식 공통)
+    private BooleanBuilder productsListCondition(String status, Integer topCategoryNo, Integer middleCategoryNo, Integer lowCategoryNo,
+                                                 String productCd, String productNm) {
+        QProduct product = QProduct.product;
+        BooleanBuilder builder = new BooleanBuilder();
+
+        // 상태 조건
+        String productDeleteYn = productDeleteYnOf(status);
+        if (productDeleteYn != null) {
+            builder.and(product.productDeleteYn.eq(productDeleteYn));
+        }
 
-        return new PageImpl<>(results, pageable, total);
+        // 카테고리 조건
+        if (topCategoryNo != null || middleCategoryNo != null || lowCategoryNo != null) {
+            builder.and(categoryFilterCondition(topCategoryNo, middleCategoryNo, lowCategoryNo));
+        }
+
+        // 상품 코드/상품명 조건
+        builder.and(productsListTextCondition(productCd, productNm));
+
+        return builder;
+    }
+
+    // 상품 목록 상태 조건의 삭제 여부 값: "all"이면 null (조건 없음), "active"면 사용 중(N), 나머지는 삭제(Y)
+    // 필터 개수 집계(ProductService.getProductFacets)도 같은 값으로 묶음을 거름
+    public static String productDeleteYnOf(String status) {
+        return status.equals("all") ? null : (status.equals("active") ? "N" : "Y");
+    }
+
+    // 필터 개수 묶음이 상태 조건에 맞는지 (productsListCondition의 상태 조건과 같음)
+    public static boolean matchesStatusFilter(ProductFacetGroupDTO group, String status) {
+        String productDeleteYn = productDeleteYnOf(status);
+        return productDeleteYn == null || productDeleteYn.equals(group.getProductDeleteYn());
+    }
+
+    // 필터 개수 묶음이 카테고리 조건에 맞는지 (categoryFilterCondition과 같은 컬럼 비교)
+    // 대분류 = 중분류의 상위 번호, 중분류 = 소분류의 상위 번호, 소분류 = 상품의 카테고리 번호, 카테고리가 없는 상품은 조건이 있으면 제외
+    public static boolean matchesCategoryFilter(ProductFacetGroupDTO group,
+                                                Integer topCategoryNo, Integer middleCategoryNo, Integer lowCategoryNo) {
+        return (topCategoryNo == null || topCategoryNo.equals(group.getTopCategoryNo()))
+                && (middleCategoryNo == null || middleCategoryNo.equals(group.getMiddleCategoryNo()))
+                && (lowCategoryNo == null || lowCategoryNo.equals(group.getLowCategoryNo()));
+    }
+
+    // 상품 목록 상품 코드/상품명 조건 (필터 개수 조회도 같은 조건): 상품 코드 또는 상품명에 포함
+    // 상품 코드 검색어가 없으면 null (조건 없음), 상품명 검색어가 없으면 상품 코드만
+    private BooleanExpression productsListTextCondition(String productCd, String productNm) {
+        QProduct product = QProduct.product;
+        if (productCd == null || productCd.isEmpty()) {
+            return null;
+        }
+        BooleanExpression condition = product.productCd.containsIgnoreCase(productCd);
+        return productNm != null ? condition.or(product.productNm.containsIgnoreCase(productNm)) : condition;
     }
 
-    // 🔴 정렬 조건 설정 메서드
-    private OrderSpecifier<?> getOrderSpecifier(String sortColumn, String sortDirection) {
+    // 🔴 상품 목록 필터 개수 (대/중/소분류, 상태별 상품 수)
+    // 상품 코드/상품명 조건만 적용해서 (대분류, 중분류, 소분류, 상태) 묶음별 개수를 한 번에 조회
+    // -> 카테고리/상태 조건은 호출하는 쪽에서 묶음에 적용 (필터마다 자기 조건은 빼고 셀 수 있음)
+    // 묶음 수는 카테고리 수 x 2 이하, 카테고리 조건과 같은 컬럼 (중분류의 상위 번호 = 대분류 번호)으로 묶음
+    @Override
+    public List<ProductFacetGroupDTO> findProductFacetGroups(String productCd, String productNm) {
         QProduct product = QProduct.product;
         QCategory category = QCategory.category;
         QCategory middleCategory = new QCategory("middleCategory");
         QCategory topCategory = new QCategory("topCategory");
 
-        OrderSpecifier<?> orderSpecifier;
+        return queryFactory.select(Projections.fields(ProductFacetGroupDTO.class,
+                        middleCategory.parentCategoryNo.as("topCategoryNo"),
+                        topCategory.categoryNm.as("topCategory"),
+                        middleCategory.categoryNo.as("middleCategoryNo"),
+                        middleCategory.categoryNm.as("middleCategory"),
+                        category.categoryNo.as("lowCategoryNo"),
+                        category.categoryNm.as("lowCategory"),
+                        product.productDeleteYn,
+                        Wildcard.count.as("productCount")))
+                .from(product)
+                .leftJoin(product.category, category)
+                .leftJoin(category.parentCategory, middleCategory)
+                .leftJoin(middleCategory.parentCategory, topCategory)
+                .where(productsListTextCondition(productCd, productNm))
+                .groupBy(middleCategory.parentCategoryNo, topCategory.categoryNm,
+                        middleCategory.categoryNo, middleCategory.categoryNm,
+                        category.categoryNo, category.categoryNm,
+                        product.productDeleteYn)
+                .fetch();
+    }
+
+    // 🔴 keyset 커서 조건: (정렬 값, 제품 코드)가 마지막 행 다음인 행
+    // NOT NULL 컬럼은 "정렬 값 >= 마지막 값"을 따로 두어 (정렬 컬럼, 제품 코드) 인덱스를 마지막 값부터 읽게 함
+    // NULL이 될 수 있는 컬럼(수정일시, 삭제일시, 카테고리명)은 NULL 구간도 이어서 처리
+    private BooleanExpression seekCondition(ComparableExpressionBase<?> sortExpression, boolean asc,
+                                            Object lastSortValue, String lastProductCd) {
+        QProduct product = QProduct.product;
+        BooleanExpression afterProductCd = asc ? product.productCd.gt(lastProductCd) : product.productCd.lt(lastProductCd);
+        if (sortExpression == product.productCd) {
+            return afterProductCd;
+        }
+
+        // 마지막 행의 정렬 값이 NULL: 오름차순이면 남은 NULL 행만, 내림차순이면 남은 NULL 행 + NULL이 아닌 행 전부
+        if (lastSortValue == null) {
+            return asc
+                    ? sortExpression.isNull().and(afterProductCd)
+                    : sortExpression.isNotNull().or(afterProductCd);
+        }
+
+        Expression<?> last = Expressions.constant(lastSortValue);
+        BooleanExpression after = Expressions.predicate(asc ? Ops.GOE : Ops.LOE, sortExpression, last)
+                .and(Expressions.predicate(asc ? Ops.GT : Ops.LT, sortExpression, last).or(afterProductCd));
+        boolean notNull = sortExpression == product.productNm || sortExpression == product.productPrice
+                || sortExpression == product.productInsertDate;
+        return asc && !notNull ? after.or(sortExpression.isNull()) : after;
+    }
+
+    // 🔴 정렬 조건 설정 메서드 (offset/keyset 방식 공통)
+    // 제품 코드 정렬이 아니면 제품 코드를 같은 방향으로 덧붙여 동점 순서를 고정
+    // -> 두 방식이 같은 전체 순서를 쓰므로 페이지 사이에 동점 행이 빠지거나 겹치지 않음
+    private OrderSpecifier<?>[] getOrderSpecifiers(String sortColumn, String sortDirection) {
+        QProduct product = QProduct.product;
+        ComparableExpressionBase<?> sortExpression = getSortExpression(sortColumn);
+
+        // 알 수 없는 정렬 컬럼은 제품 코드 오름차순
+        if (sortExpression == null) {
+            return new OrderSpecifier<?>[]{product.productCd.asc()};
+        }
+        boolean asc = sortDirection.equals("asc");
+        if (sortExpression == product.productCd) {
+            return new OrderSpecifier<?>[]{asc ? product.productCd.asc() : product.productCd.desc()};
+        }
+        return new OrderSpecifier<?>[]{
+                asc ? sortExpression.asc() : sortExpression.desc(),
+                asc ? product.productCd.asc() : product.productCd.desc()};
+    }
+
+    // 🔴 정렬 컬럼 이름 -> 정렬 식 (알 수 없는 컬럼이면 null)
+    private ComparableExpressionBase<?> getSortExpression(String sortColumn) {
+        QProduct product = QProduct.product;
+        QCategory category = QCategory.category;
+        QCategory middleCategory = new QCategory("middleCategory");
+        QCategory topCategory = new QCategory("topCategory");
 
         switch (sortColumn) {
             case "productCd":
-                orderSpecifier = sortDirection.equals("asc") ? product.productCd.asc() : product.productCd.desc();
-                break;
+                return product.productCd;
             case "productNm":
-                orderSpecifier = sortDirection.equals("asc") ? product.productNm.asc() : product.productNm.desc();
-                break;
+                return product.productNm;
             case "topCategory":
-                orderSpecifier = sortDirection.equals("asc") ? topCategory.categoryNm.asc() : topCategory.categoryNm.desc();
-                break;
+                return topCategory.categoryNm;
             case "middleCategory":
-                orderSpecifier = sortDirection.equals("asc") ? middleCategory.categoryNm.asc() : middleCategory.categoryNm.desc();
-                break;
+                return middleCategory.categoryNm;
             case "lowCategory":
-                orderSpecifier = sortDirection.equals("asc") ? category.categoryNm.asc() : category.categoryNm.desc();
-                break;
+                return category.categoryNm;
             case "productPrice":
-                orderSpecifier = sortDirection.equals("asc") ? product.productPrice.asc() : product.productPrice.desc();
-                break;
+                return product.productPrice;
             case "productInsertDate":
-                orderSpecifier = sortDirection.equals("asc") ? product.productInsertDate.asc() : product.productInsertDate.desc();
-                break;
+                return product.productInsertDate;
             case "productUpdateDate":
-                orderSpecifier = sortDirection.equals("asc") ? product.productUpdateDate.asc() : product.productUpdateDate.desc();
-                break;
+                return product.productUpdateDate;
             case "productDeleteDate":
-                orderSpecifier = sortDirection.equals("asc") ? product.productDeleteDate.asc() : product.productDeleteDate.desc();
-                break;
+                return product.productDeleteDate;
             default:
-                orderSpecifier = product.productCd.asc();
-                break;
+                return null;
         }
-
-        return orderSpecifier;
     }
 
     // 🔴🔴🔴🔴🔴 0920 예원 추가 (상품코드, 상품명, 대분류, 중분류, 소분류, 상태별 상품목록 페이징 적용하여 가져오기)
+    // 고객이 선택된 경우 customerPrices = 그 고객의 오늘 적용 가격 (제품 코드 -> 고객별 가격, 고객별 가격표 캐시)
+    // -> m_price 조인 없이 "오늘 적용 가격이 있는 제품"을 EXISTS(세미 조인)로 조회하고 가격은 맵에서 채움
+    //    (가격 이력이 쌓여도 제품 행마다 인덱스 조회 한 번, 제품 코드 IN 목록처럼 가격 수만큼 SQL이 길어지지 않음)
+    @Override
     public Page<ProductDTO> findProductsFilter(Pageable pageable, String status,
                                                Integer topCategoryNo, Integer middleCategoryNo, Integer lowCategoryNo,
-                                               String productCd, String productNm, Integer customerNo) {
+                                               String productCd, String productNm,
+                                               Integer customerNo, Map<String, BigDecimal> customerPrices,
+                                               PageCountMode countMode) {
         QProduct product = QProduct.product;
         QCategory category = QCategory.category;
         QCategory middleCategory = new QCategory("middleCategory");
         QCategory topCategory = new QCategory("topCategory");
-        QPrice price = QPrice.price; // Price 테이블 사용
 
-        // 🔴 현재 날짜를 가져옴
-        LocalDate today = LocalDate.now();
+        // 🔴 고객별 가격이 하나도 없으면 조회할 제품도 없음
+        if (customerPrices != null && customerPrices.isEmpty()) {
+            return new PageImpl<>(Collections.emptyList(), pageable, 0);
+        }
 
         // 🔴 상태 조건
         BooleanExpression statusCondition = (status.equals("all"))
@@ -178,15 +376,21 @@ public class ProductRepositoryImpl implements ProductRepositoryCustom {
                     : product.productNm.containsIgnoreCase(productNm);  // 상품명 조건
         }
 
-        // 🟢🟢🟢 고객 번호 조건 추가 (customerNo가 있을 때만)
+        // 🟢🟢🟢 고객 조건 (고객이 선택된 경우에만): 오늘 적용 가격이 있는 제품
+        // 시작일이 NULL이면 바로 적용, 종료일이 NULL이면 무기한 (고객별 가격표와 같은 기준)
+        // idx_price_customer_product_period (고객, 제품, 시작일, 종료일) 인덱스로 확인
         BooleanExpression customerCondition = null;
-        logger.info("\uD83D\uDFE22 customerNo : " + customerNo);
-        // 고객 번호를 통한 조건 추가 (customerNo가 있을 때만)
         if (customerNo != null) {
-            customerCondition = price.customer.customerNo.eq(customerNo)
-                    .and(price.priceStartDate.loe(Date.valueOf(today)))  // 시작 날짜 <= 오늘
-                    .and(price.priceEndDate.isNull().or(price.priceEndDate.goe(Date.valueOf(today))))  // 종료 날짜가 null이거나 종료 날짜 >= 오늘
-                    .and(price.priceDeleteYn.eq("N"));  // priceDeleteYn이 'N'인 조건 추가
+            QPrice price = QPrice.price;
+            Date today = Date.valueOf(LocalDate.now());
+            customerCondition = JPAExpressions.selectOne()
+                    .from(price)
+                    .where(price.customer.customerNo.eq(customerNo),
+                            price.product.productCd.eq(product.productCd),
+                            price.priceDeleteYn.eq("N"),
+                            price.priceStartDate.isNull().or(price.priceStartDate.loe(today)),
+                            price.priceEndDate.isNull().or(price.priceEndDate.goe(today)))
+                    .exists();
         }
 
         // 🔴 BooleanBuilder 사용하여 조건 추가
@@ -194,64 +398,51 @@ public class ProductRepositoryImpl implements ProductRepositoryCustom {
         if (statusCondition != null) builder.and(statusCondition);
         if (categoryCondition != null) builder.and(categoryCondition);
         if (productCondition != null) builder.and(productCondition);
-        if (customerCondition != null) { // Price와 Product 조인을 통한 고객 필터링 추가
-            builder.and(customerCondition);
-        }
+        if (customerCondition != null) builder.and(customerCondition);
 
-        // 가격 테이블 조인 여부에 따라 쿼리 구성
-        // 🔴 기본 필드 구성
-        List<Expression<?>> selectFields = new ArrayList<>(Arrays.asList(
-                product.productCd,
-                product.productNm,
-                product.productInsertDate,
-                product.productUpdateDate,
-                product.productDeleteDate,
-                product.productDeleteYn,
-                product.productPrice,
-                category.categoryNm.as("lowCategory"),
-                middleCategory.categoryNm.as("middleCategory"),
-                topCategory.categoryNm.as("topCategory"),
-                category.categoryNo.as("lowCategoryNo"),
-                middleCategory.categoryNo.as("middleCategoryNo"),
-                topCategory.categoryNo.as("topCategoryNo")
-        ));
-
-        // 고객 조건이 있을 때만 priceCustomer를 select에 추가
-        if (customerCondition != null) {
-            selectFields.add(price.priceCustomer); // 고객별 가격 추가
-        }
-
-        // 🔴 가격 테이블 조인 여부에 따라 쿼리 구성
-        JPAQuery<ProductDTO> query = queryFactory.select(Projections.fields(ProductDTO.class, selectFields.toArray(new Expression<?>[0])))
+        // 🔴 쿼리 구성 (제품당 한 행이므로 distinct 불필요)
+        List<ProductDTO> results = queryFactory.select(Projections.fields(ProductDTO.class,
+                        product.productCd,
+                        product.productNm,
+                        product.productInsertDate,
+                        product.productUpdateDate,
+                        product.productDeleteDate,
+                        product.productDeleteYn,
+                        product.productPrice,
+                        category.categoryNm.as("lowCategory"),
+                        middleCategory.categoryNm.as("middleCategory"),
+                        topCategory.categoryNm.as("topCategory"),
+                        category.categoryNo.as("lowCategoryNo"),
+                        middleCategory.categoryNo.as("middleCategoryNo"),
+                        topCategory.categoryNo.as("topCategoryNo")))
                 .from(product)
                 .leftJoin(product.category, category)
                 .leftJoin(category.parentCategory, middleCategory)
-                .leftJoin(middleCategory.parentCategory, topCategory);
-
-        // 고객 조건이 있을 경우에만 Price와 조인
-        if (customerCondition != null) {
-            query.leftJoin(price).on(product.productCd.eq(price.product.productCd));  // Product와 Price 조인
-            builder.and(customerCondition);  // Price 관련 조건 추가
-        }
-
-        query.where(builder)
-                .distinct()  // 중복 제거
+                .leftJoin(middleCategory.parentCategory, topCategory)
+                .where(builder)
                 .orderBy(product.category.categoryNo.asc(), product.productNm.asc())  // categoryNo와 productNm 기준 오름차순 정렬
                 .offset(pageable.getOffset())  // 페이지 시작 위치
-                .limit(pageable.getPageSize());  // 페이지 크기 설정
-
-        List<ProductDTO> results = query.fetch();
+                .limit(pageable.getPageSize() + 1)  // 페이지 크기 + 다음 페이지 여부 확인용 1건
+                .fetch();
 
-        // 🔴 총 항목 수
-        long total = queryFactory.selectFrom(product)
-                .leftJoin(product.category, category)
-                .leftJoin(category.parentCategory, middleCategory)
-                .leftJoin(middleCategory.parentCategory, topCategory)
-                .leftJoin(price).on(product.productCd.eq(price.product.productCd)) // Price와 Product 조인
-                .where(builder)
-                .fetchCount();  // 조건에 맞는 총 개수
+        // 고객별 가격 채우기
+        if (customerPrices != null) {
+            results.forEach(result -> result.setPriceCustomer(customerPrices.get(result.getProductCd())));
+        }
 
-        return new PageImpl<>(results, pageable, total);  // 결과를 Page 객체로 반환
+        // 🔴 총 항목 수 (필요할 때만, 카테고리 조건이 있을 때만 카테고리 조인)
+        boolean filtered = categoryCondition != null || productCondition != null || customerCondition != null;
+        return pageCounter.page(results, pageable, countMode, "productsFilter:" + builder,
+                filtered ? null : productEstimateSql(status),
+                () -> {
+                    JPAQuery<Long> countQuery = queryFactory.select(Wildcard.count).from(product);
+                    if (categoryCondition != null) {
+                        countQuery.leftJoin(product.category, category)
+                                .leftJoin(category.parentCategory, middleCategory);
+                    }
+                    Long count = countQuery.where(builder).fetchOne();
+                    return count != null ? count : 0;
+                });
     }
 
     // 🔴 0920 예원 추가 2
@@ -301,6 +492,7 @@ public class ProductRepositoryImpl implements ProductRepositoryCustom {
                         product.productNm,
                         product.productInsertDate,
                         product.productUpdateDate,
+                        order.orderNo.as("orderHNo"),
                         employee.employeeName,
                         customer.customerName,
                         orderDetail.orderDDeliveryRequestDate,
@@ -325,4 +517,124 @@ public class ProductRepositoryImpl implements ProductRepositoryCustom {
                 .fetch();
     }
 
+    // 🔴 상품 자동완성 (주문 등록 상품 선택, 삭제되지 않은 상품만, 최대 limit건)
+    // 순위: 1. 제품 코드 앞부분 일치 2. 제품명 앞부분 일치 (두 경우 모두 COLLATE "C" 인덱스 순서대로 limit건만 읽음)
+    //       3. 제품명에 검색어의 모든 단어 포함 또는 제품 코드에 검색어 포함 -> word_similarity 높은 순
+    //          (제품명/제품 코드 각각 pg_trgm GiST 인덱스를 거리(<<->) 순서대로 limit건만 읽음 -> 흔한 단어도 전부 정렬하지 않고,
+    //           각 쪽의 상위 limit건을 합친 것이라 이 순위의 상위 limit건은 정확함, 점수가 같은 상품 중 어느 것이 들어갈지는 인덱스 순서)
+    // 같은 순위 안에서는 제품명 순 (코드 일치는 코드 순), 검색어가 3글자 미만이면 트라이그램이 없으므로 앞부분 일치만
+    @Override
+    public List<ProductDTO> findProductSuggestions(String searchText, int limit) {
+        String text = searchText.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        List<String> words = Arrays.stream(text.split(" "))
+                .limit(SUGGESTION_MAX_WORDS)
+                .collect(Collectors.toList());
+        String prefix = escapeLike(text) + "%";
+
+        List<Object> params = new ArrayList<>();
+        StringBuilder candidates = new StringBuilder()
+                .append("(SELECT p.product_cd, p.product_nm, p.product_price, p.category_no, 0 AS tier, 1.0 AS score ")
+                .append(" FROM m_product p WHERE p.product_delete_yn = 'N' AND lower(p.product_cd) COLLATE \"C\" LIKE ? ")
+                .append(" ORDER BY lower(p.product_cd) COLLATE \"C\" LIMIT ?) ")
+                .append("UNION ALL ")
+                .append("(SELECT p.product_cd, p.product_nm, p.product_price, p.category_no, 1, 1.0 ")
+                .append(" FROM m_product p WHERE p.product_delete_yn = 'N' AND lower(p.product_nm) COLLATE \"C\" LIKE ? ")
+                .append(" ORDER BY lower(p.product_nm) COLLATE \"C\" LIMIT ?) ");
+        params.addAll(Arrays.asList(prefix, limit, prefix, limit));
+
+        // 부분 일치는 트라이그램(3글자)이 있는 단어가 하나라도 있을 때만 (없으면 인덱스를 쓸 수 없어 전체 검색이 됨)
+        // 점수는 일치한 쪽(제품명/제품 코드)의 word_similarity, 둘 다 일치하면 높은 쪽
+        if (words.stream().anyMatch(word -> word.length() >= 3)) {
+            String nameContains = words.stream()
+                    .map(word -> "lower(p.product_nm) LIKE ?")
+                    .collect(Collectors.joining(" AND "));
+            candidates.append("UNION ALL ")
+                    .append("(SELECT p.product_cd, p.product_nm, p.product_price, p.category_no, 2, word_similarity(?, lower(p.product_nm)) ")
+                    .append(" FROM m_product p WHERE p.product_delete_yn = 'N' AND ").append(nameContains)
+                    .append(" ORDER BY ? <<-> lower(p.product_nm) LIMIT ?) ")
+                    .append("UNION ALL ")
+                    .append("(SELECT p.product_cd, p.product_nm, p.product_price, p.category_no, 2, word_similarity(?, lower(p.product_cd)) ")
+                    .append(" FROM m_product p WHERE p.product_delete_yn = 'N' AND lower(p.product_cd) LIKE ? ")
+                    .append(" ORDER BY ? <<-> lower(p.product_cd) LIMIT ?) ");
+            params.add(text);
+            words.forEach(word -> params.add("%" + escapeLike(word) + "%"));
+            params.addAll(Arrays.asList(text, limit, text, "%" + escapeLike(text) + "%", text, limit));
+        }
+
+        // 여러 순위에 걸린 상품은 가장 높은 순위로 한 번만, 카테고리 이름은 최종 limit건에만 조인
+        String sql = "SELECT r.product_cd, r.product_nm, r.product_price, " +
+                "       low.category_no AS low_category_no, low.category_nm AS low_category, " +
+                "       middle.category_no AS middle_category_no, middle.category_nm AS middle_category, " +
+                "       top.category_no AS top_category_no, top.category_nm AS top_category " +
+                "FROM (SELECT DISTINCT ON (c.product_cd) c.* FROM (" + candidates + ") c " +
+                "      ORDER BY c.product_cd, c.tier, c.score DESC) r " +
+                "LEFT JOIN m_category low ON low.category_no = r.category_no " +
+                "LEFT JOIN m_category middle ON middle.category_no = low.parent_category_no " +
+                "LEFT JOIN m_category top ON top.category_no = middle.parent_category_no " +
+                "ORDER BY r.tier, r.score DESC, CASE WHEN r.tier = 0 THEN lower(r.product_cd) END COLLATE \"C\", " +
+                "         lower(r.product_nm) COLLATE \"C\", r.product_cd " +
+                "LIMIT ?";
+        params.add(limit);
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            ProductDTO dto = new ProductDTO();
+            dto.setProductCd(rs.getString("product_cd"));
+            dto.setProductNm(rs.getString("product_nm"));
+            dto.setProductPrice(rs.getBigDecimal("product_price"));
+            dto.setLowCategoryNo((Integer) rs.getObject("low_category_no"));
+            dto.setLowCategory(rs.getString("low_category"));
+            dto.setMiddleCategoryNo((Integer) rs.getObject("middle_category_no"));
+            dto.setMiddleCategory(rs.getString("middle_category"));
+            dto.setTopCategoryNo((Integer) rs.getObject("top_category_no"));
+            dto.setTopCategory(rs.getString("top_category"));
+            return dto;
+        }, params.toArray());
+    }
+
+    // 🔴 제품별 최근 납품내역 limit건 (여러 제품을 한 번에, 상품 목록에 최근 납품을 같이 표시)
+    // 제품 코드 배열을 펼쳐 제품마다 LATERAL 하위 쿼리 -> (제품 코드, 납품 요청 일자 DESC, 상세 번호 DESC) 인덱스를
+    // 앞에서부터 limit건만 읽음 (제품의 전체 주문 상세를 정렬하지 않음), 직원/고객 이름은 최종 행에만 조인
+    // 납품 요청 일자가 없는 상세, 삭제된 주문/상세는 제외, 결과는 요청한 제품 순서 (납품내역이 없으면 빈 목록)
+    @Override
+    public Map<String, List<ProductDTO>> findRecentDeliveries(List<String> productCds, int limit) {
+        String sql = "SELECT c.product_cd, r.order_d_delivery_request_date, r.order_d_qty, r.order_d_price, " +
+                "       r.order_d_total_price, e.employee_name, cu.customer_name " +
+                "FROM unnest(?::varchar[]) WITH ORDINALITY AS c(product_cd, ord) " +
+                "CROSS JOIN LATERAL (" +
+                "    SELECT d.order_d_no, d.order_d_delivery_request_date, d.order_d_qty, d.order_d_price, " +
+                "           d.order_d_total_price, h.employee_id, h.customer_no " +
+                "    FROM m_order_d d JOIN m_order_h h ON h.order_h_no = d.order_h_no " +
+                "    WHERE d.product_cd = c.product_cd AND d.order_d_delivery_request_date IS NOT NULL " +
+                "      AND d.order_d_delete_yn = 'N' AND h.order_h_delete_yn = 'N' " +
+                "    ORDER BY d.order_d_delivery_request_date DESC, d.order_d_no DESC " +
+                "    LIMIT ?) r " +
+                "LEFT JOIN m_employee e ON e.employee_id = r.employee_id " +
+                "LEFT JOIN m_customer cu ON cu.customer_no = r.customer_no " +
+                "ORDER BY c.ord, r.order_d_delivery_request_date DESC, r.order_d_no DESC";
+
+        Map<String, List<ProductDTO>> deliveries = new LinkedHashMap<>();
+        productCds.forEach(productCd -> deliveries.put(productCd, new ArrayList<>()));
+
+        jdbcTemplate.query(sql, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("varchar", productCds.toArray()));
+            ps.setInt(2, limit);
+        }, rs -> {
+            ProductDTO dto = new ProductDTO();
+            dto.setProductCd(rs.getString("product_cd"));
+            dto.setOrderDDeliveryRequestDate(rs.getTimestamp("order_d_delivery_request_date"));
+            dto.setOrderDQty(rs.getInt("order_d_qty"));
+            dto.setOrderDPrice(rs.getBigDecimal("order_d_price"));
+            dto.setOrderDTotalPrice(rs.getBigDecimal("order_d_total_price"));
+            dto.setEmployeeName(rs.getString("employee_name"));
+            dto.setCustomerName(rs.getString("customer_name"));
+            deliveries.get(dto.getProductCd()).add(dto);
+        });
+        return deliveries;
+    }
+
+    // LIKE 특수문자(%, _, \)를 문자 그대로 검색 (PostgreSQL 기본 ESCAPE 문자는 \)
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
 }
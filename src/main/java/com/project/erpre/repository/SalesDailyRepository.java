@@ -0,0 +1,11 @@
+package com.project.erpre.repository;
+
+import com.project.erpre.model.SalesDaily;
+import com.project.erpre.model.SalesDailyId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SalesDailyRepository extends JpaRepository<SalesDaily, SalesDailyId>, SalesDailyRepositoryCustom {
+
+}
@@ -0,0 +1,41 @@
+package com.project.erpre.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public interface SalesDailyRepositoryCustom {
+
+    // 주문 변경으로 다시 집계해야 하는 날짜 (이전에 집계된 날짜 + 현재 승인 기준 날짜)
+    List<LocalDate> findAffectedSalesDates(List<Integer> orderNos);
+
+    // 지정한 날짜들의 일별 매출 집계를 원본 주문에서 다시 계산, 집계 행 수 반환
+    int refreshSalesDates(List<LocalDate> salesDates);
+
+    // 기간 [startDate, endDate] 의 일별 매출 집계를 다시 계산 (백필), 집계 행 수 반환
+    int rebuildSalesRange(LocalDate startDate, LocalDate endDate);
+
+    // 승인된 주문 중 가장 이른 집계 기준일 (없으면 null)
+    LocalDate findFirstSalesDate();
+
+    // 승인된 주문의 상세 행(매출 팩트)을 한 행씩 handler로 전달 (orderNos가 null이면 전체)
+    void scanSalesFacts(List<Integer> orderNos, SalesFactHandler handler);
+
+    // 고객사/상품/담당자의 현재 이름 (메모리 집계의 이름 갱신용, 없는 번호/코드는 빠짐)
+    Map<Integer, String> findCustomerNames(List<Integer> customerNos);
+
+    Map<String, String> findProductNames(List<String> productCds);
+
+    Map<String, String> findEmployeeNames(List<String> employeeIds);
+
+    // 매출 팩트 한 행: 주문 상세 1건 (일자는 1970-01-01부터의 일수, 금액은 100을 곱한 정수)
+    interface SalesFactHandler {
+
+        void handle(int orderNo, int epochDay, boolean firstLine,
+                    int customerNo, String customerName,
+                    String productCd, String productNm,
+                    String employeeId, String employeeName,
+                    int qty, long amountCents);
+    }
+
+}
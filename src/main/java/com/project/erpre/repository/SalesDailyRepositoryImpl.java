@@ -0,0 +1,221 @@
+package com.project.erpre.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+public class SalesDailyRepositoryImpl implements SalesDailyRepositoryCustom {
+
+    // 주문의 집계 기준일: 승인된 시각 (order_h_effective_date)
+    private static final String SALES_DATE = "CAST(h.order_h_effective_date AS date)";
+
+    // 주문 헤더 조건: 상태/삭제여부/기준일 복합 인덱스(idx_order_h_status_effective_date)를 범위로 탐색
+    private static final String APPROVED = "h.order_h_status = 'approved' AND h.order_h_delete_yn = 'N'";
+
+    // 집계 갱신끼리 같은 날짜를 동시에 지우고 넣지 않도록 트랜잭션 단위 advisory lock 사용
+    private static final long REFRESH_LOCK_KEY = 7_001L;
+
+    private static final int FACT_FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SalesDailyRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // 🔴 다시 집계할 날짜 조회
+    // 이전에 집계된 날짜도 포함해야 승인 취소/날짜 이동 시 예전 날짜의 집계가 빠짐
+    @Override
+    public List<LocalDate> findAffectedSalesDates(List<Integer> orderNos) {
+        String sql = "SELECT sales_date FROM m_sales_daily_order WHERE order_h_no = ANY(?) " +
+                "UNION " +
+                "SELECT " + SALES_DATE + " FROM m_order_h h " +
+                "WHERE h.order_h_no = ANY(?) AND " + APPROVED;
+
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("integer", orderNos.toArray()));
+            ps.setArray(2, con.createArrayOf("integer", orderNos.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getDate(1).toLocalDate());
+    }
+
+    // 🔴 날짜 단위 재집계 (주문 변경 후)
+    // 연속된 날짜는 하나의 기간으로 묶어서 기간 단위로 처리
+    @Override
+    public int refreshSalesDates(List<LocalDate> salesDates) {
+        List<LocalDate> dates = salesDates.stream().distinct().sorted().collect(Collectors.toList());
+
+        List<LocalDate[]> ranges = new ArrayList<>();
+        for (LocalDate date : dates) {
+            LocalDate[] last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+            if (last != null && last[1].plusDays(1).equals(date)) {
+                last[1] = date;
+            } else {
+                ranges.add(new LocalDate[]{date, date});
+            }
+        }
+        return refresh(ranges);
+    }
+
+    // 🔴 기간 단위 재집계 (백필)
+    @Override
+    public int rebuildSalesRange(LocalDate startDate, LocalDate endDate) {
+        return refresh(Collections.singletonList(new LocalDate[]{startDate, endDate}));
+    }
+
+    @Override
+    public LocalDate findFirstSalesDate() {
+        Date date = jdbcTemplate.queryForObject("SELECT CAST(MIN(h.order_h_effective_date) AS date) FROM m_order_h h " +
+                "WHERE " + APPROVED, Date.class);
+        return date != null ? date.toLocalDate() : null;
+    }
+
+    // 🔴 매출 팩트 조회 (메모리 집계용, OrderFactStore 참고)
+    // 전체 조회 시 행이 많으므로 fetch size 단위로 커서를 읽음 (PostgreSQL은 트랜잭션 안에서만 커서로 동작)
+    // first_line은 일별 집계의 order_count와 같은 규칙 (주문의 첫 번째 상세 행)
+    @Override
+    public void scanSalesFacts(List<Integer> orderNos, SalesFactHandler handler) {
+        String sql = "SELECT h.order_h_no, " +
+                "       " + SALES_DATE + " - DATE '1970-01-01', " +
+                "       ROW_NUMBER() OVER (PARTITION BY h.order_h_no ORDER BY d.order_d_no) = 1, " +
+                "       h.customer_no, c.customer_name, d.product_cd, p.product_nm, h.employee_id, e.employee_name, " +
+                "       d.order_d_qty, CAST(d.order_d_total_price * 100 AS bigint) " +
+                "FROM m_order_h h " +
+                "JOIN m_order_d d ON d.order_h_no = h.order_h_no " +
+                "JOIN m_customer c ON c.customer_no = h.customer_no " +
+                "JOIN m_product p ON p.product_cd = d.product_cd " +
+                "JOIN m_employee e ON e.employee_id = h.employee_id " +
+                "WHERE " + APPROVED + (orderNos != null ? " AND h.order_h_no = ANY(?)" : "");
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(FACT_FETCH_SIZE);
+            if (orderNos != null) {
+                ps.setArray(1, con.createArrayOf("integer", orderNos.toArray()));
+            }
+            return ps;
+        }, rs -> {
+            handler.handle(rs.getInt(1), rs.getInt(2), rs.getBoolean(3),
+                    rs.getInt(4), rs.getString(5),
+                    rs.getString(6), rs.getString(7),
+                    rs.getString(8), rs.getString(9),
+                    rs.getInt(10), rs.getLong(11));
+        });
+    }
+
+    // 이름 변경 반영용 조회 (OrderFactStore 참고)
+    @Override
+    public Map<Integer, String> findCustomerNames(List<Integer> customerNos) {
+        Map<Integer, String> names = new HashMap<>();
+        findNames("SELECT customer_no, customer_name FROM m_customer WHERE customer_no = ANY(?)", "integer", customerNos,
+                (key, name) -> names.put(Integer.valueOf(key), name));
+        return names;
+    }
+
+    @Override
+    public Map<String, String> findProductNames(List<String> productCds) {
+        Map<String, String> names = new HashMap<>();
+        findNames("SELECT product_cd, product_nm FROM m_product WHERE product_cd = ANY(?)", "varchar", productCds, names::put);
+        return names;
+    }
+
+    @Override
+    public Map<String, String> findEmployeeNames(List<String> employeeIds) {
+        Map<String, String> names = new HashMap<>();
+        findNames("SELECT employee_id, employee_name FROM m_employee WHERE employee_id = ANY(?)", "varchar", employeeIds, names::put);
+        return names;
+    }
+
+    // (키, 이름) 2컬럼 조회, 키는 문자열로 전달
+    private void findNames(String sql, String keyType, List<?> keys, BiConsumer<String, String> handler) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf(keyType, keys.toArray()));
+            return ps;
+        }, rs -> {
+            handler.accept(rs.getString(1), rs.getString(2));
+        });
+    }
+
+    // 🔴 일별 매출 집계 재계산
+    // 대상 날짜의 집계 행을 지우고 승인된 주문 상세에서 (날짜, 고객사, 상품, 담당자) 단위로 다시 넣음
+    // order_count는 주문의 첫 번째 상세 행에만 1을 넣어서, 상품을 제외한 어떤 묶음으로 더해도 주문 건수가 됨
+    // (상세가 없는 주문은 금액이 0이라 집계에서 제외)
+    // 주문 헤더는 기준일 컬럼 자체의 범위 조건(>= 시작일, < 종료일 다음날)으로 걸러서 인덱스 범위 탐색이 되게 함
+    private int refresh(List<LocalDate[]> ranges) {
+        if (ranges.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + REFRESH_LOCK_KEY + ")");
+
+        String salesDateRanges = dateRanges("s.sales_date", ranges.size());
+        String orderDateRanges = timestampRanges("h.order_h_effective_date", ranges.size());
+
+        update("DELETE FROM m_sales_daily s WHERE " + salesDateRanges, ranges, false);
+
+        int rows = update("INSERT INTO m_sales_daily " +
+                "(sales_date, customer_no, product_cd, employee_id, order_count, line_count, qty, amount) " +
+                "SELECT x.sales_date, x.customer_no, x.product_cd, x.employee_id, " +
+                "       SUM(CASE WHEN x.line_no = 1 THEN 1 ELSE 0 END), COUNT(*), SUM(x.qty), SUM(x.amount) " +
+                "FROM (SELECT " + SALES_DATE + " AS sales_date, h.customer_no, d.product_cd, h.employee_id, " +
+                "             d.order_d_qty AS qty, d.order_d_total_price AS amount, " +
+                "             ROW_NUMBER() OVER (PARTITION BY h.order_h_no ORDER BY d.order_d_no) AS line_no " +
+                "      FROM m_order_h h JOIN m_order_d d ON d.order_h_no = h.order_h_no " +
+                "      WHERE " + APPROVED + " AND (" + orderDateRanges + ")) x " +
+                "GROUP BY x.sales_date, x.customer_no, x.product_cd, x.employee_id", ranges, true);
+
+        update("DELETE FROM m_sales_daily_order o WHERE " + dateRanges("o.sales_date", ranges.size()), ranges, false);
+
+        update("INSERT INTO m_sales_daily_order (order_h_no, sales_date) " +
+                "SELECT h.order_h_no, " + SALES_DATE + " FROM m_order_h h " +
+                "WHERE " + APPROVED + " AND (" + orderDateRanges + ") " +
+                "AND EXISTS (SELECT 1 FROM m_order_d d WHERE d.order_h_no = h.order_h_no) " +
+                "ON CONFLICT (order_h_no) DO UPDATE SET sales_date = EXCLUDED.sales_date", ranges, true);
+
+        return rows;
+    }
+
+    // 날짜 컬럼 기간 조건: (col BETWEEN ? AND ?) OR ...
+    private String dateRanges(String column, int count) {
+        return Collections.nCopies(count, "(" + column + " BETWEEN ? AND ?)").stream()
+                .collect(Collectors.joining(" OR "));
+    }
+
+    // 일시 컬럼 기간 조건: (col >= ? AND col < ?) OR ...
+    private String timestampRanges(String column, int count) {
+        return Collections.nCopies(count, "(" + column + " >= ? AND " + column + " < ?)").stream()
+                .collect(Collectors.joining(" OR "));
+    }
+
+    // 기간 바인딩, timestamp면 [시작일 00:00, 종료일 다음날 00:00)
+    private int update(String sql, List<LocalDate[]> ranges, boolean timestamp) {
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            int index = 1;
+            for (LocalDate[] range : ranges) {
+                if (timestamp) {
+                    ps.setTimestamp(index++, Timestamp.valueOf(range[0].atStartOfDay()));
+                    ps.setTimestamp(index++, Timestamp.valueOf(range[1].plusDays(1).atStartOfDay()));
+                } else {
+                    ps.setDate(index++, Date.valueOf(range[0]));
+                    ps.setDate(index++, Date.valueOf(range[1]));
+                }
+            }
+            return ps;
+        });
+    }
+}
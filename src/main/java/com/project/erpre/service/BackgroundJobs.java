@@ -0,0 +1,67 @@
+package com.project.erpre.service;
+
+import com.project.erpre.model.BackgroundJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.function.Consumer;
+
+// Status bookkeeping shared by the jobs run on the job executor (PriceImportService, PriceRepricingService)
+// Every update commits in a transaction of its own, so the progress is visible while the job is still running
+@Service
+public class BackgroundJobs {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackgroundJobs.class);
+
+    private static final int MAX_MESSAGE_LENGTH = 1000; // Length of the message columns
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Set the job's status and apply the count updates
+    public <T extends BackgroundJob> void updateCounts(JpaRepository<T, Integer> jobs, String jobName, Integer jobNo,
+                                                       String status, Consumer<T> update) {
+        newTransaction().executeWithoutResult(transactionStatus -> {
+            T job = jobs.findById(jobNo)
+                    .orElseThrow(() -> new IllegalStateException(jobName + " not found: " + jobNo));
+            job.recordStatus(status);
+            update.accept(job);
+        });
+    }
+
+    // Record the final status and message; a failure here is logged only, the job's own error matters more
+    public <T extends BackgroundJob> void finish(JpaRepository<T, Integer> jobs, String jobName, Integer jobNo,
+                                                 String status, String message) {
+        try {
+            updateCounts(jobs, jobName, jobNo, status, job -> job.recordResult(
+                    message != null && message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message,
+                    new Timestamp(System.currentTimeMillis())));
+        } catch (Exception e) {
+            logger.error("Could not record the result of {} {}", jobName.toLowerCase(), jobNo, e);
+        }
+    }
+
+    // Transaction of its own, committed independently of the caller (job steps, chunks, progress updates)
+    public TransactionTemplate newTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transactionTemplate;
+    }
+
+    // The database error (e.g. a malformed CSV line reported by COPY, an overlap found by ex_price_period at commit)
+    // is more useful than the wrapping exceptions
+    public static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.toString();
+    }
+}
@@ -1,18 +1,24 @@
 package com.project.erpre.service;
 
 import com.project.erpre.controller.CategoryController;
+import com.project.erpre.event.CategoryChangedEvent;
+import com.project.erpre.event.ProductChangedEvent;
 import com.project.erpre.model.Category;
 import com.project.erpre.model.CategoryDTO;
 import com.project.erpre.repository.CategoryRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class CategoryService {
@@ -22,6 +28,16 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Category paths and level lists are read on almost every screen and written rarely:
+    // they are served from an immutable snapshot of m_category, replaced after each committed category write
+    private final AtomicReference<CategoryTree> tree = new AtomicReference<>();
+
+    // Committed category writes seen so far, the version of the snapshot read after them
+    private final AtomicLong writeVersion = new AtomicLong();
+
     // Method to convert DTO to Entity
     private Category convertToEntity(CategoryDTO categoryDTO) {
         Category category = new Category();
@@ -43,17 +59,7 @@ public class CategoryService {
 
     // All categories
     public List<CategoryDTO> getAllCategoryPaths() {
-        List<Object[]> result = categoryRepository.findCategoryPathsAsObjects();
-        return result.stream().map(obj -> new CategoryDTO(
-                (Integer) obj[0], // one
-                (Integer) obj[1], // two
-                (Integer) obj[2], // three
-                (Integer) obj[3], // category_no
-                (Integer) obj[4], // level
-                (String) obj[5],  // category_path
-                (Timestamp) obj[6], // category_insert_date
-                (Timestamp) obj[7] // category_update_date
-        )).collect(Collectors.toList());
+        return tree().paths();
     }
 
     // Specific category
@@ -84,7 +90,9 @@ public class CategoryService {
         // category.setCategoryInsertDate(new Timestamp(System.currentTimeMillis()));
 
         // Save entity
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(CategoryChangedEvent.of(savedCategory.getCategoryNo()));
+        return savedCategory;
     }
 
     // Update category
@@ -112,17 +120,26 @@ public class CategoryService {
 
         existingCategory.setCategoryUpdateDate(new Timestamp(System.currentTimeMillis()));
 
-        return categoryRepository.save(existingCategory);
+        Category savedCategory = categoryRepository.save(existingCategory);
+        eventPublisher.publishEvent(CategoryChangedEvent.of(categoryNo));
+        // Category paths are shown with every product (e.g. cached product details)
+        eventPublisher.publishEvent(ProductChangedEvent.all());
+        return savedCategory;
     }
 
     // Delete category
     public void deleteById(Integer categoryNo) {
         Category category = categoryRepository.findById(categoryNo).orElse(null);
         if (category != null) {
-            category.setCategoryDeleteYn("Y");
-            category.setCategoryDeleteDate(new Timestamp(System.currentTimeMillis()));
-            deleteSubCategories(category);
-            categoryRepository.save(category);
+            try {
+                category.setCategoryDeleteYn("Y");
+                category.setCategoryDeleteDate(new Timestamp(System.currentTimeMillis()));
+                deleteSubCategories(category);
+                categoryRepository.save(category);
+            } finally {
+                // Subcategories are saved one by one, the tree is reloaded even if a later save failed
+                eventPublisher.publishEvent(CategoryChangedEvent.of(categoryNo));
+            }
         }
     }
 
@@ -143,19 +160,58 @@ public class CategoryService {
 
     // 🔴All classifications
     public List<Category> getAllCategory() {
-        return categoryRepository.findAllCategory();
+        return tree().all();
     }
 
     public List<Category> getTopCategory() {
-        return categoryRepository.findTopCategory();
+        return tree().topLevel();
     }
 
     public List<Category> getMiddleCategory(Integer topCategoryId) {
-        return categoryRepository.findMiddleCategory(topCategoryId);
+        return tree().middleLevel(topCategoryId);
     }
 
     public List<Category> getLowCategory(Integer topCategoryId, Integer middleCategoryId) {
-        return categoryRepository.findLowCategoryByTopAndMiddleCategory(topCategoryId, middleCategoryId);
+        return tree().lowLevel(topCategoryId, middleCategoryId);
+    }
+
+    // Direct subcategories
+    public List<Category> getChildren(Integer categoryNo) {
+        return tree().children(categoryNo);
+    }
+
+    // Parent categories, top category first
+    public List<Category> getAncestors(Integer categoryNo) {
+        return tree().ancestors(categoryNo);
+    }
+
+    // Reload the snapshot once the category write is committed; a newer snapshot is never replaced by an older one
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        long version = writeVersion.incrementAndGet();
+        try {
+            CategoryTree rebuilt = CategoryTree.build(version, categoryRepository.findCategoryTreeRows());
+            tree.accumulateAndGet(rebuilt, (current, candidate) ->
+                    current == null || candidate.getVersion() > current.getVersion() ? candidate : current);
+        } catch (Exception e) {
+            logger.error("Category tree reload failed after categories {} changed, reloading on next read", event.getKeys(), e);
+            tree.set(null);
+        }
+    }
+
+    // Current snapshot, loaded on first use (or after a failed reload)
+    // Kept only when no category write was committed while it was read, otherwise used for this call alone
+    private CategoryTree tree() {
+        CategoryTree current = tree.get();
+        if (current != null) {
+            return current;
+        }
+        long version = writeVersion.get();
+        CategoryTree loaded = CategoryTree.build(version, categoryRepository.findCategoryTreeRows());
+        if (writeVersion.get() == version) {
+            tree.compareAndSet(null, loaded);
+        }
+        return loaded;
     }
 
 }
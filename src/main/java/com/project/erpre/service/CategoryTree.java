@@ -0,0 +1,247 @@
+package com.project.erpre.service;
+
+import com.project.erpre.model.Category;
+import com.project.erpre.model.CategoryDTO;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+// Immutable snapshot of every category (deleted ones included) with the lookups the category screens use:
+// category paths, level lists, children and ancestors
+// Built from one read of m_category and never changed afterwards; CategoryService swaps in a new snapshot
+// after category writes, so readers need no locks and always see one consistent tree
+// Results are fresh objects on every call (Category/CategoryDTO are mutable, the snapshot must stay as built)
+public final class CategoryTree {
+
+    // Orders the by-name lists like the former "order by categoryNm" queries (the database collation is "C")
+    private static final Comparator<Node> BY_NAME = Comparator.comparing((Node node) -> node.categoryNm)
+            .thenComparing(node -> node.categoryNo);
+
+    // Write count the snapshot was read after, a snapshot only replaces an older one
+    private final long version;
+
+    private final Map<Integer, Node> nodes;
+    private final Map<Integer, List<Node>> children;
+
+    // Category paths from the non-deleted top categories down, in the order of the former recursive query
+    private final List<PathRow> paths;
+
+    private CategoryTree(long version, Map<Integer, Node> nodes, Map<Integer, List<Node>> children, List<PathRow> paths) {
+        this.version = version;
+        this.nodes = nodes;
+        this.children = children;
+        this.paths = paths;
+    }
+
+    public static CategoryTree build(long version, List<CategoryDTO> rows) {
+        Map<Integer, Node> nodes = new HashMap<>();
+        for (CategoryDTO row : rows) {
+            nodes.put(row.getCategoryNo(), new Node(row));
+        }
+
+        Map<Integer, List<Node>> children = new HashMap<>();
+        for (Node node : nodes.values()) {
+            if (node.parentCategoryNo != null) {
+                children.computeIfAbsent(node.parentCategoryNo, parentNo -> new ArrayList<>()).add(node);
+            }
+        }
+        children.replaceAll((parentNo, list) -> {
+            list.sort(BY_NAME);
+            return Collections.unmodifiableList(list);
+        });
+
+        // Same rows and order as the former WITH RECURSIVE query: non-deleted top categories (no parent) and their
+        // non-deleted descendants, level = depth, sorted by "top name-child no-grandchild no" as a string
+        List<PathRow> paths = new ArrayList<>();
+        for (Node node : nodes.values()) {
+            if (node.parentCategoryNo == null && node.active()) {
+                addPaths(node, new PathRow(node, node.categoryNo, null, null, 1, node.categoryNm, node.categoryNm),
+                        children, paths);
+            }
+        }
+        paths.sort(Comparator.comparing((PathRow row) -> row.sortKey).thenComparing(row -> row.node.categoryNo));
+
+        return new CategoryTree(version, Collections.unmodifiableMap(nodes), Collections.unmodifiableMap(children),
+                Collections.unmodifiableList(paths));
+    }
+
+    private static void addPaths(Node node, PathRow row, Map<Integer, List<Node>> children, List<PathRow> paths) {
+        paths.add(row);
+        for (Node child : children.getOrDefault(node.categoryNo, Collections.emptyList())) {
+            if (child.active()) {
+                addPaths(child, new PathRow(child, row.one,
+                        row.level == 1 ? child.categoryNo : row.two,
+                        row.level == 2 ? child.categoryNo : row.three,
+                        row.level + 1,
+                        row.paths + " > " + child.categoryNm,
+                        row.sortKey + "-" + child.categoryNo), children, paths);
+            }
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Category paths (one/two/three = top/middle/low category numbers of the path)
+    public List<CategoryDTO> paths() {
+        return paths.stream()
+                .map(row -> new CategoryDTO(row.one, row.two, row.three, row.node.categoryNo, row.level, row.paths,
+                        copy(row.node.categoryInsertDate), copy(row.node.categoryUpdateDate)))
+                .collect(Collectors.toList());
+    }
+
+    // Non-deleted categories of every level, by name
+    public List<Category> all() {
+        return select(node -> node.active());
+    }
+
+    // Non-deleted top categories, by name
+    public List<Category> topLevel() {
+        return select(node -> node.active() && isLevel(node, 1));
+    }
+
+    // Non-deleted middle categories under a top category (null: under any top category), by name
+    public List<Category> middleLevel(Integer topCategoryNo) {
+        return select(node -> node.active() && isLevel(node, 2)
+                && isUnder(node, 1, topCategoryNo));
+    }
+
+    // Non-deleted low categories under a top and middle category (null: any), by name
+    public List<Category> lowLevel(Integer topCategoryNo, Integer middleCategoryNo) {
+        return select(node -> node.active() && isLevel(node, 3)
+                && isUnder(node, 2, middleCategoryNo)
+                && isUnder(parentOf(node), 1, topCategoryNo));
+    }
+
+    // Non-deleted direct subcategories, by name (empty for an unknown category)
+    public List<Category> children(Integer categoryNo) {
+        return children.getOrDefault(categoryNo, Collections.emptyList()).stream()
+                .filter(Node::active)
+                .map(this::toCategory)
+                .collect(Collectors.toList());
+    }
+
+    // Parent categories from the top category down to the direct parent, deleted ones included
+    // (empty for a top or unknown category)
+    public List<Category> ancestors(Integer categoryNo) {
+        List<Category> ancestors = new ArrayList<>();
+        Node node = nodes.get(categoryNo);
+        for (Node parent = parentOf(node); parent != null && ancestors.size() < nodes.size(); parent = parentOf(parent)) {
+            ancestors.add(0, toCategory(parent));
+        }
+        return ancestors;
+    }
+
+    private List<Category> select(Predicate<Node> filter) {
+        return nodes.values().stream()
+                .filter(filter)
+                .sorted(BY_NAME)
+                .map(this::toCategory)
+                .collect(Collectors.toList());
+    }
+
+    private static boolean isLevel(Node node, int level) {
+        return node != null && node.categoryLevel != null && node.categoryLevel == level;
+    }
+
+    // The parent exists, has the given level and (when parentCategoryNo is given) is that category
+    private boolean isUnder(Node node, int parentLevel, Integer parentCategoryNo) {
+        Node parent = parentOf(node);
+        return isLevel(parent, parentLevel) && (parentCategoryNo == null || parentCategoryNo.equals(parent.categoryNo));
+    }
+
+    private Node parentOf(Node node) {
+        return node != null && node.parentCategoryNo != null ? nodes.get(node.parentCategoryNo) : null;
+    }
+
+    // Detached Category with its parent chain (for Category.getCategoryPath), as the entity queries returned it
+    private Category toCategory(Node node) {
+        Category category = node.toCategory();
+        Category child = category;
+        int depth = 0;
+        for (Node parent = parentOf(node); parent != null && depth < nodes.size(); parent = parentOf(parent), depth++) {
+            Category parentCategory = parent.toCategory();
+            child.setParentCategory(parentCategory);
+            child = parentCategory;
+        }
+        return category;
+    }
+
+    private static Timestamp copy(Timestamp timestamp) {
+        if (timestamp == null) {
+            return null;
+        }
+        Timestamp copy = new Timestamp(timestamp.getTime());
+        copy.setNanos(timestamp.getNanos());
+        return copy;
+    }
+
+    private static final class Node {
+
+        private final Integer categoryNo;
+        private final Integer categoryLevel;
+        private final Integer parentCategoryNo;
+        private final String categoryNm;
+        private final Timestamp categoryInsertDate;
+        private final Timestamp categoryUpdateDate;
+        private final String categoryDeleteYn;
+        private final Timestamp categoryDeleteDate;
+
+        private Node(CategoryDTO row) {
+            this.categoryNo = row.getCategoryNo();
+            this.categoryLevel = row.getCategoryLevel();
+            this.parentCategoryNo = row.getParentCategoryNo();
+            this.categoryNm = row.getCategoryNm();
+            this.categoryInsertDate = copy(row.getCategoryInsertDate());
+            this.categoryUpdateDate = copy(row.getCategoryUpdateDate());
+            this.categoryDeleteYn = row.getCategoryDeleteYn();
+            this.categoryDeleteDate = copy(row.getCategoryDeleteDate());
+        }
+
+        private boolean active() {
+            return "N".equals(categoryDeleteYn);
+        }
+
+        private Category toCategory() {
+            Category category = new Category();
+            category.setCategoryNo(categoryNo);
+            category.setCategoryLevel(categoryLevel);
+            category.setParentCategoryNo(parentCategoryNo);
+            category.setCategoryNm(categoryNm);
+            category.setCategoryInsertDate(copy(categoryInsertDate));
+            category.setCategoryUpdateDate(copy(categoryUpdateDate));
+            category.setCategoryDeleteYn(categoryDeleteYn);
+            category.setCategoryDeleteDate(copy(categoryDeleteDate));
+            return category;
+        }
+    }
+
+    private static final class PathRow {
+
+        private final Node node;
+        private final Integer one;
+        private final Integer two;
+        private final Integer three;
+        private final int level;
+        private final String paths;
+        private final String sortKey;
+
+        private PathRow(Node node, Integer one, Integer two, Integer three, int level, String paths, String sortKey) {
+            this.node = node;
+            this.one = one;
+            this.two = two;
+            this.three = three;
+            this.level = level;
+            this.paths = paths;
+            this.sortKey = sortKey;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.project.erpre.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.project.erpre.event.PriceChangedEvent;
+import com.project.erpre.repository.PriceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Per-customer price book for order entry: the prices of one customer that apply today, by product code
+// The product picker (productsFilter?customerNo=) pages through the products again and again for the same customer,
+// so the customer's prices are read once, kept while the customer is being worked on and dropped when idle
+// Invalidated from PriceChangedEvent (PriceService writes, price sheet imports) and re-read when the day changes
+@Service
+public class CustomerPriceBookCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerPriceBookCache.class);
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    private final LoadingCache<Integer, CustomerPriceBook> books;
+
+    public CustomerPriceBookCache(@Value("${erpre.price.customer-book.max-size:500}") long maxSize,
+                                  @Value("${erpre.price.customer-book.idle-minutes:30}") long idleMinutes) {
+        this.books = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .recordStats()
+                .build(this::load);
+    }
+
+    // 🔴 Prices of the customer that apply today (product code -> customer price), read-only
+    public Map<String, BigDecimal> getPrices(Integer customerNo) {
+        CustomerPriceBook book = books.get(customerNo);
+        if (!book.day.equals(LocalDate.now())) {
+            // Loaded on an earlier day: prices may have started or ended since
+            books.invalidate(customerNo);
+            book = books.get(customerNo);
+        }
+        return book.prices;
+    }
+
+    // Drop the books of the customers whose prices changed: the customers the prices belong to now,
+    // and the ones whose cached book lists a changed price (the price was moved to another customer or deleted)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPriceChanged(PriceChangedEvent event) {
+        if (event.isAll()) {
+            books.invalidateAll();
+            return;
+        }
+        if (event.getKeys().isEmpty() || books.estimatedSize() == 0) {
+            return;
+        }
+
+        try {
+            Set<Integer> customerNos = new HashSet<>();
+            books.asMap().forEach((customerNo, book) -> {
+                if (!Collections.disjoint(book.priceNos, event.getKeys())) {
+                    customerNos.add(customerNo);
+                }
+            });
+            for (Object[] row : priceRepository.findCustomerProductByPriceNos(new ArrayList<>(event.getKeys()))) {
+                customerNos.add((Integer) row[0]);
+            }
+            books.invalidateAll(customerNos);
+        } catch (Exception e) {
+            logger.error("Customer price book invalidation failed for prices {}, dropping all books", event.getKeys(), e);
+            books.invalidateAll();
+        }
+    }
+
+    public CacheStats stats() {
+        return books.stats();
+    }
+
+    private CustomerPriceBook load(Integer customerNo) {
+        LocalDate day = LocalDate.now();
+        Map<String, BigDecimal> prices = new HashMap<>();
+        Set<Integer> priceNos = new HashSet<>();
+        // Sorted by start date: when legacy rows overlap, the most recently started price wins
+        for (Object[] row : priceRepository.findPriceRowsOn(customerNo, Date.valueOf(day))) {
+            priceNos.add((Integer) row[0]);
+            prices.put((String) row[1], (BigDecimal) row[2]);
+        }
+        return new CustomerPriceBook(day, Collections.unmodifiableMap(prices), priceNos);
+    }
+
+    private static final class CustomerPriceBook {
+
+        private final LocalDate day;
+        private final Map<String, BigDecimal> prices;
+        private final Set<Integer> priceNos;
+
+        private CustomerPriceBook(LocalDate day, Map<String, BigDecimal> prices, Set<Integer> priceNos) {
+            this.day = day;
+            this.prices = prices;
+            this.priceNos = priceNos;
+        }
+    }
+}
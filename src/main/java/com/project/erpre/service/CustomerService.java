@@ -1,9 +1,11 @@
 package com.project.erpre.service;
 
+import com.project.erpre.event.CustomerChangedEvent;
 import com.project.erpre.model.Customer;
 import com.project.erpre.model.CustomerDTO;
 import com.project.erpre.repository.CustomerRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.sql.Timestamp;
@@ -16,6 +18,9 @@ public class CustomerService {
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // Method to convert CustomerDTO to Customer entity
     private Customer convertToEntity(CustomerDTO customerDTO) {
         Customer customer = new Customer();
@@ -100,7 +105,10 @@ public class CustomerService {
             existingCustomer.setCustomerTransactionEndDate(updatedCustomer.getCustomerTransactionEndDate());
 
             existingCustomer.setCustomerUpdateDate(new Timestamp(System.currentTimeMillis())); // Record update timestamp
-            return customerRepository.save(existingCustomer); // Save updated customer
+            Customer savedCustomer = customerRepository.save(existingCustomer); // Save updated customer
+            // Customer names are shown in the order reports
+            eventPublisher.publishEvent(CustomerChangedEvent.of(customerNo));
+            return savedCustomer;
         } else {
             throw new RuntimeException("Customer not found with customerNo: " + customerNo);
         }
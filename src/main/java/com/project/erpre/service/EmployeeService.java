@@ -1,9 +1,11 @@
 package com.project.erpre.service;
 
+import com.project.erpre.event.EmployeeChangedEvent;
 import com.project.erpre.model.Employee;
 import com.project.erpre.model.EmployeeDTO;
 import com.project.erpre.repository.EmployeeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -18,6 +20,9 @@ public class EmployeeService {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // Method to convert EmployeeDTO to Employee entity
     private Employee convertToEntity(EmployeeDTO employeeDTO) {
         Employee employee = new Employee();
@@ -107,6 +112,8 @@ public class EmployeeService {
             employee.setEmployeeRole(employeeDTO.getEmployeeRole());
             employee.setEmployeeUpdateDate(new Timestamp(System.currentTimeMillis()));  // Update modification date
             employeeRepository.save(employee);  // Save updated info
+            // Employee names are shown in the order reports
+            eventPublisher.publishEvent(EmployeeChangedEvent.of(employeeId));
         }
     }
 
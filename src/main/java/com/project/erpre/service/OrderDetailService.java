@@ -1,5 +1,6 @@
 package com.project.erpre.service;
 
+import com.project.erpre.event.OrderChangedEvent;
 import com.project.erpre.model.Order;
 import com.project.erpre.model.OrderDetail;
 import com.project.erpre.model.OrderDetailDTO;
@@ -8,11 +9,18 @@ import com.project.erpre.repository.OrderDetailRepository;
 import com.project.erpre.repository.OrderRepository;
 import com.project.erpre.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderDetailService {
@@ -26,6 +34,9 @@ public class OrderDetailService {
     @Autowired
     private OrderDetailRepository orderDetailRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // Convert OrderDetailDTO to OrderDetail entity
     public OrderDetail convertToEntity(OrderDetailDTO orderDetailDTO) {
         OrderDetail orderDetail = OrderDetail.builder()
@@ -64,14 +75,28 @@ public class OrderDetailService {
                 .build();
     }
 
-    // Create a single order detail
+    // Create a single order detail and add its total to the order header
+    @Transactional
     public OrderDetail createOrderDetail(OrderDetail orderDetail) {
-        return orderDetailRepository.save(orderDetail);
+        OrderDetail savedOrderDetail = orderDetailRepository.save(orderDetail);
+        applyTotalDelta(orderNoOf(savedOrderDetail), savedOrderDetail.getOrderDTotalPrice());
+        eventPublisher.publishEvent(OrderChangedEvent.of(orderNoOf(savedOrderDetail)));
+        return savedOrderDetail;
     }
 
-    // Create multiple order details
+    // Create multiple order details, one header total update per order
+    @Transactional
     public List<OrderDetail> createOrderDetails(List<OrderDetail> orderDetails) {
-        return orderDetailRepository.saveAll(orderDetails);
+        List<OrderDetail> savedOrderDetails = orderDetailRepository.saveAll(orderDetails);
+
+        Map<Integer, BigDecimal> deltas = savedOrderDetails.stream()
+                .filter(orderDetail -> orderNoOf(orderDetail) != null)
+                .collect(Collectors.groupingBy(this::orderNoOf, LinkedHashMap::new,
+                        Collectors.reducing(BigDecimal.ZERO, orderDetail -> totalOf(orderDetail.getOrderDTotalPrice()), BigDecimal::add)));
+        deltas.forEach(this::applyTotalDelta);
+        eventPublisher.publishEvent(new OrderChangedEvent(deltas.keySet()));
+
+        return savedOrderDetails;
     }
 
     // Retrieve an order detail by ID
@@ -89,7 +114,9 @@ public class OrderDetailService {
         return orderDetailRepository.save(orderDetail);
     }
 
-    // Delete an order detail and recalculate order total
+    // Delete an order detail and subtract its total from the order header
+    // Only the deleted line is read, the rest of the order's lines are never loaded
+    @Transactional
     public boolean deleteOrderDetail(Integer id) {
         OrderDetail orderDetail = orderDetailRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order detail not found."));
@@ -97,19 +124,23 @@ public class OrderDetailService {
         // Delete the order detail
         orderDetailRepository.delete(orderDetail);
 
-        // Recalculate total order price
-        Order order = orderDetail.getOrder();
-        order.recalculateTotalPrice();
-        orderRepository.save(order);
+        // Apply the removed amount to the order total
+        applyTotalDelta(orderNoOf(orderDetail), totalOf(orderDetail.getOrderDTotalPrice()).negate());
+        eventPublisher.publishEvent(OrderChangedEvent.of(orderNoOf(orderDetail)));
 
         return true;
     }
 
     // Update an order detail using DTO
+    @Transactional
     public OrderDetail updateOrderDetail(Integer id, OrderDetailDTO orderDetailDTO) {
         OrderDetail existingOrderDetail = orderDetailRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order detail not found."));
 
+        // Remember the previous order and amount to apply the difference afterwards
+        Integer previousOrderNo = orderNoOf(existingOrderDetail);
+        BigDecimal previousTotal = totalOf(existingOrderDetail.getOrderDTotalPrice());
+
         // Update only necessary fields
         existingOrderDetail.setOrderDPrice(orderDetailDTO.getOrderDPrice());
         existingOrderDetail.setOrderDQty(orderDetailDTO.getOrderDQty());
@@ -121,7 +152,20 @@ public class OrderDetailService {
         existingOrderDetail.setOrder(orderRepository.findById(orderDetailDTO.getOrderNo()).orElse(null));
         existingOrderDetail.setProduct(productRepository.findById(orderDetailDTO.getProductCd()).orElse(null));
 
-        return orderDetailRepository.save(existingOrderDetail);
+        OrderDetail savedOrderDetail = orderDetailRepository.save(existingOrderDetail);
+
+        Integer orderNo = orderNoOf(savedOrderDetail);
+        BigDecimal total = totalOf(savedOrderDetail.getOrderDTotalPrice());
+        if (Objects.equals(previousOrderNo, orderNo)) {
+            applyTotalDelta(orderNo, total.subtract(previousTotal));
+        } else {
+            // The line moved to another order
+            applyTotalDelta(previousOrderNo, previousTotal.negate());
+            applyTotalDelta(orderNo, total);
+        }
+        eventPublisher.publishEvent(OrderChangedEvent.of(previousOrderNo, orderNo));
+
+        return savedOrderDetail;
     }
 
     // Create an order detail from DTO with validation
@@ -141,6 +185,23 @@ public class OrderDetailService {
         return orderDetailRepository.findByOrderOrderNo(orderNo);
     }
 
+    // Add a line amount difference to the order header total (atomic UPDATE, no collection loading)
+    // Drift from writes outside these methods is repaired by OrderService.verifyOrderTotals
+    private void applyTotalDelta(Integer orderNo, BigDecimal delta) {
+        if (orderNo == null || delta == null || delta.signum() == 0) {
+            return;
+        }
+        orderRepository.addToTotalPrice(orderNo, delta, LocalDateTime.now());
+    }
+
+    private Integer orderNoOf(OrderDetail orderDetail) {
+        return orderDetail.getOrder() != null ? orderDetail.getOrder().getOrderNo() : null;
+    }
+
+    private BigDecimal totalOf(BigDecimal total) {
+        return total != null ? total : BigDecimal.ZERO;
+    }
+
     // Get total quantity of all orders
     public Long getTotalOrderQuantity() {
         return orderDetailRepository.sumOrderDQty();
@@ -0,0 +1,760 @@
+package com.project.erpre.service;
+
+import com.project.erpre.event.CustomerChangedEvent;
+import com.project.erpre.event.EmployeeChangedEvent;
+import com.project.erpre.event.OrderChangedEvent;
+import com.project.erpre.event.ProductChangedEvent;
+import com.project.erpre.repository.SalesDailyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToIntFunction;
+
+// In-process columnar copy of the approved order lines ("facts") behind the order reports
+// One row per order line, stored as primitive arrays: day, customer, product, employee, quantity, amount in cents
+// Loaded once at startup and kept in line with OrderChangedEvent; the report aggregations are plain loops over the arrays
+// Same rules as the daily sales rollup (approved, not deleted, grouped by the effective date), see SalesDailyRepositoryImpl
+// Customer, product and employee names are refreshed from their change events, as the SQL reports show the current names
+@Service
+public class OrderFactStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderFactStore.class);
+
+    // Day of a removed fact: below every query range, so removed rows drop out of the loops without an extra check
+    private static final int REMOVED = Integer.MIN_VALUE;
+
+    @Value("${erpre.report.fact-store.enabled:true}")
+    private boolean enabled;
+
+    @Value("${erpre.report.fact-store.retry-min-seconds:5}")
+    private long retryMinSeconds;
+
+    @Value("${erpre.report.fact-store.retry-max-seconds:300}")
+    private long retryMaxSeconds;
+
+    @Autowired
+    private SalesDailyRepository salesDailyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Readers aggregate under the read lock, changes are applied under the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Serializes loading and applying changes, so a later change is never overwritten by an earlier one
+    private final Object writeMonitor = new Object();
+
+    // Orders changed while a full load is running, applied when it is done
+    private final Set<Integer> pendingOrderNos = new LinkedHashSet<>();
+    private boolean pendingRenames;
+    private boolean loading;
+
+    private volatile boolean ready;
+    private Facts facts = new Facts();
+
+    // Changes applied so far (loads, order refreshes, renames); an answer computed at one version is valid until the next
+    private volatile long version;
+
+    // Next retry of the full load (epoch millis, 0 = none scheduled) and the wait before the one after it
+    private volatile long retryAt;
+    private long retryDelaySeconds;
+
+    // Whether the reports can be answered from memory (loaded and in sync)
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Read before aggregating: a change applied meanwhile moves the version on, so a cached answer is never newer than its version
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return facts.size - facts.removed;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Load state for the report statistics
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ready", ready);
+        stats.put("facts", size());
+        long nextRetry = retryAt;
+        stats.put("retryInSeconds", nextRetry == 0 ? null : Math.max(0, (nextRetry - System.currentTimeMillis()) / 1000));
+        return stats;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            reload();
+        } catch (Exception e) {
+            logger.error("Order fact store load failed, the reports are answered from the database until it is loaded: ", e);
+            scheduleRetry();
+        }
+    }
+
+    // Retry the full load once the backoff has passed
+    @Scheduled(fixedDelayString = "${erpre.report.fact-store.retry-check-ms:1000}")
+    public void retryReload() {
+        if (retryAt == 0 || System.currentTimeMillis() < retryAt) {
+            return;
+        }
+        try {
+            reload();
+        } catch (Exception e) {
+            logger.error("Order fact store reload retry failed, next retry in {}s: ", scheduleRetry(), e);
+        }
+    }
+
+    // First retry after retryMinSeconds, then twice as long each time up to retryMaxSeconds
+    // Returns the seconds until the retry
+    private synchronized long scheduleRetry() {
+        retryDelaySeconds = retryDelaySeconds == 0 ? retryMinSeconds : Math.min(retryDelaySeconds * 2, retryMaxSeconds);
+        retryAt = System.currentTimeMillis() + retryDelaySeconds * 1000;
+        return retryDelaySeconds;
+    }
+
+    private synchronized void clearRetry() {
+        retryAt = 0;
+        retryDelaySeconds = 0;
+    }
+
+    // Full load from the database; the previous copy keeps answering until the new one is complete
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+
+        synchronized (writeMonitor) {
+            synchronized (pendingOrderNos) {
+                loading = true;
+            }
+
+            long start = System.currentTimeMillis();
+            Facts loaded = new Facts();
+            try {
+                readOnlyTransaction().executeWithoutResult(status -> salesDailyRepository.scanSalesFacts(null, loaded::add));
+            } finally {
+                synchronized (pendingOrderNos) {
+                    loading = false;
+                }
+            }
+
+            lock.writeLock().lock();
+            try {
+                facts = loaded;
+                ready = true;
+                version++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            clearRetry();
+            logger.info("Order fact store loaded {} facts in {}ms", loaded.size, System.currentTimeMillis() - start);
+
+            List<Integer> changedDuringLoad;
+            boolean renamedDuringLoad;
+            synchronized (pendingOrderNos) {
+                changedDuringLoad = new ArrayList<>(pendingOrderNos);
+                pendingOrderNos.clear();
+                renamedDuringLoad = pendingRenames;
+                pendingRenames = false;
+            }
+            refreshOrders(changedDuringLoad);
+            if (renamedDuringLoad) {
+                refreshNames(null, null, null);
+            }
+        }
+    }
+
+    // Replace the facts of the changed orders after their transaction committed
+    // On failure the store stops answering (reports fall back to the database) until the retried full load
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        synchronized (pendingOrderNos) {
+            if (loading) {
+                pendingOrderNos.addAll(event.getKeys());
+                return;
+            }
+        }
+
+        try {
+            refreshOrders(event.getKeys());
+        } catch (Exception e) {
+            ready = false;
+            logger.error("Order fact store refresh failed for orders {}, falling back to the database until it is reloaded",
+                    event.getKeys(), e);
+            scheduleRetry();
+        }
+    }
+
+    // Re-read the facts of the given orders and swap them in
+    public void refreshOrders(Collection<Integer> orderNos) {
+        if (orderNos == null || orderNos.isEmpty()) {
+            return;
+        }
+
+        synchronized (writeMonitor) {
+            if (!ready) {
+                return;
+            }
+
+            Facts changed = new Facts();
+            readOnlyTransaction().executeWithoutResult(status ->
+                    salesDailyRepository.scanSalesFacts(new ArrayList<>(orderNos), changed::add));
+
+            lock.writeLock().lock();
+            try {
+                facts.remove(orderNos);
+                facts.addAll(changed);
+                if (facts.removed > 1024 && facts.removed > facts.size / 4) {
+                    facts = facts.compact();
+                }
+                version++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        onRenamed(new ArrayList<>(event.getKeys()), Collections.emptyList(), Collections.emptyList(), event);
+    }
+
+    // Every product: names of all products in the store are re-read
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        onRenamed(Collections.emptyList(), event.isAll() ? null : new ArrayList<>(event.getKeys()),
+                Collections.emptyList(), event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        onRenamed(Collections.emptyList(), Collections.emptyList(), new ArrayList<>(event.getKeys()), event);
+    }
+
+    // Same as refreshNames, deferred to the end of a running full load
+    private void onRenamed(List<Integer> customerNos, List<String> productCds, List<String> employeeIds, Object event) {
+        synchronized (pendingOrderNos) {
+            if (loading) {
+                pendingRenames = true;
+                return;
+            }
+        }
+
+        try {
+            refreshNames(customerNos, productCds, employeeIds);
+        } catch (Exception e) {
+            ready = false;
+            logger.error("Order fact store name refresh failed for {}, falling back to the database until it is reloaded", event, e);
+            scheduleRetry();
+        }
+    }
+
+    // Re-read the names of the given members (null: every member of the dimension) and swap them in
+    // Members without facts in the store are skipped, they get their name when their first fact is added
+    public void refreshNames(List<Integer> customerNos, List<String> productCds, List<String> employeeIds) {
+        synchronized (writeMonitor) {
+            if (!ready) {
+                return;
+            }
+
+            lock.readLock().lock();
+            try {
+                customerNos = facts.customerDictionary.known(customerNos);
+                productCds = facts.productDictionary.known(productCds);
+                employeeIds = facts.employeeDictionary.known(employeeIds);
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (customerNos.isEmpty() && productCds.isEmpty() && employeeIds.isEmpty()) {
+                return;
+            }
+            Map<Integer, String> customerNames = salesDailyRepository.findCustomerNames(customerNos);
+            Map<String, String> productNames = salesDailyRepository.findProductNames(productCds);
+            Map<String, String> employeeNames = salesDailyRepository.findEmployeeNames(employeeIds);
+
+            lock.writeLock().lock();
+            try {
+                customerNames.forEach(facts.customerDictionary::rename);
+                productNames.forEach(facts.productDictionary::rename);
+                employeeNames.forEach(facts.employeeDictionary::rename);
+                version++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // 🔴 Monthly: [month, order count, amount], ordered by year and month
+    public List<Object[]> countOrdersByMonth(LocalDate startDate, LocalDate endDate) {
+        long[][] byDay = sumByDay(startDate, endDate);
+        Map<Integer, long[]> byMonth = new TreeMap<>();
+        rollUp(byDay, startDate, date -> date.getYear() * 100 + date.getMonthValue(), byMonth);
+
+        List<Object[]> result = new ArrayList<>();
+        byMonth.forEach((yearMonth, sums) ->
+                result.add(new Object[]{yearMonth % 100, sums[0], BigDecimal.valueOf(sums[1], 2)}));
+        return result;
+    }
+
+    // 🔴 Half-yearly: [FirstHalf/SecondHalf, year, order count, amount], ordered by year and half
+    public List<Object[]> countOrdersByHalfYear(LocalDate startDate, LocalDate endDate) {
+        long[][] byDay = sumByDay(startDate, endDate);
+        Map<Integer, long[]> byHalf = new TreeMap<>();
+        rollUp(byDay, startDate, date -> date.getYear() * 10 + (date.getMonthValue() <= 6 ? 1 : 2), byHalf);
+
+        List<Object[]> result = new ArrayList<>();
+        byHalf.forEach((yearHalf, sums) -> result.add(new Object[]{
+                yearHalf % 10 == 1 ? "FirstHalf" : "SecondHalf", yearHalf / 10, sums[0], BigDecimal.valueOf(sums[1], 2)}));
+        return result;
+    }
+
+    // 🔴 Yearly: [year, order count, amount], ordered by year
+    public List<Object[]> countOrdersByYear(LocalDate startDate, LocalDate endDate) {
+        long[][] byDay = sumByDay(startDate, endDate);
+        Map<Integer, long[]> byYear = new TreeMap<>();
+        rollUp(byDay, startDate, LocalDate::getYear, byYear);
+
+        List<Object[]> result = new ArrayList<>();
+        byYear.forEach((year, sums) -> result.add(new Object[]{year, sums[0], BigDecimal.valueOf(sums[1], 2)}));
+        return result;
+    }
+
+    // Top products by amount: [product name, line count, amount]
+    public List<Object[]> countOrdersByProduct(LocalDate startDate, LocalDate endDate, int limit) {
+        return top(startDate, endDate, Dimension.PRODUCT, limit);
+    }
+
+    // Top customers by amount: [customer name, order count, amount]
+    public List<Object[]> countOrdersByCustomer(LocalDate startDate, LocalDate endDate, int limit) {
+        return top(startDate, endDate, Dimension.CUSTOMER, limit);
+    }
+
+    // Top employees by amount: [employee name, order count, amount]
+    public List<Object[]> countOrdersByEmployee(LocalDate startDate, LocalDate endDate, int limit) {
+        return top(startDate, endDate, Dimension.EMPLOYEE, limit);
+    }
+
+    // Per day of [startDate, endDate]: [0] order counts, [1] amounts in cents
+    private long[][] sumByDay(LocalDate startDate, LocalDate endDate) {
+        int from = (int) startDate.toEpochDay();
+        int to = (int) endDate.toEpochDay();
+        if (from > to) {
+            return new long[2][0];
+        }
+        long[] orderCounts = new long[to - from + 1];
+        long[] amounts = new long[to - from + 1];
+
+        lock.readLock().lock();
+        try {
+            Facts f = facts;
+            int[] days = f.days;
+            boolean[] firstLines = f.firstLines;
+            long[] lineAmounts = f.amounts;
+            for (int i = 0, n = f.size; i < n; i++) {
+                int day = days[i];
+                if (day >= from && day <= to) {
+                    if (firstLines[i]) {
+                        orderCounts[day - from]++;
+                    }
+                    amounts[day - from] += lineAmounts[i];
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new long[][]{orderCounts, amounts};
+    }
+
+    // Add the days up into period buckets, days without facts do not create a bucket (like SQL GROUP BY)
+    private void rollUp(long[][] byDay, LocalDate startDate, ToIntFunction<LocalDate> bucketOf, Map<Integer, long[]> buckets) {
+        long[] orderCounts = byDay[0];
+        long[] amounts = byDay[1];
+        LocalDate date = startDate;
+        for (int i = 0; i < orderCounts.length; i++, date = date.plusDays(1)) {
+            if (orderCounts[i] == 0 && amounts[i] == 0) {
+                continue;
+            }
+            long[] sums = buckets.computeIfAbsent(bucketOf.applyAsInt(date), key -> new long[2]);
+            sums[0] += orderCounts[i];
+            sums[1] += amounts[i];
+        }
+    }
+
+    // Sum per dimension member in one pass, then group by display name (like the SQL reports) and keep the top entries
+    private List<Object[]> top(LocalDate startDate, LocalDate endDate, Dimension dimension, int limit) {
+        int from = (int) startDate.toEpochDay();
+        int to = (int) endDate.toEpochDay();
+        long[] counts;
+        long[] amounts;
+        List<String> names;
+
+        lock.readLock().lock();
+        try {
+            Facts f = facts;
+            Dictionary dictionary = f.dictionary(dimension);
+            int[] members = f.column(dimension);
+            int[] days = f.days;
+            boolean[] firstLines = f.firstLines;
+            long[] lineAmounts = f.amounts;
+            boolean countLines = dimension == Dimension.PRODUCT;
+
+            counts = new long[dictionary.size()];
+            amounts = new long[dictionary.size()];
+            for (int i = 0, n = f.size; i < n; i++) {
+                int day = days[i];
+                if (day >= from && day <= to) {
+                    int member = members[i];
+                    if (countLines || firstLines[i]) {
+                        counts[member]++;
+                    }
+                    amounts[member] += lineAmounts[i];
+                }
+            }
+            names = new ArrayList<>(dictionary.names);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<String, long[]> byName = new HashMap<>();
+        for (int member = 0; member < counts.length; member++) {
+            if (counts[member] == 0 && amounts[member] == 0) {
+                continue;
+            }
+            long[] sums = byName.computeIfAbsent(names.get(member), key -> new long[2]);
+            sums[0] += counts[member];
+            sums[1] += amounts[member];
+        }
+
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(byName.entrySet());
+        entries.sort((a, b) -> a.getValue()[1] != b.getValue()[1]
+                ? Long.compare(b.getValue()[1], a.getValue()[1])
+                : String.valueOf(a.getKey()).compareTo(String.valueOf(b.getKey())));
+
+        List<Object[]> result = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : entries.subList(0, Math.min(limit, entries.size()))) {
+            result.add(new Object[]{entry.getKey(), entry.getValue()[0], BigDecimal.valueOf(entry.getValue()[1], 2)});
+        }
+        return result;
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate;
+    }
+
+    private enum Dimension {
+        CUSTOMER, PRODUCT, EMPLOYEE
+    }
+
+    // Dense ids for the members of one dimension, with their latest display name
+    private static class Dictionary {
+
+        private final Map<Object, Integer> ids = new HashMap<>();
+        private final List<Object> keys = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+
+        int idOf(Object key, String name) {
+            Integer id = ids.get(key);
+            if (id == null) {
+                id = names.size();
+                ids.put(key, id);
+                keys.add(key);
+                names.add(name);
+            } else if (name != null && !name.equals(names.get(id))) {
+                names.set(id, name);
+            }
+            return id;
+        }
+
+        // Id in this dictionary of member `id` of another dictionary
+        int idOf(Dictionary other, int id) {
+            return idOf(other.keys.get(id), other.names.get(id));
+        }
+
+        void rename(Object key, String name) {
+            Integer id = ids.get(key);
+            if (id != null) {
+                names.set(id, name);
+            }
+        }
+
+        // The given keys that are members (null: all members)
+        @SuppressWarnings("unchecked")
+        <K> List<K> known(List<K> keys) {
+            if (keys == null) {
+                return new ArrayList<>((List<K>) this.keys);
+            }
+            List<K> known = new ArrayList<>();
+            for (K key : keys) {
+                if (ids.containsKey(key)) {
+                    known.add(key);
+                }
+            }
+            return known;
+        }
+
+        int size() {
+            return names.size();
+        }
+    }
+
+    // The columns; rows of changed orders are marked removed and appended again, compacted when too many are removed
+    // The rows of an order are chained through nextRows (newest first), starting at orderRows.get(orderNo)
+    private static class Facts {
+
+        private int size;
+        private int removed;
+        private int[] orderNos = new int[1024];
+        private int[] nextRows = new int[1024];
+        private int[] days = new int[1024];
+        private boolean[] firstLines = new boolean[1024];
+        private int[] customers = new int[1024];
+        private int[] products = new int[1024];
+        private int[] employees = new int[1024];
+        private int[] qtys = new int[1024];
+        private long[] amounts = new long[1024];
+
+        private final Dictionary customerDictionary;
+        private final Dictionary productDictionary;
+        private final Dictionary employeeDictionary;
+
+        private final OrderRows orderRows = new OrderRows();
+
+        Facts() {
+            this(new Dictionary(), new Dictionary(), new Dictionary());
+        }
+
+        private Facts(Dictionary customerDictionary, Dictionary productDictionary, Dictionary employeeDictionary) {
+            this.customerDictionary = customerDictionary;
+            this.productDictionary = productDictionary;
+            this.employeeDictionary = employeeDictionary;
+        }
+
+        void add(int orderNo, int epochDay, boolean firstLine,
+                 int customerNo, String customerName,
+                 String productCd, String productNm,
+                 String employeeId, String employeeName,
+                 int qty, long amountCents) {
+            ensureCapacity(size + 1);
+            orderNos[size] = orderNo;
+            nextRows[size] = orderRows.put(orderNo, size);
+            days[size] = epochDay;
+            firstLines[size] = firstLine;
+            customers[size] = customerDictionary.idOf(customerNo, customerName);
+            products[size] = productDictionary.idOf(productCd, productNm);
+            employees[size] = employeeDictionary.idOf(employeeId, employeeName);
+            qtys[size] = qty;
+            amounts[size] = amountCents;
+            size++;
+        }
+
+        // Append the rows of another Facts, translating its member ids into this store's dictionaries
+        void addAll(Facts other) {
+            ensureCapacity(size + other.size);
+            for (int i = 0; i < other.size; i++) {
+                orderNos[size] = other.orderNos[i];
+                nextRows[size] = orderRows.put(other.orderNos[i], size);
+                days[size] = other.days[i];
+                firstLines[size] = other.firstLines[i];
+                customers[size] = customerDictionary.idOf(other.customerDictionary, other.customers[i]);
+                products[size] = productDictionary.idOf(other.productDictionary, other.products[i]);
+                employees[size] = employeeDictionary.idOf(other.employeeDictionary, other.employees[i]);
+                qtys[size] = other.qtys[i];
+                amounts[size] = other.amounts[i];
+                size++;
+            }
+        }
+
+        // Mark every row of the given orders as removed, visiting only their rows
+        void remove(Collection<Integer> removedOrderNos) {
+            for (Integer orderNo : removedOrderNos) {
+                for (int row = orderRows.remove(orderNo); row >= 0; row = nextRows[row]) {
+                    if (days[row] != REMOVED) {
+                        days[row] = REMOVED;
+                        removed++;
+                    }
+                }
+            }
+        }
+
+        // Copy without the removed rows (dictionaries are shared)
+        Facts compact() {
+            Facts compacted = new Facts(customerDictionary, productDictionary, employeeDictionary);
+            compacted.ensureCapacity(size - removed);
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (days[i] == REMOVED) {
+                    continue;
+                }
+                compacted.orderNos[n] = orderNos[i];
+                compacted.nextRows[n] = compacted.orderRows.put(orderNos[i], n);
+                compacted.days[n] = days[i];
+                compacted.firstLines[n] = firstLines[i];
+                compacted.customers[n] = customers[i];
+                compacted.products[n] = products[i];
+                compacted.employees[n] = employees[i];
+                compacted.qtys[n] = qtys[i];
+                compacted.amounts[n] = amounts[i];
+                n++;
+            }
+            compacted.size = n;
+            return compacted;
+        }
+
+        Dictionary dictionary(Dimension dimension) {
+            switch (dimension) {
+                case CUSTOMER:
+                    return customerDictionary;
+                case PRODUCT:
+                    return productDictionary;
+                default:
+                    return employeeDictionary;
+            }
+        }
+
+        int[] column(Dimension dimension) {
+            switch (dimension) {
+                case CUSTOMER:
+                    return customers;
+                case PRODUCT:
+                    return products;
+                default:
+                    return employees;
+            }
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= days.length) {
+                return;
+            }
+            int newCapacity = Math.max(capacity, days.length + (days.length >> 1));
+            orderNos = Arrays.copyOf(orderNos, newCapacity);
+            nextRows = Arrays.copyOf(nextRows, newCapacity);
+            days = Arrays.copyOf(days, newCapacity);
+            firstLines = Arrays.copyOf(firstLines, newCapacity);
+            customers = Arrays.copyOf(customers, newCapacity);
+            products = Arrays.copyOf(products, newCapacity);
+            employees = Arrays.copyOf(employees, newCapacity);
+            qtys = Arrays.copyOf(qtys, newCapacity);
+            amounts = Arrays.copyOf(amounts, newCapacity);
+        }
+    }
+
+    // orderNo -> newest row of the order (-1: none), open addressing over int arrays
+    // (a HashMap<Integer, Integer> costs several objects per order, there is one entry per order in the store)
+    private static class OrderRows {
+
+        private static final int FREE = -1;
+
+        private int[] keys = new int[1024];
+        private int[] rows = newRows(1024);
+        private int size;
+
+        // Set the newest row of the order, returns the previous one (-1: none)
+        int put(int orderNo, int row) {
+            if ((size + 1) * 2 > rows.length) {
+                grow();
+            }
+            int slot = slotOf(orderNo);
+            while (rows[slot] != FREE) {
+                if (keys[slot] == orderNo) {
+                    int previous = rows[slot];
+                    rows[slot] = row;
+                    return previous;
+                }
+                slot = (slot + 1) & (rows.length - 1);
+            }
+            keys[slot] = orderNo;
+            rows[slot] = row;
+            size++;
+            return FREE;
+        }
+
+        // Remove the order, returns its newest row (-1: none)
+        int remove(int orderNo) {
+            int mask = rows.length - 1;
+            int slot = slotOf(orderNo);
+            while (rows[slot] != FREE && keys[slot] != orderNo) {
+                slot = (slot + 1) & mask;
+            }
+            int row = rows[slot];
+            if (row == FREE) {
+                return FREE;
+            }
+
+            // Move later entries of the probe sequence back into the hole (no tombstones)
+            int hole = slot;
+            for (int next = (hole + 1) & mask; rows[next] != FREE; next = (next + 1) & mask) {
+                int home = slotOf(keys[next]);
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    rows[hole] = rows[next];
+                    hole = next;
+                }
+            }
+            rows[hole] = FREE;
+            size--;
+            return row;
+        }
+
+        private int slotOf(int orderNo) {
+            int hash = orderNo * 0x9E3779B9;
+            return (hash ^ (hash >>> 16)) & (rows.length - 1);
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldRows = rows;
+            keys = new int[oldKeys.length * 2];
+            rows = newRows(oldRows.length * 2);
+            size = 0;
+            for (int i = 0; i < oldRows.length; i++) {
+                if (oldRows[i] != FREE) {
+                    put(oldKeys[i], oldRows[i]);
+                }
+            }
+        }
+
+        private static int[] newRows(int capacity) {
+            int[] rows = new int[capacity];
+            Arrays.fill(rows, FREE);
+            return rows;
+        }
+    }
+}
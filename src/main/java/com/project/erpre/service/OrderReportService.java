@@ -1,23 +1,64 @@
 package com.project.erpre.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.project.erpre.event.SalesRollupChangedEvent;
 import com.project.erpre.repository.OrderReportRepository;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 @Service
 public class OrderReportService {
 
+    // ReportKey.factVersion of the answers read from the rollup
+    private static final long ROLLUP = -1;
+
     @Autowired
     private OrderReportRepository orderReportRepository;
 
+    // Answers the reports from memory once loaded; until then (or when disabled) they are read from the rollup
+    @Autowired
+    private OrderFactStore orderFactStore;
+
+    // Report results by (report, type, period, source), answered from the fact store or the rollup
+    // No expiry: a cached rollup period stays valid until the rollup changes one of its days (see onSalesRollupChanged),
+    // so closed periods stay cached and the open period is dropped on every approval/edit/delete inside it
+    private final Cache<ReportKey, List<Object[]>> reportCache;
+
+    // Newest fact store version an answer was cached at
+    private final AtomicLong factVersion = new AtomicLong(ROLLUP);
+
+    // Rollup refreshes seen so far; a report loaded while a refresh committed may hold the old totals
+    // and is not kept (the invalidation below does not see loads that are still running)
+    private final AtomicLong rollupGeneration = new AtomicLong();
+
+    public OrderReportService(@Value("${erpre.report.cache.max-size:1000}") long maxSize) {
+        this.reportCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
     /**
      * Aggregate order amounts based on period type: monthly, half-yearly, yearly.
-     * For half-yearly reports, startMonth and endMonth are used.
+     * Answered from the in-memory fact store when it is loaded, otherwise read from the daily sales rollup.
+     * Only the day part of the period is used.
      *
      * @param periodType  "monthly", "halfyearly", or "yearly"
      * @param startDate   Start of the period
@@ -25,17 +66,25 @@ public class OrderReportService {
      * @return List of Object[] containing aggregated results
      */
     public List<Object[]> getOrders(String periodType, LocalDateTime startDate, LocalDateTime endDate) {
+        LocalDate start = startDate.toLocalDate();
+        LocalDate end = endDate.toLocalDate();
 
         if ("halfyearly".equals(periodType)) {
-            return orderReportRepository.countOrdersByHalfYear(startDate, endDate);
+            return report("orders", periodType, start, end,
+                    () -> orderFactStore.countOrdersByHalfYear(start, end),
+                    () -> orderReportRepository.countOrdersByHalfYear(start, end));
         }
 
         if ("yearly".equals(periodType)) {
-            return orderReportRepository.countOrdersByYear(startDate, endDate);
+            return report("orders", periodType, start, end,
+                    () -> orderFactStore.countOrdersByYear(start, end),
+                    () -> orderReportRepository.countOrdersByYear(start, end));
         }
 
         // Default: monthly aggregation
-        return orderReportRepository.countOrdersByMonth(startDate, endDate);
+        return report("orders", "monthly", start, end,
+                () -> orderFactStore.countOrdersByMonth(start, end),
+                () -> orderReportRepository.countOrdersByMonth(start, end));
     }
 
     /**
@@ -49,16 +98,97 @@ public class OrderReportService {
      */
     public List<Object[]> getOrdersByFilter(String filterType, LocalDateTime startDate, LocalDateTime endDate) {
         Pageable top10 = PageRequest.of(0, 10);
+        LocalDate start = startDate.toLocalDate();
+        LocalDate end = endDate.toLocalDate();
 
         switch (filterType) {
             case "productOrders":
-                return orderReportRepository.countOrdersByProduct(startDate, endDate, top10);
+                return report("ordersByFilter", filterType, start, end,
+                        () -> orderFactStore.countOrdersByProduct(start, end, top10.getPageSize()),
+                        () -> orderReportRepository.countOrdersByProduct(start, end, top10));
             case "customerOrders":
-                return orderReportRepository.countOrdersByCustomer(startDate, endDate, top10);
+                return report("ordersByFilter", filterType, start, end,
+                        () -> orderFactStore.countOrdersByCustomer(start, end, top10.getPageSize()),
+                        () -> orderReportRepository.countOrdersByCustomer(start, end, top10));
             case "employeeOrders":
-                return orderReportRepository.countOrdersByEmployee(startDate, endDate, top10);
+                return report("ordersByFilter", filterType, start, end,
+                        () -> orderFactStore.countOrdersByEmployee(start, end, top10.getPageSize()),
+                        () -> orderReportRepository.countOrdersByEmployee(start, end, top10));
             default:
                 throw new IllegalArgumentException("Invalid filter type: " + filterType);
         }
     }
+
+    /**
+     * Drop every cached report whose period contains one of the refreshed rollup days.
+     * The rollup is refreshed (and committed) before this event, so the next request reads the new totals.
+     * Reports still loading are dropped by {@link #cached} once they are stored.
+     */
+    @EventListener
+    public void onSalesRollupChanged(SalesRollupChangedEvent event) {
+        if (event.getSalesDates().isEmpty()) {
+            return;
+        }
+        rollupGeneration.incrementAndGet();
+        reportCache.asMap().keySet().removeIf(key -> event.getSalesDates().stream().anyMatch(key::covers));
+    }
+
+    /**
+     * Report cache statistics (hits, misses, evictions, current size) and the fact store state
+     * (not ready: the reports are read from the rollup until the retried load succeeds).
+     */
+    public Map<String, Object> getCacheStats() {
+        CacheStats stats = reportCache.stats();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("size", reportCache.estimatedSize());
+        response.put("hitCount", stats.hitCount());
+        response.put("missCount", stats.missCount());
+        response.put("hitRate", stats.hitRate());
+        response.put("evictionCount", stats.evictionCount());
+        response.put("factStore", orderFactStore.getStats());
+        return response;
+    }
+
+    // Cached answer from the fact store when it is loaded, otherwise from the rollup
+    // Fact store answers are keyed by the store version they were computed at: any applied change (order, rename, reload)
+    // moves the version on, so they are never served stale; older versions are dropped when a new one is first seen
+    private List<Object[]> report(String report, String type, LocalDate start, LocalDate end,
+                                  Supplier<List<Object[]>> inMemory, Supplier<List<Object[]>> query) {
+        if (!orderFactStore.isReady()) {
+            return cached(new ReportKey(report, type, start, end, ROLLUP), query);
+        }
+        long version = orderFactStore.getVersion();
+        long previous = factVersion.getAndAccumulate(version, Math::max);
+        if (previous < version) {
+            reportCache.asMap().keySet().removeIf(key -> key.factVersion != ROLLUP && key.factVersion < version);
+        }
+        return cached(new ReportKey(report, type, start, end, version), inMemory);
+    }
+
+    private List<Object[]> cached(ReportKey reportKey, Supplier<List<Object[]>> query) {
+        long[] loadedInGeneration = {-1};
+        List<Object[]> rows = reportCache.get(reportKey, key -> {
+            loadedInGeneration[0] = rollupGeneration.get();
+            return Collections.unmodifiableList(query.get());
+        });
+        // Loaded here and a rollup refresh came in meanwhile: the rows are returned to this caller only
+        if (loadedInGeneration[0] >= 0 && loadedInGeneration[0] != rollupGeneration.get()) {
+            reportCache.asMap().remove(reportKey, rows);
+        }
+        return rows;
+    }
+
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static class ReportKey {
+        private final String report;
+        private final String type;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final long factVersion; // Fact store version of an in-memory answer, ROLLUP for a rollup answer
+
+        boolean covers(LocalDate date) {
+            return !date.isBefore(startDate) && !date.isAfter(endDate);
+        }
+    }
 }
@@ -1,19 +1,34 @@
 package com.project.erpre.service;
 
 import com.project.erpre.controller.PriceController;
+import com.project.erpre.event.OrderChangedEvent;
 import com.project.erpre.model.*;
 import com.project.erpre.repository.*;
+import com.project.erpre.util.KeysetCursor;
+import com.project.erpre.util.KeysetSlice;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,6 +36,12 @@ public class OrderService {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class); // Declare logger
 
+    private static final int MAX_ORDER_PAGE_SIZE = 100; // Upper bound for one page of the order list
+
+    private static final List<String> ORDER_STATUSES = Arrays.asList("ing", "approved", "denied");
+
+    private static final int TOTAL_VERIFY_BATCH_SIZE = 1000; // Max orders repaired per verification run
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -36,6 +57,15 @@ public class OrderService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private PriceBookIndex priceBookIndex;
+
+    @Autowired
+    private OrderDetailService orderDetailService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // Get all orders
     public List<Order> getAllOrders() {
         return orderRepository.findAll();
@@ -51,9 +81,77 @@ public class OrderService {
         return orderRepository.findByCustomerCustomerNameContaining(customerName);
     }
 
-    // Search orders by date
+    // Search orders by date ("yyyy-MM-dd", "yyyy-MM" or "yyyy")
+    // The value is turned into a date range so the insert date index can be used
     public List<Order> getOrdersByOrderDate(String orderDate) {
-        return orderRepository.findByOrderHInsertDateContaining(orderDate);
+        LocalDate startDate;
+        LocalDate endDate;
+        try {
+            if (orderDate.length() == 4) {
+                startDate = Year.parse(orderDate).atDay(1);
+                endDate = startDate.plusYears(1).minusDays(1);
+            } else if (orderDate.length() == 7) {
+                startDate = YearMonth.parse(orderDate).atDay(1);
+                endDate = startDate.plusMonths(1).minusDays(1);
+            } else {
+                startDate = LocalDate.parse(orderDate);
+                endDate = startDate;
+            }
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid order date: " + orderDate);
+        }
+
+        return searchOrders(OrderSearchCondition.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .build());
+    }
+
+    // Combined order search (date range, status, customer name, employee)
+    @Transactional(readOnly = true)
+    public List<Order> searchOrders(OrderSearchCondition condition) {
+        validateDateRange(condition);
+        return orderRepository.searchOrders(condition);
+    }
+
+    private void validateDateRange(OrderSearchCondition condition) {
+        if (condition.getStartDate() != null && condition.getEndDate() != null
+                && condition.getStartDate().isAfter(condition.getEndDate())) {
+            throw new IllegalArgumentException("Start date must not be after end date.");
+        }
+    }
+
+    // Order board list with keyset pagination (newest first)
+    // The cursor is the (insert date, order number) of the last row of the previous page
+    @Transactional(readOnly = true)
+    public KeysetSlice<OrderSummaryDTO> getOrderSummaries(OrderSearchCondition condition, String cursor, int size) {
+        validateDateRange(condition);
+        int pageSize = Math.max(1, Math.min(size, MAX_ORDER_PAGE_SIZE));
+
+        LocalDateTime lastInsertDate = null;
+        Integer lastOrderNo = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            List<String> key = KeysetCursor.decode(cursor, 2);
+            try {
+                lastInsertDate = LocalDateTime.parse(key.get(0));
+                lastOrderNo = Integer.valueOf(key.get(1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+        }
+
+        // Read one extra row to know whether a next page exists without counting
+        List<OrderSummaryDTO> rows = orderRepository.findOrderSummaries(condition, lastInsertDate, lastOrderNo, pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<OrderSummaryDTO> content = hasNext ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            OrderSummaryDTO last = content.get(content.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getOrderHInsertDate(), last.getOrderNo());
+        }
+
+        return new KeysetSlice<>(content, pageSize, hasNext, nextCursor);
     }
 
     // Get order by specific order number
@@ -76,27 +174,134 @@ public class OrderService {
                 .orderNo(orderDTO.getOrderNo()) // Order number
                 .employee(orderDTO.getEmployee()) // Employee info
                 .customer(orderDTO.getCustomer()) // Customer info
-                .orderHTotalPrice(orderDTO.getOrderHTotalPrice()) // Total price
-                .orderHStatus(orderDTO.getOrderHStatus()) // Order status
+                .orderHTotalPrice(BigDecimal.ZERO) // Total starts at zero, each added line adds its amount
                 .orderHDeleteYn("N") // Default value
                 .build();
+        order.changeStatus(orderDTO.getOrderHStatus(), LocalDateTime.now()); // Order status (and effective date)
 
         if (order.getOrderHDeleteYn() == null) {
             order.setOrderHDeleteYn("N"); // Set default
         }
 
         // Save entity
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(OrderChangedEvent.of(savedOrder.getOrderNo()));
+        return savedOrder;
     }
 
+    // Create an order header and all of its lines in one transaction
+    // Products are validated with one IN query and the lines go in as a single JDBC batch,
+    // so either the whole order is written or nothing is
+    @Transactional
+    public OrderDTO createOrderWithDetails(OrderDTO orderDTO) {
+        if (orderDTO.getCustomer() == null || orderDTO.getCustomer().getCustomerNo() == null
+                || orderDTO.getEmployee() == null || orderDTO.getEmployee().getEmployeeId() == null) {
+            throw new IllegalArgumentException("Both customer and employee information must be provided to create an order.");
+        }
+        if (orderDTO.getOrderDetails() == null || orderDTO.getOrderDetails().isEmpty()) {
+            throw new IllegalArgumentException("An order must have at least one line.");
+        }
+
+        String orderHStatus = orderDTO.getOrderHStatus() != null ? orderDTO.getOrderHStatus() : "ing";
+        if (!ORDER_STATUSES.contains(orderHStatus)) {
+            throw new IllegalArgumentException("Invalid order status: " + orderHStatus);
+        }
+
+        Customer customer = customerRepository.findById(orderDTO.getCustomer().getCustomerNo())
+                .orElseThrow(() -> new IllegalArgumentException("Customer does not exist."));
+        Employee employee = employeeRepository.findById(orderDTO.getEmployee().getEmployeeId())
+                .orElseThrow(() -> new IllegalArgumentException("Employee does not exist."));
+
+        // Lines without a price take the customer's price for today from the price book
+        LocalDate today = LocalDate.now();
+        List<String> unpricedProductCds = new ArrayList<>();
+
+        // Validate lines and compute the line totals on the server
+        List<OrderDetailDTO> orderDetails = new ArrayList<>(orderDTO.getOrderDetails().size());
+        BigDecimal orderHTotalPrice = BigDecimal.ZERO;
+        for (OrderDetailDTO detailDTO : orderDTO.getOrderDetails()) {
+            if (detailDTO.getProductCd() == null) {
+                throw new IllegalArgumentException("Product code is required.");
+            }
+            if (detailDTO.getOrderDQty() <= 0) {
+                throw new IllegalArgumentException("Quantity must be greater than zero: " + detailDTO.getProductCd());
+            }
+            BigDecimal orderDPrice = detailDTO.getOrderDPrice();
+            if (orderDPrice == null) {
+                PriceDTO price = priceBookIndex.findEffectivePrice(customer.getCustomerNo(), detailDTO.getProductCd(), today);
+                if (price == null) {
+                    unpricedProductCds.add(detailDTO.getProductCd());
+                    continue;
+                }
+                orderDPrice = price.getPriceCustomer();
+            }
+            if (orderDPrice.signum() < 0) {
+                throw new IllegalArgumentException("Invalid price: " + detailDTO.getProductCd());
+            }
+
+            BigDecimal orderDTotalPrice = orderDPrice.multiply(BigDecimal.valueOf(detailDTO.getOrderDQty()));
+            orderHTotalPrice = orderHTotalPrice.add(orderDTotalPrice);
+            orderDetails.add(OrderDetailDTO.builder()
+                    .productCd(detailDTO.getProductCd())
+                    .orderDPrice(orderDPrice)
+                    .orderDQty(detailDTO.getOrderDQty())
+                    .orderDTotalPrice(orderDTotalPrice)
+                    .orderDDeliveryRequestDate(detailDTO.getOrderDDeliveryRequestDate())
+                    .build());
+        }
+        if (!unpricedProductCds.isEmpty()) {
+            throw new IllegalArgumentException("No price for customer " + customer.getCustomerNo() + ": " + unpricedProductCds);
+        }
+
+        // Resolve every product code in one query instead of a lookup per line
+        List<String> productCds = orderDetails.stream()
+                .map(OrderDetailDTO::getProductCd)
+                .distinct()
+                .collect(Collectors.toList());
+        Set<String> activeProductCds = new HashSet<>(productRepository.findActiveProductCdsIn(productCds));
+        List<String> missingProductCds = productCds.stream()
+                .filter(productCd -> !activeProductCds.contains(productCd))
+                .collect(Collectors.toList());
+        if (!missingProductCds.isEmpty()) {
+            throw new IllegalArgumentException("Products do not exist: " + missingProductCds);
+        }
+
+        Order newOrder = Order.builder()
+                .employee(employee)
+                .customer(customer)
+                .orderHTotalPrice(orderHTotalPrice)
+                .orderHDeleteYn("N")
+                .build();
+        newOrder.changeStatus(orderHStatus, LocalDateTime.now());
+        Order order = orderRepository.save(newOrder);
+
+        int inserted = orderDetailRepository.batchInsertOrderDetails(order.getOrderNo(), orderDetails);
+        logger.info("createOrderWithDetails - Order No: {}, {} lines inserted", order.getOrderNo(), inserted);
+
+        orderDetails.forEach(detail -> detail.setOrderHNo(order.getOrderNo()));
+        eventPublisher.publishEvent(OrderChangedEvent.of(order.getOrderNo()));
+
+        return OrderDTO.builder()
+                .orderNo(order.getOrderNo())
+                .employee(employee)
+                .customer(customer)
+                .orderHTotalPrice(orderHTotalPrice)
+                .orderHStatus(orderHStatus)
+                .orderHEffectiveDate(order.getOrderHEffectiveDate())
+                .orderHDeleteYn("N")
+                .orderDetails(orderDetails)
+                .build();
+    }
+
+    // Order edit screen read model: the whole graph (header, customer, employee, lines, products)
+    // comes back from a single statement, regardless of the number of lines
+    @Transactional(readOnly = true)
     public OrderDTO getOrderHeaderById(Integer orderNo) {
-        Order order = orderRepository.findById(orderNo)
+        Order order = orderRepository.findOrderGraphById(orderNo)
                 .orElseThrow(() -> new RuntimeException("Order not found."));
 
-        List<OrderDetail> orderDetails = orderDetailRepository.findByOrderOrderNo(orderNo);
-        List<Product> products = orderDetails.stream()
-                .map(detail -> productRepository.findById(detail.getProduct().getProductCd()).orElse(null))
-                .filter(Objects::nonNull)
+        List<OrderDetail> orderDetails = order.getOrderDetails().stream()
+                .sorted(Comparator.comparing(OrderDetail::getOrderNo))
                 .collect(Collectors.toList());
 
         OrderDTO orderDTO = OrderDTO.builder()
@@ -107,13 +312,14 @@ public class OrderService {
                 .orderHTotalPrice(order.getOrderHTotalPrice())
                 .orderHInsertDate(order.getOrderHInsertDate())
                 .orderHUpdateDate(order.getOrderHUpdateDate())
+                .orderHEffectiveDate(order.getOrderHEffectiveDate())
                 .orderHDeleteYn(order.getOrderHDeleteYn())
                 .build();
 
         orderDTO.setOrderDetails(orderDetails.stream()
                 .map(orderDetail -> OrderDetailDTO.builder()
                         .orderNo(orderDetail.getOrderNo())
-                        .orderHNo(orderDetail.getOrder().getOrderNo())
+                        .orderHNo(order.getOrderNo())
                         .productCd(orderDetail.getProduct().getProductCd())
                         .orderDPrice(orderDetail.getOrderDPrice())
                         .orderDQty(orderDetail.getOrderDQty())
@@ -122,22 +328,21 @@ public class OrderService {
                         .build())
                 .collect(Collectors.toList()));
 
-        orderDTO.setProducts(products);
+        // Products are already initialized by the fetch join, no per-line lookup needed
+        orderDTO.setProducts(orderDetails.stream()
+                .map(OrderDetail::getProduct)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
 
         return orderDTO;
     }
 
+    // The header total is not taken from the request, it is maintained from the line changes
+    @Transactional
     public Order updateOrder(Integer orderNo, OrderDTO orderDTO) {
-        Order existingOrder = orderRepository.findById(orderNo)
-                .orElseThrow(() -> new RuntimeException("Order information not found."));
-
-        // Update customer and employee info (keep existing logic)
-        existingOrder.setCustomer(customerRepository.findById(orderDTO.getCustomer().getCustomerNo()).orElse(null));
-        existingOrder.setEmployee(employeeRepository.findById(orderDTO.getEmployee().getEmployeeId()).orElse(null));
-        existingOrder.setOrderHTotalPrice(orderDTO.getOrderHTotalPrice());
-        existingOrder.setOrderHStatus(orderDTO.getOrderHStatus());
-        existingOrder.setOrderHUpdateDate(LocalDateTime.now());
-        existingOrder.setOrderHDeleteYn(orderDTO.getOrderHDeleteYn());
+        if (!orderRepository.existsById(orderNo)) {
+            throw new RuntimeException("Order information not found.");
+        }
 
         // Update order details (keep existing logic)
         for (OrderDetailDTO detailDTO : orderDTO.getOrderDetails()) {
@@ -147,52 +352,140 @@ public class OrderService {
             orderDetailRepository.save(existingDetail);
         }
 
-        // Handle deleted order details
+        // Handle deleted order details (each deletion subtracts its amount from the header total)
         if (orderDTO.getDeletedDetailIds() != null) {
             for (Integer detailId : orderDTO.getDeletedDetailIds()) {
-                orderDetailRepository.deleteById(detailId);
+                deleteOrderDetail(orderNo, detailId);
             }
         }
 
-        return orderRepository.save(existingOrder);
+        // Load the header after the line changes so it carries the updated total
+        Order existingOrder = orderRepository.findById(orderNo)
+                .orElseThrow(() -> new RuntimeException("Order information not found."));
+
+        // Update customer and employee info (keep existing logic)
+        existingOrder.setCustomer(customerRepository.findById(orderDTO.getCustomer().getCustomerNo()).orElse(null));
+        existingOrder.setEmployee(employeeRepository.findById(orderDTO.getEmployee().getEmployeeId()).orElse(null));
+        LocalDateTime now = LocalDateTime.now();
+        existingOrder.changeStatus(orderDTO.getOrderHStatus(), now);
+        existingOrder.setOrderHUpdateDate(now);
+        existingOrder.setOrderHDeleteYn(orderDTO.getOrderHDeleteYn());
+
+        Order savedOrder = orderRepository.save(existingOrder);
+        eventPublisher.publishEvent(OrderChangedEvent.of(orderNo));
+        return savedOrder;
     }
 
     // Delete order
     public void deleteOrder(Integer orderNo) {
         orderRepository.deleteById(orderNo);
+        eventPublisher.publishEvent(OrderChangedEvent.of(orderNo));
     }
 
     public Order updateOrder(Order order) {
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(OrderChangedEvent.of(savedOrder.getOrderNo()));
+        return savedOrder;
     }
 
+    @Transactional
     public OrderDetail addOrderDetail(Integer orderNo, OrderDetailDTO orderDetailDTO) {
         // Check if order exists
         Order existingOrder = orderRepository.findById(orderNo)
                 .orElseThrow(() -> new RuntimeException("Order not found."));
 
         // Convert DTO to entity
-        OrderDetail orderDetail = new OrderDetailService().convertToEntity(orderDetailDTO);
+        OrderDetail orderDetail = orderDetailService.convertToEntity(orderDetailDTO);
         orderDetail.setOrder(existingOrder); // Set order
-        return orderDetailRepository.save(orderDetail);
+
+        // Save the line and add its amount to the header total
+        return orderDetailService.createOrderDetail(orderDetail);
     }
 
     // Delete order detail
+    @Transactional
     public void deleteOrderDetail(Integer orderNo, Integer detailId) {
         logger.info("deleteOrderDetail - Order No: {}, Detail to delete: {}", orderNo, detailId); // Delete request log
 
-        // Check if order exists
-        Order existingOrder = orderRepository.findById(orderNo)
-                .orElseThrow(() -> new RuntimeException("Order not found."));
-
-        logger.info("Order {} existence confirmed", orderNo); // Order confirmation log
+        // Check that the detail belongs to the order
+        OrderDetail orderDetail = orderDetailRepository.findById(detailId)
+                .orElseThrow(() -> new RuntimeException("Order detail not found."));
+        if (orderDetail.getOrder() == null || !orderNo.equals(orderDetail.getOrder().getOrderNo())) {
+            throw new RuntimeException("Order detail does not belong to order " + orderNo + ".");
+        }
 
-        // Delete detail item
-        orderDetailRepository.deleteById(detailId);
+        // Delete detail item and subtract its amount from the header total
+        orderDetailService.deleteOrderDetail(detailId);
 
         logger.info("Order detail {} deleted", detailId); // Deletion complete log
     }
 
+    // Periodic check that every header total still equals the sum of its lines
+    // Totals are maintained as deltas, so drift only comes from writes that bypass the services
+    // (direct SQL, product cascade deletes); drifted orders are recomputed from their lines
+    @Scheduled(cron = "${erpre.order.total-verify-cron:0 30 3 * * *}")
+    @Transactional
+    public List<Integer> verifyOrderTotals() {
+        List<Integer> driftOrderNos = orderRepository.findTotalDriftOrderNos(TOTAL_VERIFY_BATCH_SIZE);
+        if (driftOrderNos.isEmpty()) {
+            logger.info("verifyOrderTotals - no drift found");
+            return Collections.emptyList();
+        }
+
+        List<Integer> repaired = orderRepository.repairOrderTotals(driftOrderNos);
+        Collections.sort(repaired);
+        if (!repaired.isEmpty()) {
+            eventPublisher.publishEvent(new OrderChangedEvent(repaired));
+        }
+        logger.warn("verifyOrderTotals - {} order totals repaired: {}", repaired.size(), repaired);
+        return repaired;
+    }
+
+    // Bulk status transition (e.g. approve/deny the whole pending queue at once)
+    // One set-based UPDATE guarded on the current status; orders that are missing, deleted
+    // or already moved by someone else are reported back as skipped
+    @Transactional
+    public OrderStatusTransitionDTO transitionOrderStatus(OrderStatusTransitionDTO request) {
+        String fromStatus = request.getFromStatus() != null ? request.getFromStatus() : "ing";
+        String toStatus = request.getToStatus();
+
+        if (!ORDER_STATUSES.contains(fromStatus) || !ORDER_STATUSES.contains(toStatus)) {
+            throw new IllegalArgumentException("Invalid order status: " + fromStatus + " -> " + toStatus);
+        }
+        if (fromStatus.equals(toStatus)) {
+            throw new IllegalArgumentException("Target status must differ from the current status.");
+        }
+        if (request.getOrderNos() == null || request.getOrderNos().isEmpty()) {
+            throw new IllegalArgumentException("No orders to update.");
+        }
+
+        List<Integer> orderNos = request.getOrderNos().stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+
+        List<Integer> transitioned = orderRepository.transitionOrderStatus(orderNos, fromStatus, toStatus, LocalDateTime.now());
+        Collections.sort(transitioned);
+
+        if (!transitioned.isEmpty()) {
+            eventPublisher.publishEvent(new OrderChangedEvent(transitioned));
+        }
+
+        Set<Integer> transitionedSet = new HashSet<>(transitioned);
+        List<Integer> skipped = orderNos.stream()
+                .filter(orderNo -> !transitionedSet.contains(orderNo))
+                .collect(Collectors.toList());
+
+        logger.info("transitionOrderStatus {} -> {}: {} transitioned, {} skipped", fromStatus, toStatus, transitioned.size(), skipped.size());
+
+        return OrderStatusTransitionDTO.builder()
+                .fromStatus(fromStatus)
+                .toStatus(toStatus)
+                .transitioned(transitioned)
+                .skipped(skipped)
+                .build();
+    }
+
     // Get total order count
     public long getTotalOrderCount() {
         return orderRepository.countOrders();
@@ -0,0 +1,263 @@
+package com.project.erpre.service;
+
+import com.project.erpre.event.PriceChangedEvent;
+import com.project.erpre.model.PriceDTO;
+import com.project.erpre.repository.PriceRepository;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory price book: the active customer prices by (customerNo, productCd), each as date intervals sorted by start date
+// "Price of product P for customer C on day D" is a binary search, without a database round trip
+// Loaded at startup and kept current from PriceChangedEvent (PriceService writes)
+// After a failed load or refresh, lookups read the database and the full load is retried in the background with backoff
+@Service
+public class PriceBookIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceBookIndex.class);
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    // Each value is immutable and replaced as a whole, so lookups need no locking
+    private final Map<PriceKey, PriceIntervals> book = new ConcurrentHashMap<>();
+
+    // Where each indexed price currently lives, to find the old key when a price is moved or deleted
+    private final Map<Integer, PriceKey> keyByPriceNo = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    @Value("${erpre.price.book.retry-min-seconds:5}")
+    private long retryMinSeconds;
+
+    @Value("${erpre.price.book.retry-max-seconds:300}")
+    private long retryMaxSeconds;
+
+    // Next retry of the full load (epoch millis, 0 = none scheduled) and the wait before the one after it
+    private volatile long retryAt;
+    private long retryDelaySeconds;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            reload();
+        } catch (Exception e) {
+            logger.error("Price book load failed, prices are looked up in the database: ", e);
+            scheduleRetry();
+        }
+    }
+
+    // Retry the full load once the backoff has passed
+    @Scheduled(fixedDelayString = "${erpre.price.book.retry-check-ms:1000}")
+    public void retryReload() {
+        if (retryAt == 0 || System.currentTimeMillis() < retryAt) {
+            return;
+        }
+        try {
+            reload();
+        } catch (Exception e) {
+            logger.error("Price book reload retry failed, next retry in {}s: ", scheduleRetry(), e);
+        }
+    }
+
+    // Full load of the active prices
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        Map<PriceKey, List<Object[]>> rowsByKey = new HashMap<>();
+        Set<Integer> priceNos = new HashSet<>();
+        for (Object[] row : priceRepository.findActivePriceRows()) {
+            rowsByKey.computeIfAbsent(keyOf(row), key -> new ArrayList<>()).add(row);
+            priceNos.add((Integer) row[0]);
+        }
+
+        // Replace in place (lookups keep working during the reload), then drop what no longer exists
+        rowsByKey.forEach(this::put);
+        book.keySet().retainAll(rowsByKey.keySet());
+        keyByPriceNo.keySet().retainAll(priceNos);
+        ready = true;
+        retryAt = 0;
+        retryDelaySeconds = 0;
+        logger.info("Price book loaded {} customer/product price lists in {}ms", book.size(), System.currentTimeMillis() - start);
+    }
+
+    // Re-read the price lists the changed prices belonged to (before) and belong to (now), or everything after a bulk change
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPriceChanged(PriceChangedEvent event) {
+        try {
+            if (event.isAll()) {
+                reload();
+                return;
+            }
+            refreshPrices(event.getKeys());
+        } catch (Exception e) {
+            ready = false;
+            logger.error("Price book refresh failed for prices {}, looking prices up in the database until it is reloaded",
+                    event.getKeys(), e);
+            scheduleRetry();
+        }
+    }
+
+    // First retry after retryMinSeconds, then twice as long each time up to retryMaxSeconds
+    // Returns the seconds until the retry
+    private synchronized long scheduleRetry() {
+        retryDelaySeconds = retryDelaySeconds == 0 ? retryMinSeconds : Math.min(retryDelaySeconds * 2, retryMaxSeconds);
+        retryAt = System.currentTimeMillis() + retryDelaySeconds * 1000;
+        return retryDelaySeconds;
+    }
+
+    public synchronized void refreshPrices(Collection<Integer> priceNos) {
+        if (!ready || priceNos == null || priceNos.isEmpty()) {
+            return;
+        }
+
+        Set<PriceKey> keys = new LinkedHashSet<>();
+        priceNos.stream().map(keyByPriceNo::get).filter(Objects::nonNull).forEach(keys::add);
+        for (Object[] row : priceRepository.findCustomerProductByPriceNos(new ArrayList<>(priceNos))) {
+            keys.add(new PriceKey((Integer) row[0], (String) row[1]));
+        }
+
+        // Each list is replaced in one step, a concurrent lookup sees either the old or the new list
+        for (PriceKey key : keys) {
+            List<Object[]> rows = priceRepository.findActivePriceRows(key.customerNo, key.productCd);
+            PriceIntervals previous = rows.isEmpty() ? book.remove(key) : put(key, rows);
+            if (previous != null) {
+                Arrays.stream(previous.priceNos)
+                        .filter(priceNo -> rows.stream().noneMatch(row -> row[0].equals(priceNo)))
+                        .forEach(priceNo -> keyByPriceNo.remove(priceNo, key));
+            }
+        }
+    }
+
+    // 🔴 Effective price of one product for a customer on a day (null when there is none)
+    public PriceDTO findEffectivePrice(Integer customerNo, String productCd, LocalDate date) {
+        PriceKey key = new PriceKey(customerNo, productCd);
+        PriceIntervals intervals = ready ? book.get(key) : load(key);
+        return intervals != null ? intervals.find(key, date.toEpochDay()) : null;
+    }
+
+    // 🔴 Effective prices of many products for a customer on a day, products without a price are left out
+    public List<PriceDTO> findEffectivePrices(Integer customerNo, Collection<String> productCds, LocalDate date) {
+        List<PriceDTO> prices = new ArrayList<>();
+        for (String productCd : new LinkedHashSet<>(productCds)) {
+            PriceDTO price = findEffectivePrice(customerNo, productCd, date);
+            if (price != null) {
+                prices.add(price);
+            }
+        }
+        return prices;
+    }
+
+    // Not loaded (startup failed or a refresh failed): read the single price list
+    private PriceIntervals load(PriceKey key) {
+        List<Object[]> rows = priceRepository.findActivePriceRows(key.customerNo, key.productCd);
+        return rows.isEmpty() ? null : new PriceIntervals(rows);
+    }
+
+    private PriceIntervals put(PriceKey key, List<Object[]> rows) {
+        PriceIntervals intervals = new PriceIntervals(rows);
+        for (int priceNo : intervals.priceNos) {
+            keyByPriceNo.put(priceNo, key);
+        }
+        return book.put(key, intervals);
+    }
+
+    private static PriceKey keyOf(Object[] row) {
+        return new PriceKey((Integer) row[1], (String) row[2]);
+    }
+
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static class PriceKey {
+        private final Integer customerNo;
+        private final String productCd;
+    }
+
+    // The price intervals of one customer/product, sorted by start date (open start = always, open end = forever)
+    private static final class PriceIntervals {
+
+        private final int[] priceNos;
+        private final long[] starts;
+        private final long[] ends;
+        private final long[] maxEnds; // Latest end among intervals [0..i], ends the backwards search early
+        private final BigDecimal[] prices;
+
+        private PriceIntervals(List<Object[]> rows) {
+            List<Object[]> sorted = new ArrayList<>(rows);
+            sorted.sort(Comparator.comparingLong((Object[] row) -> epochDay((Date) row[4], Long.MIN_VALUE))
+                    .thenComparingInt(row -> (Integer) row[0]));
+
+            int n = sorted.size();
+            priceNos = new int[n];
+            starts = new long[n];
+            ends = new long[n];
+            maxEnds = new long[n];
+            prices = new BigDecimal[n];
+            for (int i = 0; i < n; i++) {
+                Object[] row = sorted.get(i);
+                priceNos[i] = (Integer) row[0];
+                prices[i] = (BigDecimal) row[3];
+                starts[i] = epochDay((Date) row[4], Long.MIN_VALUE);
+                ends[i] = epochDay((Date) row[5], Long.MAX_VALUE);
+                maxEnds[i] = i == 0 ? ends[i] : Math.max(maxEnds[i - 1], ends[i]);
+            }
+        }
+
+        // Interval with the latest start on or before the day that still covers it
+        // (overlapping legacy rows: the most recently started price wins)
+        private PriceDTO find(PriceKey key, long day) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] <= day) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            for (int i = low - 1; i >= 0 && maxEnds[i] >= day; i--) {
+                if (ends[i] >= day) {
+                    PriceDTO price = new PriceDTO();
+                    price.setPriceNo(priceNos[i]);
+                    price.setCustomerNo(key.customerNo);
+                    price.setProductCd(key.productCd);
+                    price.setPriceCustomer(prices[i]);
+                    price.setPriceStartDate(starts[i] == Long.MIN_VALUE ? null : Date.valueOf(LocalDate.ofEpochDay(starts[i])));
+                    price.setPriceEndDate(ends[i] == Long.MAX_VALUE ? null : Date.valueOf(LocalDate.ofEpochDay(ends[i])));
+                    return price;
+                }
+            }
+            return null;
+        }
+
+        private static long epochDay(Date date, long open) {
+            return date != null ? date.toLocalDate().toEpochDay() : open;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.project.erpre.service;
+
+import com.project.erpre.event.PriceChangedEvent;
+import com.project.erpre.model.PriceImport;
+import com.project.erpre.model.PriceImportRow;
+import com.project.erpre.repository.PriceImportRepository;
+import com.project.erpre.repository.PriceImportRowRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+// Customer price sheet imports (CSV: customer number, product code, price, start date, end date, with a header row)
+// The file is streamed into the m_price_import_row staging table with COPY, validated and merged into m_price in SQL,
+// so memory use does not grow with the sheet. Runs in the background, progress and rejected rows are read from the tables
+@Service
+public class PriceImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceImportService.class);
+
+    private static final long PROGRESS_INTERVAL_MILLIS = 1_000; // Loaded bytes are written at most once a second
+
+    private static final int MAX_LISTED_PRICE_CHANGES = 1_000; // More changed prices: listeners re-read all prices
+
+    @Autowired
+    private PriceImportRepository priceImportRepository;
+
+    @Autowired
+    private PriceImportRowRepository priceImportRowRepository;
+
+    @Autowired
+    @Qualifier("jobExecutor")
+    private TaskExecutor jobExecutor;
+
+    @Autowired
+    private BackgroundJobs backgroundJobs;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // 🟢 Accept an uploaded price sheet: keep it in a temporary file (the upload is gone after the request) and queue the import
+    public PriceImport startImport(MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("The price sheet file is empty.");
+        }
+
+        Path sheet = Files.createTempFile("price-import-", ".csv");
+        try {
+            file.transferTo(sheet);
+
+            PriceImport priceImport = new PriceImport();
+            priceImport.setImportFileName(file.getOriginalFilename());
+            priceImport.setImportStatus("queued");
+            priceImport.setImportFileSize(file.getSize());
+            priceImport.setImportInsertDate(new Timestamp(System.currentTimeMillis()));
+            PriceImport saved = priceImportRepository.save(priceImport);
+
+            try {
+                jobExecutor.execute(() -> runImport(saved.getImportNo(), sheet));
+            } catch (TaskRejectedException e) {
+                finish(saved.getImportNo(), "failed", "Too many imports waiting, please try again later.");
+                throw new IllegalStateException("Too many imports waiting, please try again later.", e);
+            }
+            return saved;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(sheet);
+            throw e;
+        }
+    }
+
+    // 🟢 Load -> validate -> merge, each step in a transaction of its own, the status is updated in between
+    public void runImport(Integer importNo, Path sheet) {
+        long start = System.currentTimeMillis();
+        try {
+            updateStatus(importNo, "loading");
+            int rows = loadRows(importNo, sheet);
+            long loaded = System.currentTimeMillis();
+            updateCounts(importNo, "validating", priceImport -> {
+                priceImport.setImportLoadedBytes(priceImport.getImportFileSize());
+                priceImport.setImportRowCount(rows);
+            });
+
+            Integer rejected = backgroundJobs.newTransaction().execute(status -> priceImportRepository.validateRows(importNo));
+            updateCounts(importNo, "merging", priceImport -> priceImport.setImportRejectCount(rejected));
+            long validated = System.currentTimeMillis();
+
+            // The exclusion constraint ex_price_period still guards against prices saved in the meantime
+            int[] merged = backgroundJobs.newTransaction().execute(status -> {
+                int updated = priceImportRepository.updatePricesFromRows(importNo);
+                int inserted = priceImportRepository.insertPricesFromRows(importNo);
+                return new int[]{inserted, updated};
+            });
+            // The prices are committed: published before the cleanup below, which may still fail
+            publishMergedPrices(importNo, merged[0] + merged[1]);
+            backgroundJobs.newTransaction().execute(status -> priceImportRepository.deleteAcceptedRows(importNo));
+
+            updateCounts(importNo, "done", priceImport -> {
+                priceImport.setImportInsertCount(merged[0]);
+                priceImport.setImportUpdateCount(merged[1]);
+                priceImport.setImportEndDate(new Timestamp(System.currentTimeMillis()));
+            });
+            logger.info("Price import {} done in {}ms (load {}ms, validate {}ms, merge {}ms): {} rows, {} rejected, {} inserted, {} updated",
+                    importNo, System.currentTimeMillis() - start, loaded - start, validated - loaded, System.currentTimeMillis() - validated,
+                    rows, rejected, merged[0], merged[1]);
+        } catch (Exception e) {
+            logger.error("Price import {} failed: ", importNo, e);
+            finish(importNo, "failed", BackgroundJobs.rootMessage(e));
+            deleteAcceptedRows(importNo);
+        } finally {
+            try {
+                Files.deleteIfExists(sheet);
+            } catch (IOException e) {
+                logger.warn("Could not delete the price sheet file {}", sheet, e);
+            }
+        }
+    }
+
+    // Listeners refresh the changed prices, or re-read everything when there are too many to list
+    // (or the changed prices cannot be read)
+    private void publishMergedPrices(Integer importNo, int changedPrices) {
+        PriceChangedEvent event;
+        try {
+            event = changedPrices > MAX_LISTED_PRICE_CHANGES
+                    ? PriceChangedEvent.all()
+                    : new PriceChangedEvent(priceImportRepository.findMergedPriceNos(importNo));
+        } catch (Exception e) {
+            logger.error("Could not read the prices merged by price import {}, all prices are re-read", importNo, e);
+            event = PriceChangedEvent.all();
+        }
+        if (event.isAll() || !event.getKeys().isEmpty()) {
+            eventPublisher.publishEvent(event);
+        }
+    }
+
+    // Rows of a failed import are not left in the staging table (rejected rows stay, they are listed as the import's result)
+    private void deleteAcceptedRows(Integer importNo) {
+        try {
+            backgroundJobs.newTransaction().execute(status -> priceImportRepository.deleteAcceptedRows(importNo));
+        } catch (Exception e) {
+            logger.error("Could not delete the staged rows of price import {}", importNo, e);
+        }
+    }
+
+    private int loadRows(Integer importNo, Path sheet) throws IOException {
+        try (InputStream in = new ProgressInputStream(new BufferedInputStream(Files.newInputStream(sheet)), importNo)) {
+            Integer rows = backgroundJobs.newTransaction().execute(status -> priceImportRepository.copyRows(importNo, in));
+            return rows != null ? rows : 0;
+        }
+    }
+
+    // 🔴 Import progress / result
+    public Optional<PriceImport> getImport(Integer importNo) {
+        return priceImportRepository.findById(importNo);
+    }
+
+    // 🔴 Rejected rows of an import with the reason, in file order
+    public Page<PriceImportRow> getRejectedRows(Integer importNo, PageRequest pageRequest) {
+        return priceImportRowRepository.findByImportNoAndRejectReasonIsNotNullOrderByRowNo(importNo, pageRequest);
+    }
+
+    private void updateStatus(Integer importNo, String status) {
+        updateCounts(importNo, status, priceImport -> {
+        });
+    }
+
+    private void updateCounts(Integer importNo, String status, Consumer<PriceImport> update) {
+        backgroundJobs.updateCounts(priceImportRepository, "Price import", importNo, status, update);
+    }
+
+    private void finish(Integer importNo, String status, String message) {
+        backgroundJobs.finish(priceImportRepository, "Price import", importNo, status, message);
+    }
+
+    // Counts the bytes COPY has read from the file and records them as the import's progress
+    // The update runs in a transaction of its own, so it is visible while the load is still running
+    private class ProgressInputStream extends FilterInputStream {
+
+        private final Integer importNo;
+        private long loadedBytes;
+        private long lastUpdate = System.currentTimeMillis();
+
+        private ProgressInputStream(InputStream in, Integer importNo) {
+            super(in);
+            this.importNo = importNo;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                loaded(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                loaded(read);
+            }
+            return read;
+        }
+
+        private void loaded(int bytes) {
+            loadedBytes += bytes;
+            long now = System.currentTimeMillis();
+            if (now - lastUpdate >= PROGRESS_INTERVAL_MILLIS) {
+                lastUpdate = now;
+                backgroundJobs.newTransaction().executeWithoutResult(status -> priceImportRepository.updateLoadedBytes(importNo, loadedBytes));
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.project.erpre.service;
+
+import com.project.erpre.event.PriceChangedEvent;
+import com.project.erpre.model.PriceRepricing;
+import com.project.erpre.model.PriceRepricingDTO;
+import com.project.erpre.repository.PriceRepricingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Bulk repricing: every customer price of the products under a category (subcategories included) changed by a rate
+// from a start date on. Prices starting on or after the date get the new amount, prices running across the date are
+// closed the day before and continued by a new price from the date
+// Runs in the background in chunks of set-based SQL, each chunk in a transaction of its own: no price entities are
+// loaded and row locks are held for one chunk only. Progress is read from m_price_repricing
+@Service
+public class PriceRepricingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceRepricingService.class);
+
+    @Autowired
+    private PriceRepricingRepository priceRepricingRepository;
+
+    @Autowired
+    @Qualifier("jobExecutor")
+    private TaskExecutor jobExecutor;
+
+    @Autowired
+    private BackgroundJobs backgroundJobs;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${erpre.price.repricing.chunk-size:5000}")
+    private int chunkSize;
+
+    // Category subtrees of the queued and running repricings (repricing no -> category numbers), guarded by itself
+    // Two jobs over the same products would compound their rates, so an overlapping job is refused until the first is done
+    // Jobs only run on this instance's executor: queued/running rows left over from a restart are marked failed at startup
+    private final Map<Integer, Set<Integer>> activeSubtrees = new LinkedHashMap<>();
+
+    // Jobs interrupted by a restart keep their committed chunks: marked failed so they can be resumed
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedRepricings() {
+        try {
+            int interrupted = priceRepricingRepository.failInterruptedRepricings("Interrupted by a restart, resume the repricing to continue.");
+            if (interrupted > 0) {
+                logger.warn("{} price repricings were interrupted by the restart and marked failed", interrupted);
+            }
+        } catch (Exception e) {
+            logger.error("Could not mark the interrupted price repricings as failed: ", e);
+        }
+    }
+
+    // 🟢 Check the request and queue the repricing
+    public PriceRepricing startRepricing(PriceRepricingDTO request) {
+        if (request == null || request.getCategoryNo() == null) {
+            throw new IllegalArgumentException("The category is required.");
+        }
+        if (request.getStartDate() == null) {
+            throw new IllegalArgumentException("The start date is required.");
+        }
+        BigDecimal rate = request.getRate();
+        if (rate == null || rate.signum() == 0 || rate.compareTo(BigDecimal.valueOf(-100)) <= 0
+                || rate.compareTo(BigDecimal.valueOf(1000)) >= 0 || rate.stripTrailingZeros().scale() > 4) {
+            throw new IllegalArgumentException("The rate must be a percentage above -100 and below 1000 (not 0), "
+                    + "with at most 4 decimal places.");
+        }
+        List<Integer> categoryNos = priceRepricingRepository.findCategorySubtree(request.getCategoryNo());
+        if (categoryNos.isEmpty()) {
+            throw new IllegalArgumentException("Category not found: " + request.getCategoryNo());
+        }
+
+        return queue(null, categoryNos, () -> {
+            PriceRepricing repricing = new PriceRepricing();
+            repricing.setCategoryNo(request.getCategoryNo());
+            repricing.setRepricingRate(rate);
+            repricing.setRepricingStartDate(request.getStartDate());
+            repricing.setRepricingStatus("queued");
+            repricing.setRepricingInsertDate(new Timestamp(System.currentTimeMillis()));
+            return priceRepricingRepository.save(repricing);
+        });
+    }
+
+    // 🟢 Queue a failed repricing again: it continues after its last committed chunk, over the prices of its first run
+    // (prices it already repriced or opened are not touched again)
+    public PriceRepricing resumeRepricing(Integer repricingNo) {
+        PriceRepricing repricing = priceRepricingRepository.findById(repricingNo)
+                .orElseThrow(() -> new IllegalArgumentException("Price repricing not found: " + repricingNo));
+        if (!"failed".equals(repricing.getRepricingStatus())) {
+            throw new IllegalArgumentException("Only a failed repricing can be resumed, repricing " + repricingNo
+                    + " is " + repricing.getRepricingStatus() + ".");
+        }
+        List<Integer> categoryNos = priceRepricingRepository.findCategorySubtree(repricing.getCategoryNo());
+
+        return queue(repricingNo, categoryNos, () -> {
+            repricing.setRepricingStatus("queued");
+            repricing.setRepricingMessage(null);
+            repricing.setRepricingEndDate(null);
+            return priceRepricingRepository.save(repricing);
+        });
+    }
+
+    // Refuse the job when another one covers part of its categories, otherwise save it and hand it to the executor
+    // A failed job that committed part of its chunks also blocks its categories: a new job would reprice those prices
+    // again, the failed one has to be resumed instead
+    private PriceRepricing queue(Integer resumedNo, List<Integer> categoryNos, Supplier<PriceRepricing> save) {
+        PriceRepricing saved;
+        synchronized (activeSubtrees) {
+            for (Map.Entry<Integer, Set<Integer>> active : activeSubtrees.entrySet()) {
+                if (!Collections.disjoint(active.getValue(), categoryNos)) {
+                    throw new IllegalStateException("Price repricing " + active.getKey() + " of an overlapping category "
+                            + "is still queued or running, please try again when it is done.");
+                }
+            }
+            for (PriceRepricing failed : priceRepricingRepository.findByRepricingStatusAndRepricingLastPriceNoIsNotNull("failed")) {
+                if (!failed.getRepricingNo().equals(resumedNo)
+                        && !Collections.disjoint(priceRepricingRepository.findCategorySubtree(failed.getCategoryNo()), categoryNos)) {
+                    throw new IllegalStateException("Price repricing " + failed.getRepricingNo() + " of an overlapping category "
+                            + "failed after repricing part of its prices, resume it before starting another one.");
+                }
+            }
+
+            saved = save.get();
+            activeSubtrees.put(saved.getRepricingNo(), new HashSet<>(categoryNos));
+        }
+
+        try {
+            jobExecutor.execute(() -> runRepricing(saved.getRepricingNo()));
+        } catch (TaskRejectedException e) {
+            release(saved.getRepricingNo());
+            finish(saved.getRepricingNo(), "failed", "Too many jobs waiting, please try again later.");
+            throw new IllegalStateException("Too many jobs waiting, please try again later.", e);
+        }
+        return saved;
+    }
+
+    // 🟢 Resolve the category subtree and the prices to change, then reprice chunk by chunk in price number order
+    // Prices saved after the first start (including the ones this job opens) are left alone, so a price is never repriced twice
+    // Each chunk commits together with the job's last price number and counts, a resumed job continues right after it
+    public void runRepricing(Integer repricingNo) {
+        long start = System.currentTimeMillis();
+        int processedBefore = 0;
+        int processed = 0;
+        int lastPriceNo = 0;
+        try {
+            PriceRepricing repricing = priceRepricingRepository.findById(repricingNo)
+                    .orElseThrow(() -> new IllegalStateException("Price repricing not found: " + repricingNo));
+            BigDecimal rate = repricing.getRepricingRate();
+            Date startDate = repricing.getRepricingStartDate();
+
+            List<Integer> categoryNos = priceRepricingRepository.findCategorySubtree(repricing.getCategoryNo());
+            if (repricing.getRepricingMaxPriceNo() == null) {
+                int firstMaxPriceNo = priceRepricingRepository.findMaxPriceNo();
+                int target = priceRepricingRepository.countTargetPrices(categoryNos, startDate, firstMaxPriceNo);
+                updateCounts(repricingNo, "running", job -> {
+                    job.setRepricingMaxPriceNo(firstMaxPriceNo);
+                    job.setRepricingTargetCount(target);
+                });
+            } else {
+                updateCounts(repricingNo, "running", job -> { });
+            }
+            PriceRepricing running = priceRepricingRepository.findById(repricingNo)
+                    .orElseThrow(() -> new IllegalStateException("Price repricing not found: " + repricingNo));
+            int maxPriceNo = running.getRepricingMaxPriceNo();
+            lastPriceNo = running.getRepricingLastPriceNo() != null ? running.getRepricingLastPriceNo() : 0;
+            processedBefore = running.getRepricingProcessedCount();
+            processed = processedBefore;
+
+            while (true) {
+                int after = lastPriceNo;
+                int[] chunk = backgroundJobs.newTransaction().execute(status -> {
+                    int[] result = priceRepricingRepository.repriceChunk(categoryNos, rate, startDate, after, maxPriceNo, chunkSize);
+                    if (result[1] > 0) {
+                        PriceRepricing job = priceRepricingRepository.findById(repricingNo)
+                                .orElseThrow(() -> new IllegalStateException("Price repricing not found: " + repricingNo));
+                        job.setRepricingLastPriceNo(result[0]);
+                        job.setRepricingProcessedCount(job.getRepricingProcessedCount() + result[1]);
+                        job.setRepricingUpdateCount(job.getRepricingUpdateCount() + result[2]);
+                        job.setRepricingSplitCount(job.getRepricingSplitCount() + result[3]);
+                    }
+                    return result;
+                });
+                if (chunk == null || chunk[1] == 0) {
+                    break;
+                }
+                lastPriceNo = chunk[0];
+                processed += chunk[1];
+            }
+
+            updateCounts(repricingNo, "done", job -> job.setRepricingEndDate(new Timestamp(System.currentTimeMillis())));
+            logger.info("Price repricing {} done in {}ms: {} categories, {} prices ({} in this run)",
+                    repricingNo, System.currentTimeMillis() - start, categoryNos.size(), processed, processed - processedBefore);
+        } catch (Exception e) {
+            logger.error("Price repricing {} failed after {} prices: ", repricingNo, processed, e);
+            // The committed chunks stay and are skipped when the job is resumed
+            finish(repricingNo, "failed", BackgroundJobs.rootMessage(e)
+                    + (processed > 0 ? " (" + processed + " prices up to price no " + lastPriceNo
+                    + " were repriced, resume the repricing to continue after them)" : ""));
+        } finally {
+            release(repricingNo);
+        }
+
+        // Too many prices to list, listeners re-read all prices
+        if (processed > processedBefore) {
+            eventPublisher.publishEvent(PriceChangedEvent.all());
+        }
+    }
+
+    // 🔴 Repricing progress / result
+    public Optional<PriceRepricing> getRepricing(Integer repricingNo) {
+        return priceRepricingRepository.findById(repricingNo);
+    }
+
+    private void release(Integer repricingNo) {
+        synchronized (activeSubtrees) {
+            activeSubtrees.remove(repricingNo);
+        }
+    }
+
+    private void updateCounts(Integer repricingNo, String status, Consumer<PriceRepricing> update) {
+        backgroundJobs.updateCounts(priceRepricingRepository, "Price repricing", repricingNo, status, update);
+    }
+
+    private void finish(Integer repricingNo, String status, String message) {
+        backgroundJobs.finish(priceRepricingRepository, "Price repricing", repricingNo, status, message);
+    }
+}
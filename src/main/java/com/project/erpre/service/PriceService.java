@@ -1,22 +1,32 @@
 package com.project.erpre.service;
 
+import com.project.erpre.event.PriceChangedEvent;
 import com.project.erpre.model.Price;
 import com.project.erpre.model.PriceDTO;
+import com.project.erpre.model.PriceLookupDTO;
+import com.project.erpre.model.PriceOverlapDTO;
+import com.project.erpre.model.PriceSearchCondition;
 import com.project.erpre.repository.CustomerRepository;
 import com.project.erpre.repository.PriceRepository;
 import com.project.erpre.repository.ProductRepository;
+import com.project.erpre.util.PageCountMode;
 import lombok.extern.log4j.Log4j2;
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.sql.Date;
 import java.sql.Timestamp;
 
 @Service
@@ -25,6 +35,8 @@ public class PriceService {
 
     private static final Logger logger = LoggerFactory.getLogger(PriceService.class); // Declare logger
 
+    private static final int MAX_REPORTED_OVERLAPS = 5; // Overlaps listed in an error message
+
     @Autowired
     private PriceRepository priceRepository;
 
@@ -37,6 +49,12 @@ public class PriceService {
     @Autowired
     private ModelMapper modelMapper;  // Inject ModelMapper object
 
+    @Autowired
+    private PriceBookIndex priceBookIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // Entity -> DTO conversion (without using ModelMapper library)
     public PriceDTO convertToDTO(Price price) {
         PriceDTO dto = new PriceDTO();
@@ -81,10 +99,15 @@ public class PriceService {
     }
 
     // 🟢 Save or update price information (handles multiple PriceDTOs)
+    // One transaction for the whole list: the price book is refreshed once, after commit
+    @Transactional
     public List<PriceDTO> saveOrUpdate(List<PriceDTO> priceDTOs) {
         // Log the list of PriceDTOs
         logger.info("[1] 🟢 Received PriceDTO List for saving or updating: {}", priceDTOs);
 
+        // Re-check the periods at write time (the whole list in one query), the exclusion constraint is the last guard
+        rejectOverlaps(checkDuplicates(priceDTOs));
+
         // Convert each PriceDTO to entity and save
         List<PriceDTO> savedPriceDTOs = priceDTOs.stream().map(priceDTO -> {
             logger.info("🟢 Saving or updating price: {}", priceDTO); // Log each PriceDTO
@@ -99,12 +122,17 @@ public class PriceService {
             return convertToDTO(savedPrice); // Return DTO after saving
         }).collect(Collectors.toList());
 
+        eventPublisher.publishEvent(new PriceChangedEvent(savedPriceDTOs.stream()
+                .map(PriceDTO::getPriceNo)
+                .collect(Collectors.toList())));
         return savedPriceDTOs; // Return list of saved PriceDTOs
     }
 
     // 🟢 Update deletion/restoration status of price information
+    @Transactional
     public List<Price> updatePriceDeleteYn(List<PriceDTO> priceDTOs) {
         List<Price> updatedPrices = new ArrayList<>();
+        List<PriceDTO> restoredPrices = new ArrayList<>();
 
         // Process each PriceDTO
         for (PriceDTO priceDTO : priceDTOs) {
@@ -120,27 +148,51 @@ public class PriceService {
                 price.setPriceDeleteYn("N");
                 price.setPriceDeleteDate(null);  // Set delete timestamp to null
                 price.setPriceUpdateDate(new Timestamp(System.currentTimeMillis())); // Update timestamp
+                restoredPrices.add(periodOf(price));
             }
 
             // Save updated entity
             updatedPrices.add(priceRepository.save(price));
         }
 
+        // A restored price must not overlap the prices that are active now (including the ones deleted above)
+        priceRepository.flush();
+        rejectOverlaps(checkDuplicates(restoredPrices));
+
+        eventPublisher.publishEvent(new PriceChangedEvent(updatedPrices.stream()
+                .map(Price::getPriceNo)
+                .collect(Collectors.toList())));
         return updatedPrices; // Return list of updated Price entities
     }
 
     // 🟣 Delete price
+    @Transactional
     public void deletePrice(Integer priceNo) {
         logger.info("[3] Deleting price with ID: " + priceNo);
         priceRepository.deleteById(priceNo);
+        eventPublisher.publishEvent(PriceChangedEvent.of(priceNo));
     }
 
-    // 🔴 Retrieve price information for specific customer and product
+    // 🔴 Retrieve price information for specific customer and product (read as PriceDTO rows, no entities)
     public List<PriceDTO> getPricesByCustomerAndProduct(Integer customerNo, String productCd) {
-        List<Price> prices = priceRepository.findByCustomer_CustomerNoAndProduct_ProductCd(customerNo, productCd);
-        return prices.stream()
-                .map(this::convertToDTO)  // Convert Price -> PriceDTO
-                .collect(Collectors.toList());
+        return priceRepository.findPricesByCustomerAndProduct(customerNo, productCd);
+    }
+
+    // 🔴 Effective price of every product in the cart for a customer on a date, from the in-memory price book
+    // Products without a price on that date are left out of the result
+    public List<PriceDTO> getEffectivePrices(PriceLookupDTO priceLookupDTO) {
+        if (priceLookupDTO.getCustomerNo() == null) {
+            throw new IllegalArgumentException("Customer number is required.");
+        }
+        if (priceLookupDTO.getProductCds() == null || priceLookupDTO.getProductCds().isEmpty()
+                || priceLookupDTO.getProductCds().contains(null)) {
+            throw new IllegalArgumentException("At least one product code is required.");
+        }
+
+        LocalDate targetDate = priceLookupDTO.getTargetDate() != null
+                ? priceLookupDTO.getTargetDate().toLocalDate()
+                : LocalDate.now();
+        return priceBookIndex.findEffectivePrices(priceLookupDTO.getCustomerNo(), priceLookupDTO.getProductCds(), targetDate);
     }
 
     // 🟢 Check for duplicate price information
@@ -149,32 +201,75 @@ public class PriceService {
                 priceDTO.getCustomerNo(), priceDTO.getProductCd(), priceDTO.getPriceStartDate(), priceDTO.getPriceEndDate());
 
         // Find overlapping price entries
-        List<Price> overlappingPrices = priceRepository.findOverlappingPrices(
-                priceDTO.getCustomerNo(),
-                priceDTO.getProductCd(),
-                priceDTO.getPriceStartDate(),
-                priceDTO.getPriceEndDate());
-
-        // Convert Price entities to PriceDTO and return
-        return overlappingPrices.stream()
-                .map(this::convertToDTO)
+        List<Integer> overlappingPriceNos = checkDuplicates(Collections.singletonList(priceDTO)).stream()
+                .map(PriceOverlapDTO::getConflictPriceNo)
                 .collect(Collectors.toList());
+
+        // Read the overlapping prices as PriceDTO rows, sorted by start date
+        return priceRepository.findPricesByPriceNos(overlappingPriceNos);
     }
 
-    // 🔴 Filter + pagination + sorting (convert Price entities to PriceDTO)
-    public Page<PriceDTO> getAllPrices(Integer customerNo, String productCd, String startDate, String endDate, String targetDate, String customerSearchText, String productSearchText, String selectedStatus, PageRequest pageRequest) {
-        logger.info("🟢 Fetching all prices with filters");
+    // 🟢 Check a whole price list (e.g. a customer's price sheet) for overlapping periods in one query:
+    // against the stored active prices and between the rows of the list. Empty result = no overlap
+    public List<PriceOverlapDTO> checkDuplicates(List<PriceDTO> priceDTOs) {
+        for (PriceDTO priceDTO : priceDTOs) {
+            if (priceDTO.getCustomerNo() == null || priceDTO.getProductCd() == null) {
+                throw new IllegalArgumentException("Customer and product are required for every price.");
+            }
+            Date start = priceDTO.getPriceStartDate();
+            Date end = priceDTO.getPriceEndDate();
+            if (start != null && end != null && start.after(end)) {
+                throw new IllegalArgumentException("Price start date is after the end date: " + priceDTO.getProductCd()
+                        + " (" + start + " ~ " + end + ")");
+            }
+        }
+        return priceRepository.findPriceOverlaps(priceDTOs);
+    }
 
-        // If any filter condition exists, fetch filtered prices
-        if (customerNo != null || productCd != null || startDate != null || endDate != null || customerSearchText != null || productSearchText != null || selectedStatus != null) {
-            // Retrieve filtered data from repository
-            Page<Price> prices = priceRepository.findPricesWithFilters(customerNo, productCd, startDate, endDate, targetDate, customerSearchText, productSearchText, selectedStatus, pageRequest);
-            return prices.map(this::convertToDTO); // Convert entities to DTOs
+    private void rejectOverlaps(List<PriceOverlapDTO> overlaps) {
+        if (overlaps.isEmpty()) {
+            return;
         }
+        String details = overlaps.stream()
+                .limit(MAX_REPORTED_OVERLAPS)
+                .map(overlap -> overlap.getProductCd() + " " + period(overlap.getPriceStartDate(), overlap.getPriceEndDate())
+                        + " overlaps " + (overlap.getConflictRowIndex() != null
+                        ? "row " + (overlap.getConflictRowIndex() + 1)
+                        : "price " + overlap.getConflictPriceNo())
+                        + " " + period(overlap.getConflictStartDate(), overlap.getConflictEndDate()))
+                .collect(Collectors.joining(", "));
+        throw new IllegalArgumentException("Price periods overlap (" + overlaps.size() + "): " + details);
+    }
+
+    private static PriceDTO periodOf(Price price) {
+        PriceDTO priceDTO = new PriceDTO();
+        priceDTO.setPriceNo(price.getPriceNo());
+        priceDTO.setCustomerNo(price.getCustomer().getCustomerNo());
+        priceDTO.setProductCd(price.getProduct().getProductCd());
+        priceDTO.setPriceStartDate(price.getPriceStartDate());
+        priceDTO.setPriceEndDate(price.getPriceEndDate());
+        return priceDTO;
+    }
+
+    private static String period(Date start, Date end) {
+        return "(" + (start != null ? start : "open") + " ~ " + (end != null ? end : "open") + ")";
+    }
+
+    // 🔴 Filter + pagination + sorting (PriceDTO rows straight from the query, the count only when PageCounter needs it)
+    // count: auto / exact / none (see PageCountMode)
+    public Page<PriceDTO> getAllPrices(PriceSearchCondition condition, PageRequest pageRequest, String count) {
+        logger.info("🟢 Fetching all prices with filters: {}", condition);
+
+        // Blank search texts are no filter
+        condition.setProductCd(blankToNull(condition.getProductCd()));
+        condition.setCustomerSearchText(blankToNull(condition.getCustomerSearchText()));
+        condition.setProductSearchText(blankToNull(condition.getProductSearchText()));
+
+        return priceRepository.findPrices(condition, pageRequest, PageCountMode.of(count));
+    }
 
-        // If no filters, fetch all prices
-        Page<Price> allPrices = priceRepository.findAll(pageRequest);
-        return allPrices.map(this::convertToDTO); // Convert entities to DTOs
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
     }
 
 }
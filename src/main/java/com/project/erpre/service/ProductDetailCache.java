@@ -0,0 +1,125 @@
+package com.project.erpre.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.project.erpre.event.OrderChangedEvent;
+import com.project.erpre.event.ProductChangedEvent;
+import com.project.erpre.model.ProductDTO;
+import com.project.erpre.repository.OrderDetailRepository;
+import com.project.erpre.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Product detail pages (product, category path, last 5 deliveries) by product code
+// The same few hundred best sellers are opened over and over; the size bound is enforced by Caffeine's
+// W-TinyLFU policy, so products opened once (e.g. by a crawl of the product list) do not push out the popular ones
+// Invalidated from ProductChangedEvent (product and category writes) and OrderChangedEvent (order lines of the product);
+// customer and employee names shown with the deliveries are refreshed by the expiry only
+@Service
+public class ProductDetailCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductDetailCache.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderDetailRepository orderDetailRepository;
+
+    private final LoadingCache<String, ProductDetail> details;
+
+    public ProductDetailCache(@Value("${erpre.product.detail-cache.max-size:1000}") long maxSize,
+                              @Value("${erpre.product.detail-cache.expire-minutes:10}") long expireMinutes) {
+        this.details = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(expireMinutes))
+                .recordStats()
+                .build(this::load);
+    }
+
+    // 🔴 Detail rows of the product (empty when the product does not exist), read-only
+    public List<ProductDTO> getDetails(String productCd) {
+        return details.get(productCd).rows;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isAll()) {
+            details.invalidateAll();
+            return;
+        }
+        details.invalidateAll(event.getKeys());
+    }
+
+    // Drop the products the changed orders have lines for now, and the ones whose cached deliveries
+    // come from a changed order (the line was deleted or moved to another product)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.getKeys().isEmpty() || details.estimatedSize() == 0) {
+            return;
+        }
+
+        try {
+            Set<String> productCds = new HashSet<>();
+            details.asMap().forEach((productCd, detail) -> {
+                if (!Collections.disjoint(detail.orderNos, event.getKeys())) {
+                    productCds.add(productCd);
+                }
+            });
+            productCds.addAll(orderDetailRepository.findProductCdsByOrderNos(event.getKeys()));
+            details.invalidateAll(productCds);
+        } catch (Exception e) {
+            logger.error("Product detail invalidation failed for orders {}, dropping all details", event.getKeys(), e);
+            details.invalidateAll();
+        }
+    }
+
+    // Hit/miss counts, hit rate, evictions (size bound), current size
+    public Map<String, Object> getCacheStats() {
+        CacheStats stats = details.stats();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("size", details.estimatedSize());
+        response.put("hitCount", stats.hitCount());
+        response.put("missCount", stats.missCount());
+        response.put("hitRate", stats.hitRate());
+        response.put("evictionCount", stats.evictionCount());
+        return response;
+    }
+
+    private ProductDetail load(String productCd) {
+        List<ProductDTO> rows = productRepository.findProductDetailsByProductCd(productCd);
+        Set<Integer> orderNos = rows.stream()
+                .map(ProductDTO::getOrderHNo)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return new ProductDetail(Collections.unmodifiableList(new ArrayList<>(rows)), orderNos);
+    }
+
+    private static final class ProductDetail {
+
+        private final List<ProductDTO> rows;
+        private final Set<Integer> orderNos;
+
+        private ProductDetail(List<ProductDTO> rows, Set<Integer> orderNos) {
+            this.rows = rows;
+            this.orderNos = orderNos;
+        }
+    }
+}
@@ -1,10 +1,19 @@
 package com.project.erpre.service;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.erpre.event.ProductChangedEvent;
 import com.project.erpre.model.Category;
 import com.project.erpre.model.CategoryDTO;
 import com.project.erpre.model.Product;
 import com.project.erpre.model.ProductDTO;
+import com.project.erpre.model.ProductFacetGroupDTO;
+import com.project.erpre.model.ProductFacetsDTO;
 import com.project.erpre.repository.CategoryRepository;
 import com.project.erpre.repository.ProductRepository;
+import com.project.erpre.repository.ProductRepositoryImpl;
+import com.project.erpre.util.KeysetCursor;
+import com.project.erpre.util.KeysetSlice;
+import com.project.erpre.util.PageCountMode;
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,45 +22,309 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.math.BigDecimal;
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
 
+    private static final int MAX_SUGGESTIONS = 50; // 자동완성 최대 건수
+
+    private static final int MAX_PRODUCT_PAGE_SIZE = 100; // keyset 상품 목록 한 페이지 최대 건수
+
+    private static final int MAX_RECENT_DELIVERY_PRODUCTS = 100; // 최근 납품내역 한 번에 조회할 최대 제품 수 (목록 한 페이지)
+
+    private static final int MAX_RECENT_DELIVERIES = 20; // 제품별 최근 납품내역 최대 건수
+
+    // keyset 상품 목록 정렬 컬럼 (offset 방식 정렬 컬럼과 같음)
+    private static final Set<String> KEYSET_SORT_COLUMNS = new HashSet<>(Arrays.asList(
+            "productCd", "productNm", "topCategory", "middleCategory", "lowCategory",
+            "productPrice", "productInsertDate", "productUpdateDate", "productDeleteDate"));
+
     @Autowired
     private ProductRepository productRepository;
 
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CustomerPriceBookCache customerPriceBookCache;
+
+    @Autowired
+    private ProductDetailCache productDetailCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // 상품 목록 필터 개수: 상품 코드/상품명 조건별 (대분류, 중분류, 소분류, 상태) 묶음 (상품 변경 시 전체 무효화)
+    // 카테고리/상태 조건은 묶음에 적용하므로 같은 검색어면 카테고리/상태를 바꿔도 다시 조회하지 않음
+    private final Cache<List<String>, List<ProductFacetGroupDTO>> facetGroups;
+
+    public ProductService(@Value("${erpre.product.facet-cache.max-size:500}") long facetCacheMaxSize,
+                          @Value("${erpre.product.facet-cache.expire-minutes:5}") long facetCacheExpireMinutes) {
+        this.facetGroups = Caffeine.newBuilder()
+                .maximumSize(facetCacheMaxSize)
+                .expireAfterWrite(Duration.ofMinutes(facetCacheExpireMinutes))
+                .build();
+    }
 
-    // 1. 상품 목록 조회 + 필터링 + 정렬 + 페이징
+    // 1. 상품 목록 조회 + 필터링 + 정렬 + 페이징 (count: 전체 개수 계산 방식 auto / exact / none)
     public Page<ProductDTO> getProductsList(int page, int size, String status,
                                             Integer topCategoryNo, Integer middleCategoryNo, Integer lowCategoryNo,
-                                            String productCd, String productNm, String sortColumn, String sortDirection) {
+                                            String productCd, String productNm, String sortColumn, String sortDirection,
+                                            String count) {
         Pageable pageable = PageRequest.of(page, size);
-        return productRepository.productsList(pageable, status, topCategoryNo, middleCategoryNo, lowCategoryNo, productCd, productNm, sortColumn, sortDirection);
+        return productRepository.productsList(pageable, status, topCategoryNo, middleCategoryNo, lowCategoryNo, productCd, productNm, sortColumn, sortDirection,
+                PageCountMode.of(count));
+    }
+
+    // 1-2. 상품 목록 필터 개수 (현재 필터에서 대/중/소분류, 상태별 상품 수, 필터를 고르기 전에 빈 결과를 알 수 있음)
+    // 목록과 같은 조건, 분류/상태 목록은 자기 조건(분류는 하위 분류 조건 포함)을 뺀 나머지 조건으로 셈
+    public ProductFacetsDTO getProductFacets(String status, Integer topCategoryNo, Integer middleCategoryNo, Integer lowCategoryNo,
+                                             String productCd, String productNm) {
+        // 상품 코드 검색어가 없으면 상품명 조건도 없음 (목록 조건과 같음)
+        boolean textFiltered = productCd != null && !productCd.isEmpty();
+        List<String> key = textFiltered ? Arrays.asList(productCd, productNm) : Collections.emptyList();
+        List<ProductFacetGroupDTO> groups = facetGroups.get(key, k -> Collections.unmodifiableList(
+                productRepository.findProductFacetGroups(textFiltered ? productCd : null, textFiltered ? productNm : null)));
+
+        // 상태/카테고리 조건은 목록 조건(ProductRepositoryImpl.productsListCondition)과 같은 비교로 묶음에 적용
+        // 분류 목록은 자기 단계와 하위 단계 조건을 뺌 (대분류: 상태만, 중분류: 상태 + 대분류, 소분류: 상태 + 대/중분류)
+        long total = 0;
+        Map<Integer, ProductFacetsDTO.CategoryCount> topCounts = new HashMap<>();
+        Map<Integer, ProductFacetsDTO.CategoryCount> middleCounts = new HashMap<>();
+        Map<Integer, ProductFacetsDTO.CategoryCount> lowCounts = new HashMap<>();
+        long activeCount = 0;
+        long deletedCount = 0;
+        for (ProductFacetGroupDTO group : groups) {
+            long count = group.getProductCount();
+            boolean statusMatch = ProductRepositoryImpl.matchesStatusFilter(group, status);
+            boolean topMatch = ProductRepositoryImpl.matchesCategoryFilter(group, topCategoryNo, null, null);
+            boolean middleMatch = ProductRepositoryImpl.matchesCategoryFilter(group, topCategoryNo, middleCategoryNo, null);
+            boolean categoryMatch = ProductRepositoryImpl.matchesCategoryFilter(group, topCategoryNo, middleCategoryNo, lowCategoryNo);
+
+            if (statusMatch) {
+                addFacetCount(topCounts, group.getTopCategoryNo(), group.getTopCategory(), count);
+            }
+            if (statusMatch && topMatch) {
+                addFacetCount(middleCounts, group.getMiddleCategoryNo(), group.getMiddleCategory(), count);
+            }
+            if (statusMatch && middleMatch) {
+                addFacetCount(lowCounts, group.getLowCategoryNo(), group.getLowCategory(), count);
+            }
+            if (categoryMatch) {
+                if ("N".equals(group.getProductDeleteYn())) {
+                    activeCount += count;
+                } else {
+                    deletedCount += count;
+                }
+                if (statusMatch) {
+                    total += count;
+                }
+            }
+        }
+
+        Map<String, Long> statuses = new LinkedHashMap<>();
+        statuses.put("all", activeCount + deletedCount);
+        statuses.put("active", activeCount);
+        statuses.put("deleted", deletedCount);
+
+        return ProductFacetsDTO.builder()
+                .total(total)
+                .topCategories(sortedFacetCounts(topCounts))
+                .middleCategories(sortedFacetCounts(middleCounts))
+                .lowCategories(sortedFacetCounts(lowCounts))
+                .statuses(statuses)
+                .build();
+    }
+
+    // 상품 변경 (등록/수정/삭제/복원, 카테고리 수정) 커밋 후 필터 개수 캐시 전체 무효화
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        facetGroups.invalidateAll();
+    }
+
+    // 분류별 개수 더하기 (분류가 없는 상품은 분류 목록에서 제외)
+    private static void addFacetCount(Map<Integer, ProductFacetsDTO.CategoryCount> counts,
+                                      Integer categoryNo, String categoryNm, long count) {
+        if (categoryNo == null) {
+            return;
+        }
+        ProductFacetsDTO.CategoryCount facet = counts.computeIfAbsent(categoryNo,
+                no -> new ProductFacetsDTO.CategoryCount(no, categoryNm, 0));
+        facet.setCount(facet.getCount() + count);
+    }
+
+    // 분류 번호순 (카테고리 드롭다운 순서)
+    private static List<ProductFacetsDTO.CategoryCount> sortedFacetCounts(Map<Integer, ProductFacetsDTO.CategoryCount> counts) {
+        List<ProductFacetsDTO.CategoryCount> sorted = new ArrayList<>(counts.values());
+        sorted.sort(Comparator.comparing(ProductFacetsDTO.CategoryCount::getCategoryNo));
+        return sorted;
+    }
+
+    // 1-1. 상품 목록 조회 (keyset 페이징, 이어서 읽기), 페이지 번호로 이동할 때는 getProductsList
+    // 커서 = 이전 페이지 마지막 행의 (정렬 컬럼, 정렬 방향, 정렬 값, 제품 코드), 다른 정렬의 커서는 사용할 수 없음
+    @Transactional(readOnly = true)
+    public KeysetSlice<ProductDTO> getProductsListKeyset(String cursor, int size, String status,
+                                                         Integer topCategoryNo, Integer middleCategoryNo, Integer lowCategoryNo,
+                                                         String productCd, String productNm, String sortColumn, String sortDirection) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PRODUCT_PAGE_SIZE));
+
+        // 정렬은 offset 방식과 같음: "asc"가 아니면 내림차순, 알 수 없는 컬럼이면 제품 코드 오름차순
+        String direction = "asc".equals(sortDirection) ? "asc" : "desc";
+        String column = sortColumn;
+        if (!KEYSET_SORT_COLUMNS.contains(column)) {
+            column = "productCd";
+            direction = "asc";
+        }
+
+        Object lastSortValue = null;
+        String lastProductCd = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            List<String> key = KeysetCursor.decode(cursor, 4);
+            if (!column.equals(key.get(0)) || !direction.equals(key.get(1)) || key.get(3) == null) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            lastSortValue = parseSortValue(column, key.get(2));
+            lastProductCd = key.get(3);
+        }
+
+        // 다음 페이지가 있는지 개수 조회 없이 알기 위해 한 건 더 읽음
+        List<ProductDTO> rows = productRepository.productsListKeyset(status, topCategoryNo, middleCategoryNo, lowCategoryNo,
+                productCd, productNm, column, direction, lastSortValue, lastProductCd, pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<ProductDTO> content = hasNext ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            ProductDTO last = content.get(content.size() - 1);
+            nextCursor = KeysetCursor.encode(column, direction, sortValue(last, column), last.getProductCd());
+        }
+
+        return new KeysetSlice<>(content, pageSize, hasNext, nextCursor);
+    }
+
+    // keyset 정렬 값: 상품 목록 행 -> 정렬 컬럼 값
+    private static Object sortValue(ProductDTO product, String sortColumn) {
+        switch (sortColumn) {
+            case "productNm":
+                return product.getProductNm();
+            case "topCategory":
+                return product.getTopCategory();
+            case "middleCategory":
+                return product.getMiddleCategory();
+            case "lowCategory":
+                return product.getLowCategory();
+            case "productPrice":
+                return product.getProductPrice();
+            case "productInsertDate":
+                return product.getProductInsertDate();
+            case "productUpdateDate":
+                return product.getProductUpdateDate();
+            case "productDeleteDate":
+                return product.getProductDeleteDate();
+            default:
+                return product.getProductCd();
+        }
+    }
+
+    // keyset 정렬 값: 커서 문자열 -> 정렬 컬럼 타입 (sortValue의 toString 역변환)
+    private static Object parseSortValue(String sortColumn, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            switch (sortColumn) {
+                case "productPrice":
+                    return new BigDecimal(value);
+                case "productInsertDate":
+                case "productUpdateDate":
+                    return LocalDateTime.parse(value);
+                case "productDeleteDate":
+                    return Timestamp.valueOf(value);
+                default:
+                    return value;
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
     }
 
     // 0920 예원 추가 (상품코드, 상품명, 대분류, 중분류, 소분류, 상태별 상품목록 페이징 적용하여 가져오기)
     public Page<ProductDTO> getProductsFilter(int page, int size, String status,
                                               Integer topCategoryNo, Integer middleCategoryNo, Integer lowCategoryNo,
-                                              String productCd, String productNm, Integer customerNo) {
+                                              String productCd, String productNm, Integer customerNo, String count) {
         Pageable pageable = PageRequest.of(page, size);  // 페이지네이션 정보 생성
-        return productRepository.findProductsFilter(pageable, status, topCategoryNo, middleCategoryNo, lowCategoryNo, productCd, productNm, customerNo);
+        // 고객이 선택된 경우 그 고객의 오늘 적용 가격을 캐시에서 가져옴 (주문 등록 중 반복 호출)
+        Map<String, BigDecimal> customerPrices = customerNo != null ? customerPriceBookCache.getPrices(customerNo) : null;
+        return productRepository.findProductsFilter(pageable, status, topCategoryNo, middleCategoryNo, lowCategoryNo, productCd, productNm, customerNo, customerPrices,
+                PageCountMode.of(count));
     }
 
-    // 2. 상품 상세 조회 (최근 납품내역 5건 포함)
+    // 상품 자동완성 (주문 등록 상품 선택), 검색어가 비어 있으면 빈 목록
+    public List<ProductDTO> getProductSuggestions(String searchText, int limit) {
+        if (searchText == null || searchText.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return productRepository.findProductSuggestions(searchText, limit);
+    }
+
+    // 2. 상품 상세 조회 (최근 납품내역 5건 포함), 자주 여는 상품은 캐시에서 (상품/주문 변경 시 무효화)
     public List<ProductDTO> getProductDetailsByProductCd(String productCd) {
-        return productRepository.findProductDetailsByProductCd(productCd);
+        return productDetailCache.getDetails(productCd);
+    }
+
+    // 상품 상세 캐시 통계 (적중률, 크기 제한으로 밀려난 건수 등)
+    public Map<String, Object> getProductDetailCacheStats() {
+        return productDetailCache.getCacheStats();
+    }
+
+    // 2-1. 여러 제품의 최근 납품내역 (상품 목록 한 페이지의 제품 코드, 제품별 최근 limit건)
+    public Map<String, List<ProductDTO>> getRecentDeliveries(List<String> productCds, int limit) {
+        if (productCds == null) {
+            throw new IllegalArgumentException("productCds is required");
+        }
+        List<String> codes = productCds.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(productCd -> !productCd.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+        if (codes.isEmpty() || codes.size() > MAX_RECENT_DELIVERY_PRODUCTS) {
+            throw new IllegalArgumentException("productCds must have between 1 and " + MAX_RECENT_DELIVERY_PRODUCTS + " product codes");
+        }
+        if (limit < 1 || limit > MAX_RECENT_DELIVERIES) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_RECENT_DELIVERIES);
+        }
+        return productRepository.findRecentDeliveries(codes, limit);
     }
 
     // 3. 상품 등록
@@ -82,8 +355,9 @@ public class ProductService {
             product.setCategory(category);
         }
 
-        // 상품 저장
+        // 상품 저장 (없는 상품으로 캐시된 상세 정보 무효화)
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(savedProduct.getProductCd()));
         return convertToDTO(savedProduct);
     }
 
@@ -110,6 +384,7 @@ public class ProductService {
 
         // 상품 저장
         Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(updatedProduct.getProductCd()));
         return convertToDTO(updatedProduct);
     }
 
@@ -128,6 +403,9 @@ public class ProductService {
         }
 
         productRepository.saveAll(products);
+        eventPublisher.publishEvent(new ProductChangedEvent(products.stream()
+                .map(Product::getProductCd)
+                .collect(Collectors.toList())));
     }
 
     // 6. 선택한 상품 복원
@@ -145,6 +423,9 @@ public class ProductService {
 
         }
             productRepository.saveAll(products);
+            eventPublisher.publishEvent(new ProductChangedEvent(products.stream()
+                    .map(Product::getProductCd)
+                    .collect(Collectors.toList())));
 
     }
 
@@ -155,9 +436,9 @@ public class ProductService {
 
 
 
-    // 대분류 조회
+    // 대분류 조회 (CategoryService의 메모리 카테고리 트리)
     public List<Category> getTopCategory() {
-        return categoryRepository.findTopCategory();
+        return categoryService.getTopCategory();
     }
 
     public List<Product> searchProducts(String productCd, String productNm, Integer topCategory, Integer middleCategory, Integer lowCategory) {
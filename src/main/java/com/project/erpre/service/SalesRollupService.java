@@ -0,0 +1,135 @@
+package com.project.erpre.service;
+
+import com.project.erpre.event.OrderChangedEvent;
+import com.project.erpre.event.SalesRollupChangedEvent;
+import com.project.erpre.repository.OrderRepository;
+import com.project.erpre.repository.SalesDailyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+// Keeps the daily sales rollup (m_sales_daily) in line with the orders
+// Changed orders refresh only the days they touch; a month-by-month rebuild is available as a backfill
+@Service
+public class SalesRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupService.class);
+
+    @Autowired
+    private SalesDailyRepository salesDailyRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Refresh after the order transaction committed, in a transaction of its own
+    // A failure here must not fail the order request, the period can be rebuilt afterwards
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        try {
+            refreshOrders(event.getKeys());
+        } catch (Exception e) {
+            logger.error("Sales rollup refresh failed for orders {}, rebuild the affected period", event.getKeys(), e);
+        }
+    }
+
+    // Re-aggregate every day the given orders contribute (or used to contribute) to
+    public List<LocalDate> refreshOrders(Collection<Integer> orderNos) {
+        if (orderNos == null || orderNos.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<LocalDate> salesDates = newTransaction().execute(status -> {
+            List<LocalDate> dates = salesDailyRepository.findAffectedSalesDates(new ArrayList<>(orderNos));
+            if (!dates.isEmpty()) {
+                salesDailyRepository.refreshSalesDates(dates);
+            }
+            return dates;
+        });
+
+        logger.debug("Sales rollup refreshed for orders {}: {}", orderNos, salesDates);
+        if (salesDates != null && !salesDates.isEmpty()) {
+            eventPublisher.publishEvent(new SalesRollupChangedEvent(salesDates));
+        }
+        return salesDates;
+    }
+
+    // Backfill: rebuild [startDate, endDate] one month per transaction
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must not be after end date.");
+        }
+
+        int rows = 0;
+        LocalDate chunkStart = startDate;
+        while (!chunkStart.isAfter(endDate)) {
+            LocalDate chunkEnd = chunkStart.withDayOfMonth(chunkStart.lengthOfMonth());
+            if (chunkEnd.isAfter(endDate)) {
+                chunkEnd = endDate;
+            }
+
+            LocalDate from = chunkStart;
+            LocalDate to = chunkEnd;
+            Integer chunkRows = newTransaction().execute(status -> salesDailyRepository.rebuildSalesRange(from, to));
+            rows += chunkRows != null ? chunkRows : 0;
+            logger.info("Sales rollup rebuilt {} ~ {}: {} rows", from, to, chunkRows);
+            eventPublisher.publishEvent(SalesRollupChangedEvent.between(from, to));
+
+            chunkStart = chunkEnd.plusDays(1);
+        }
+        return rows;
+    }
+
+    // First start with the rollup: fill it from the existing orders
+    // Orders decided before the effective date existed get it first, the rollup is keyed on it
+    // Runs before the other startup listeners (e.g. OrderFactStore), which also rely on the effective date
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void backfillIfEmpty() {
+        try {
+            Integer filled = newTransaction().execute(status -> orderRepository.fillMissingEffectiveDates());
+            if (filled != null && filled > 0) {
+                logger.info("Filled the effective date of {} decided orders", filled);
+            }
+
+            if (salesDailyRepository.count() > 0) {
+                return;
+            }
+            LocalDate firstSalesDate = salesDailyRepository.findFirstSalesDate();
+            if (firstSalesDate != null) {
+                logger.info("Sales rollup is empty, backfilling from {}", firstSalesDate);
+                rebuild(firstSalesDate, LocalDate.now());
+            }
+        } catch (Exception e) {
+            logger.error("Sales rollup backfill failed: ", e);
+        }
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transactionTemplate;
+    }
+}
@@ -0,0 +1,50 @@
+package com.project.erpre.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+// Opaque continuation token for keyset (seek) pagination.
+// The token is simply the sort key of the last row of a page, so the client cannot
+// jump pages with it, it can only ask for "the rows after this one".
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "\u001F"; // unit separator, never appears in key values
+    private static final String NULL_VALUE = "\u0000";
+
+    private KeysetCursor() {
+    }
+
+    // Encode the sort key values of the last row (null values are allowed)
+    public static String encode(Object... values) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                builder.append(SEPARATOR);
+            }
+            builder.append(values[i] == null ? NULL_VALUE : values[i].toString());
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Decode a token into its key values, checking the expected number of parts
+    public static List<String> decode(String cursor, int expectedParts) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+
+        List<String> values = new ArrayList<>();
+        for (String part : decoded.split(SEPARATOR, -1)) {
+            values.add(NULL_VALUE.equals(part) ? null : part);
+        }
+        if (values.size() != expectedParts) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+        return values;
+    }
+}
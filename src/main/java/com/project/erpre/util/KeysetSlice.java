@@ -0,0 +1,18 @@
+package com.project.erpre.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetSlice<T> {
+    // One page of a keyset-paginated list (no total count, page N costs the same as page 1)
+    private List<T> content; // Rows of this page
+    private int size; // Requested page size
+    private boolean hasNext; // Whether another page exists after this one
+    private String nextCursor; // Token to pass back as "cursor" for the next page (null on the last page)
+}
@@ -0,0 +1,22 @@
+package com.project.erpre.util;
+
+import java.util.Locale;
+
+// How the total of a paged list is found (request parameter "count")
+public enum PageCountMode {
+    AUTO,  // Planner estimate for large unfiltered lists, otherwise the exact count (cached for a short time)
+    EXACT, // Exact count (cached for a short time)
+    NONE;  // No count query: the total only tells whether a next page exists
+
+    // Parse the request parameter (auto / exact / none), missing means auto
+    public static PageCountMode of(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return AUTO;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("count must be auto, exact or none.");
+        }
+    }
+}
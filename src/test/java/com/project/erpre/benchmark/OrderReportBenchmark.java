@@ -0,0 +1,164 @@
+package com.project.erpre.benchmark;
+
+import com.project.erpre.ErpreApplication;
+import com.project.erpre.repository.OrderReportRepository;
+import com.project.erpre.service.OrderFactStore;
+import com.project.erpre.service.SalesRollupService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Order report aggregations: in-memory OrderFactStore vs. the OrderReportRepository JPQL (daily rollup)
+// Uses a PostgreSQL database of its own, with one schema per fact count (facts_1000000, ...) filled with generated
+// approved orders (4 lines each) on the first run:
+//   createdb -U postgres erpre_bench
+//   mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+//   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.project.erpre.benchmark.OrderReportBenchmark
+// Another database: -Derpre.bench.url=jdbc:postgresql://host:5432/db, without parameters (passed on to the forked JVM)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx3g"})
+public class OrderReportBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderReportBenchmark.class);
+
+    private static final LocalDate START = LocalDate.of(2022, 1, 1);
+    private static final LocalDate END = LocalDate.of(2024, 12, 31);
+
+    @Param({"1000000", "10000000"})
+    private int facts;
+
+    private ConfigurableApplicationContext context;
+    private OrderReportRepository orderReportRepository;
+    private OrderFactStore orderFactStore;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Command line arguments, so they win over application.properties (the benchmark truncates its database)
+        context = new SpringApplicationBuilder(ErpreApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + System.getProperty("erpre.bench.url", "jdbc:postgresql://localhost:5432/erpre_bench")
+                                + "?currentSchema=facts_" + facts,
+                        "--spring.jpa.properties.hibernate.default_schema=facts_" + facts,
+                        "--spring.datasource.hikari.connection-init-sql=CREATE SCHEMA IF NOT EXISTS facts_" + facts,
+                        "--spring.devtools.restart.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.com.project.erpre=INFO",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+        orderReportRepository = context.getBean(OrderReportRepository.class);
+        orderFactStore = context.getBean(OrderFactStore.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        String database = jdbcTemplate.queryForObject("SELECT current_database()", String.class);
+        if (!"erpre_bench".equals(database) && System.getProperty("erpre.bench.url") == null) {
+            throw new IllegalStateException("Refusing to fill database " + database + ", set -Derpre.bench.url");
+        }
+        Long lines = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM m_order_d", Long.class);
+        if (lines == null || lines != facts) {
+            logger.info("Filling schema facts_{} with {} order lines", facts, facts);
+            seed(jdbcTemplate, facts / 4);
+            context.getBean(SalesRollupService.class).rebuild(START, END);
+            orderFactStore.reload();
+        }
+        if (orderFactStore.size() != facts) {
+            throw new IllegalStateException("Fact store holds " + orderFactStore.size() + " facts, expected " + facts);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Object[]> sqlMonthly() {
+        return orderReportRepository.countOrdersByMonth(START, END);
+    }
+
+    @Benchmark
+    public List<Object[]> factStoreMonthly() {
+        return orderFactStore.countOrdersByMonth(START, END);
+    }
+
+    @Benchmark
+    public List<Object[]> sqlTopProducts() {
+        return orderReportRepository.countOrdersByProduct(START, END, PageRequest.of(0, 10));
+    }
+
+    @Benchmark
+    public List<Object[]> factStoreTopProducts() {
+        return orderFactStore.countOrdersByProduct(START, END, 10);
+    }
+
+    @Benchmark
+    public List<Object[]> sqlTopCustomers() {
+        return orderReportRepository.countOrdersByCustomer(START, END, PageRequest.of(0, 10));
+    }
+
+    @Benchmark
+    public List<Object[]> factStoreTopCustomers() {
+        return orderFactStore.countOrdersByCustomer(START, END, 10);
+    }
+
+    // 100 customers, 500 products, 20 employees; orders spread over START..END
+    private static void seed(JdbcTemplate jdbcTemplate, int orders) {
+        jdbcTemplate.execute("TRUNCATE m_sales_daily, m_sales_daily_order, m_order_d, m_order_h, " +
+                "m_customer, m_product, m_employee RESTART IDENTITY CASCADE");
+        jdbcTemplate.update("INSERT INTO m_customer (customer_name, customer_business_reg_no, customer_delete_yn) " +
+                "SELECT 'Bench customer ' || i, 'B-' || i, 'N' FROM generate_series(1, 100) i");
+        jdbcTemplate.update("INSERT INTO m_employee (employee_id, employee_pw, employee_name, employee_tel, employee_role, " +
+                "employee_insert_date, employee_delete_yn) " +
+                "SELECT 'bench' || i, 'bench', 'Bench employee ' || i, '010-0000-0000', 'staff', now(), 'N' " +
+                "FROM generate_series(0, 19) i");
+        jdbcTemplate.update("INSERT INTO m_product (product_cd, product_nm, product_price, product_delete_yn) " +
+                "SELECT 'B' || lpad(i::text, 5, '0'), 'Bench product ' || i, 1000 + i, 'N' FROM generate_series(0, 499) i");
+        jdbcTemplate.update("INSERT INTO m_order_h (customer_no, employee_id, order_h_total_price, order_h_status, " +
+                "order_h_insert_date, order_h_effective_date, order_h_delete_yn) " +
+                "SELECT 1 + i % 100, 'bench' || (i % 20), 0, 'approved', t, t, 'N' " +
+                "FROM (SELECT i, TIMESTAMP '2022-01-01' + (i % 1096) * INTERVAL '1 day' + (i % 86400) * INTERVAL '1 second' AS t " +
+                "      FROM generate_series(1, ?) i) g", orders);
+        jdbcTemplate.update("INSERT INTO m_order_d (order_h_no, product_cd, order_d_price, order_d_qty, order_d_total_price, " +
+                "order_d_delete_yn) " +
+                "SELECT h, 'B' || lpad(((h * 4 + l) % 500)::text, 5, '0'), 1000 + h % 50 * 10, 1 + l, (1000 + h % 50 * 10) * (1 + l), 'N' " +
+                "FROM generate_series(1, ?) h, generate_series(0, 3) l", orders);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(OrderReportBenchmark.class.getSimpleName());
+        String url = System.getProperty("erpre.bench.url");
+        if (url != null) {
+            options.jvmArgsAppend("-Derpre.bench.url=" + url);
+        }
+        new Runner(options.build()).run();
+    }
+}
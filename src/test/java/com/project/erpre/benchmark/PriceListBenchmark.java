@@ -0,0 +1,216 @@
+package com.project.erpre.benchmark;
+
+import com.project.erpre.ErpreApplication;
+import com.project.erpre.model.Price;
+import com.project.erpre.model.PriceDTO;
+import com.project.erpre.model.PriceSearchCondition;
+import com.project.erpre.repository.PriceRepository;
+import com.project.erpre.service.PriceService;
+import com.project.erpre.util.PageCountMode;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Price list reads: PriceDTO projection (PriceRepository.findPrices / findPricesByCustomerAndProduct) vs. loading Price
+// entities and converting them with PriceService.convertToDTO, as the list did before
+// One customer's prices newest first (page and count, as the list is served) and one customer/product lookup
+// Uses the erpre_bench PostgreSQL database, schema prices_<count>, filled with generated prices on the first run:
+//   createdb -U postgres erpre_bench
+//   mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+//   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.project.erpre.benchmark.PriceListBenchmark
+// Another database: -Derpre.bench.url=jdbc:postgresql://host:5432/db (passed on to the forked JVM)
+// The JDBC statements each variant prepares are logged once at setup
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx3g"})
+public class PriceListBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceListBenchmark.class);
+
+    private static final int CUSTOMERS = 100;
+    private static final int PRODUCTS = 2000;
+    private static final int CUSTOMER_NO = 42;
+    private static final String PRODUCT_CD = "B00042";
+
+    @Param({"1000000"})
+    private int prices;
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private PriceRepository priceRepository;
+    private PriceService priceService;
+    private EntityManagerFactory entityManagerFactory;
+    private PriceSearchCondition condition;
+    private PageRequest pageRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Command line arguments, so they win over application.properties (the benchmark truncates its database)
+        context = new SpringApplicationBuilder(ErpreApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + System.getProperty("erpre.bench.url", "jdbc:postgresql://localhost:5432/erpre_bench")
+                                + "?currentSchema=prices_" + prices,
+                        "--spring.jpa.properties.hibernate.default_schema=prices_" + prices,
+                        "--spring.jpa.properties.hibernate.generate_statistics=true",
+                        "--spring.datasource.hikari.connection-init-sql=CREATE SCHEMA IF NOT EXISTS prices_" + prices,
+                        "--spring.devtools.restart.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.com.project.erpre=INFO",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "--logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN");
+        priceRepository = context.getBean(PriceRepository.class);
+        priceService = context.getBean(PriceService.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        String database = jdbcTemplate.queryForObject("SELECT current_database()", String.class);
+        if (!"erpre_bench".equals(database) && System.getProperty("erpre.bench.url") == null) {
+            throw new IllegalStateException("Refusing to fill database " + database + ", set -Derpre.bench.url");
+        }
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM m_price", Long.class);
+        if (rows == null || rows != prices) {
+            logger.info("Filling schema prices_{} with {} prices", prices, prices);
+            seed(jdbcTemplate, prices);
+        }
+
+        condition = PriceSearchCondition.builder().customerNo(CUSTOMER_NO).selectedStatus("active").build();
+        pageRequest = PageRequest.of(1, pageSize, Sort.by(Sort.Direction.DESC, "priceInsertDate"));
+
+        logStatements("entityPage", this::entityPage);
+        logStatements("projectionPage", this::projectionPage);
+        logStatements("entityCustomerProduct", this::entityCustomerProduct);
+        logStatements("projectionCustomerProduct", this::projectionCustomerProduct);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Before: Price entities (customer, product and the category chain loaded with them), then convertToDTO
+    @Benchmark
+    public List<PriceDTO> entityPage() {
+        return readEntities(entityManager -> {
+            entityManager.createQuery("SELECT COUNT(p) FROM Price p WHERE p.customer.customerNo = :customerNo "
+                            + "AND p.priceDeleteYn = 'N'", Long.class)
+                    .setParameter("customerNo", CUSTOMER_NO)
+                    .getSingleResult();
+            return entityManager.createQuery("SELECT p FROM Price p WHERE p.customer.customerNo = :customerNo "
+                            + "AND p.priceDeleteYn = 'N' ORDER BY p.priceInsertDate DESC, p.priceNo", Price.class)
+                    .setParameter("customerNo", CUSTOMER_NO)
+                    .setFirstResult((int) pageRequest.getOffset())
+                    .setMaxResults(pageSize)
+                    .getResultList();
+        });
+    }
+
+    // After: PriceDTO rows from one statement (plus the exact count, which PageCounter reuses for the same filters)
+    @Benchmark
+    public List<PriceDTO> projectionPage() {
+        return priceRepository.findPrices(condition, pageRequest, PageCountMode.EXACT).getContent();
+    }
+
+    @Benchmark
+    public List<PriceDTO> entityCustomerProduct() {
+        return readEntities(entityManager -> entityManager.createQuery(
+                        "SELECT p FROM Price p WHERE p.customer.customerNo = :customerNo AND p.product.productCd = :productCd", Price.class)
+                .setParameter("customerNo", CUSTOMER_NO)
+                .setParameter("productCd", PRODUCT_CD)
+                .getResultList());
+    }
+
+    @Benchmark
+    public List<PriceDTO> projectionCustomerProduct() {
+        return priceRepository.findPricesByCustomerAndProduct(CUSTOMER_NO, PRODUCT_CD);
+    }
+
+    private List<PriceDTO> readEntities(Function<EntityManager, List<Price>> query) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return query.apply(entityManager).stream()
+                    .map(priceService::convertToDTO)
+                    .collect(Collectors.toList());
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private void logStatements(String name, Supplier<List<PriceDTO>> variant) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        int size = variant.get().size();
+        logger.info("{} (page size {}): {} rows, {} statements", name, pageSize, size, statistics.getPrepareStatementCount());
+    }
+
+    // 100 customers, 2000 products under 3 x 4 x 5 categories, every customer/product pair with 5 monthly prices
+    private static void seed(JdbcTemplate jdbcTemplate, int prices) {
+        jdbcTemplate.execute("TRUNCATE m_price, m_product, m_category, m_customer RESTART IDENTITY CASCADE");
+        jdbcTemplate.update("INSERT INTO m_customer (customer_name, customer_business_reg_no, customer_delete_yn) " +
+                "SELECT 'Bench customer ' || i, 'B-' || i, 'N' FROM generate_series(1, ?) i", CUSTOMERS);
+        jdbcTemplate.update("INSERT INTO m_category (category_level, parent_category_no, category_nm, category_delete_yn) " +
+                "SELECT 1, NULL, 'Top ' || i, 'N' FROM generate_series(1, 3) i");
+        jdbcTemplate.update("INSERT INTO m_category (category_level, parent_category_no, category_nm, category_delete_yn) " +
+                "SELECT 2, 1 + i % 3, 'Middle ' || i, 'N' FROM generate_series(0, 11) i");
+        jdbcTemplate.update("INSERT INTO m_category (category_level, parent_category_no, category_nm, category_delete_yn) " +
+                "SELECT 3, 4 + i % 12, 'Low ' || i, 'N' FROM generate_series(0, 59) i");
+        jdbcTemplate.update("INSERT INTO m_product (product_cd, category_no, product_nm, product_price, product_delete_yn) " +
+                "SELECT 'B' || lpad(i::text, 5, '0'), 16 + i % 60, 'Bench product ' || i, 1000 + i, 'N' " +
+                "FROM generate_series(0, ?) i", PRODUCTS - 1);
+        jdbcTemplate.update("INSERT INTO m_price (customer_no, product_cd, price_customer, price_start_date, price_end_date, " +
+                "price_insert_date, price_delete_yn) " +
+                "SELECT 1 + g % ?, 'B' || lpad((g / ? % ?)::text, 5, '0'), 1000 + g % 997, " +
+                "       DATE '2024-01-01' + (g / (? * ?)) * INTERVAL '1 month', " +
+                "       DATE '2024-01-31' + (g / (? * ?)) * INTERVAL '1 month', " +
+                "       TIMESTAMP '2024-01-01' + g * INTERVAL '1 second', 'N' " +
+                "FROM generate_series(0, ?) g",
+                CUSTOMERS, CUSTOMERS, PRODUCTS, CUSTOMERS, PRODUCTS, CUSTOMERS, PRODUCTS, prices - 1);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(PriceListBenchmark.class.getSimpleName());
+        String url = System.getProperty("erpre.bench.url");
+        if (url != null) {
+            options.jvmArgsAppend("-Derpre.bench.url=" + url);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,154 @@
+package com.project.erpre.benchmark;
+
+import com.project.erpre.ErpreApplication;
+import com.project.erpre.model.ProductDTO;
+import com.project.erpre.repository.ProductRepository;
+import com.project.erpre.util.PageCountMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Product autocomplete (ProductRepository.findProductSuggestions) vs. the product picker's name filter
+// (findProductsFilter with productNm: every match sorted for the page) on the same search text
+// Uses the erpre_bench PostgreSQL database, schema products_<count>, filled with generated products on the first run:
+//   createdb -U postgres erpre_bench && psql -U postgres erpre_bench -c 'CREATE EXTENSION pg_trgm'
+//   mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+//   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.project.erpre.benchmark.ProductSearchBenchmark
+// Another database: -Derpre.bench.url=jdbc:postgresql://host:5432/db (passed on to the forked JVM)
+// The first suggestions of each search text are logged once at setup
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class ProductSearchBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchBenchmark.class);
+
+    private static final int LIMIT = 10;
+
+    @Param({"1000000"})
+    private int products;
+
+    // Code prefix, a common word, two words, two word beginnings, a narrow three-word search, a two-letter beginning
+    @Param({"p00012", "cable", "makita drill", "mak dri", "galvanized pump 37mm", "ma"})
+    private String searchText;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Command line arguments, so they win over application.properties (the benchmark truncates its database)
+        // public stays on the search path for the pg_trgm operator classes
+        context = new SpringApplicationBuilder(ErpreApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + System.getProperty("erpre.bench.url", "jdbc:postgresql://localhost:5432/erpre_bench")
+                                + "?currentSchema=products_" + products + ",public",
+                        "--spring.jpa.properties.hibernate.default_schema=products_" + products,
+                        "--spring.datasource.hikari.connection-init-sql=CREATE SCHEMA IF NOT EXISTS products_" + products,
+                        "--spring.devtools.restart.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--erpre.report.fact-store.enabled=false",
+                        "--logging.level.com.project.erpre=INFO",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+        productRepository = context.getBean(ProductRepository.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        String database = jdbcTemplate.queryForObject("SELECT current_database()", String.class);
+        if (!"erpre_bench".equals(database) && System.getProperty("erpre.bench.url") == null) {
+            throw new IllegalStateException("Refusing to fill database " + database + ", set -Derpre.bench.url");
+        }
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM m_product", Long.class);
+        if (rows == null || rows != products) {
+            logger.info("Filling schema products_{} with {} products", products, products);
+            seed(jdbcTemplate, products);
+        }
+
+        logger.info("'{}' suggestions: {}", searchText, suggestions().stream()
+                .map(product -> product.getProductCd() + " " + product.getProductNm())
+                .collect(Collectors.toList()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductDTO> suggestions() {
+        return productRepository.findProductSuggestions(searchText, LIMIT);
+    }
+
+    // Before: the picker's name filter, first page of LIMIT products (all matches sorted, the count is reused)
+    @Benchmark
+    public List<ProductDTO> nameFilterPage() {
+        return productRepository.findProductsFilter(PageRequest.of(0, LIMIT), "active",
+                null, null, null, null, searchText, null, null, PageCountMode.AUTO).getContent();
+    }
+
+    // 3 x 4 x 5 categories, product names from brand + kind + part + size (every word is shared by many products),
+    // one product in fifty deleted; the search indexes of INDEX.TXT
+    private static void seed(JdbcTemplate jdbcTemplate, int products) {
+        jdbcTemplate.execute("TRUNCATE m_product, m_category RESTART IDENTITY CASCADE");
+        jdbcTemplate.update("INSERT INTO m_category (category_level, parent_category_no, category_nm, category_delete_yn) " +
+                "SELECT 1, NULL, 'Top ' || i, 'N' FROM generate_series(1, 3) i");
+        jdbcTemplate.update("INSERT INTO m_category (category_level, parent_category_no, category_nm, category_delete_yn) " +
+                "SELECT 2, 1 + i % 3, 'Middle ' || i, 'N' FROM generate_series(0, 11) i");
+        jdbcTemplate.update("INSERT INTO m_category (category_level, parent_category_no, category_nm, category_delete_yn) " +
+                "SELECT 3, 4 + i % 12, 'Low ' || i, 'N' FROM generate_series(0, 59) i");
+        jdbcTemplate.update("INSERT INTO m_product (product_cd, category_no, product_nm, product_price, product_insert_date, product_delete_yn) " +
+                "SELECT 'P' || lpad(i::text, 7, '0'), 16 + i % 60, " +
+                "       (ARRAY['Samsung','LG','Bosch','Makita','Hitachi','Daewoo','Hyundai','Kolon','Hanwha','Doosan'," +
+                "              'Lotte','Nongshim','Orion','Amore','Cheil'])[1 + i % 15] || ' ' || " +
+                "       (ARRAY['Stainless','Copper','Plastic','Heavy','Compact','Premium','Basic','Industrial','Flexible'," +
+                "              'Thermal','Coated','Galvanized','Insulated','Portable','Wireless'])[1 + (i / 15) % 15] || ' ' || " +
+                "       (ARRAY['Cable','Bolt','Washer','Drill','Pipe','Valve','Hinge','Bracket','Clamp','Sensor','Switch'," +
+                "              'Motor','Pump','Filter','Gasket','Bearing','Spring','Socket','Relay','Fuse'])[1 + (i / 225) % 20] || ' ' || " +
+                "       ((i / 4500) % 200 + 1) || 'mm', " +
+                "       1000 + i % 9973, TIMESTAMP '2024-01-01' + i * INTERVAL '1 second', " +
+                "       CASE WHEN i % 50 = 0 THEN 'Y' ELSE 'N' END " +
+                "FROM generate_series(1, ?) i", products);
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_product_nm_trgm ON m_product USING gin (lower(product_nm) gin_trgm_ops)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_product_cd_lower_trgm ON m_product USING gin (lower(product_cd) gin_trgm_ops)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_product_nm_prefix ON m_product ((lower(product_nm) COLLATE \"C\"))");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_product_cd_prefix ON m_product ((lower(product_cd) COLLATE \"C\"))");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(ProductSearchBenchmark.class.getSimpleName());
+        String url = System.getProperty("erpre.bench.url");
+        if (url != null) {
+            options.jvmArgsAppend("-Derpre.bench.url=" + url);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,153 @@
+package com.project.erpre.service;
+
+import com.project.erpre.model.Category;
+import com.project.erpre.model.CategoryDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CategoryTreeTest {
+
+    @Test
+    void pathsFollowTheFormerRecursiveQueryOrder() {
+        CategoryTree tree = CategoryTree.build(1, Arrays.asList(
+                row(1, 1, null, "B", "N"),
+                row(2, 1, null, "A", "N"),
+                row(9, 2, 2, "y", "N"),
+                row(10, 2, 2, "x", "N"),
+                row(3, 3, 9, "z", "N"),
+                row(20, 1, null, "Same", "N"),
+                row(21, 1, null, "Same", "N")));
+
+        // Sort key "top name-child no-grandchild no" compared as a string: "A-10" comes before "A-9",
+        // tops with the same name in category number order
+        assertThat(tree.paths())
+                .extracting(CategoryDTO::getCategoryNo, CategoryDTO::getOne, CategoryDTO::getTwo, CategoryDTO::getThree,
+                        CategoryDTO::getCategoryLevel, CategoryDTO::getPaths)
+                .containsExactly(
+                        tuple(2, 2, null, null, 1, "A"),
+                        tuple(10, 2, 10, null, 2, "A > x"),
+                        tuple(9, 2, 9, null, 2, "A > y"),
+                        tuple(3, 2, 9, 3, 3, "A > y > z"),
+                        tuple(1, 1, null, null, 1, "B"),
+                        tuple(20, 20, null, null, 1, "Same"),
+                        tuple(21, 21, null, null, 1, "Same"));
+    }
+
+    @Test
+    void deletedCategoriesAreLeftOutLikeTheFormerQueries() {
+        CategoryTree tree = CategoryTree.build(1, Arrays.asList(
+                row(1, 1, null, "Top", "N"),
+                row(2, 2, 1, "Deleted middle", "Y"),
+                row(3, 3, 2, "Low under deleted", "N"),
+                row(4, 2, 1, "Middle", "N"),
+                row(5, 3, 4, "Deleted low", "Y"),
+                row(6, 1, null, "Deleted top", "Y"),
+                row(7, 2, 6, "Middle under deleted", "N")));
+
+        // The recursive query stops at a deleted category: nothing below it has a path
+        assertThat(tree.paths()).extracting(CategoryDTO::getPaths).containsExactly("Top", "Top > Middle");
+
+        // The level queries only checked the listed category itself
+        assertThat(names(tree.topLevel())).containsExactly("Top");
+        assertThat(names(tree.middleLevel(null))).containsExactly("Middle", "Middle under deleted");
+        assertThat(names(tree.lowLevel(1, 2))).containsExactly("Low under deleted");
+        assertThat(names(tree.all())).containsExactly("Low under deleted", "Middle", "Middle under deleted", "Top");
+
+        assertThat(names(tree.children(1))).containsExactly("Middle");
+        assertThat(names(tree.ancestors(3))).containsExactly("Top", "Deleted middle");
+    }
+
+    @Test
+    void levelListsUseTheStoredLevels() {
+        CategoryTree tree = CategoryTree.build(1, Arrays.asList(
+                row(1, 1, null, "Top", "N"),
+                row(2, 3, 1, "Low directly under top", "N"),
+                row(3, 2, 1, "Middle", "N"),
+                row(4, 2, 3, "Middle under middle", "N"),
+                row(5, 3, 4, "Low under wrong middle", "N"),
+                row(6, 3, 3, "Low", "N"),
+                row(7, 2, null, "Middle without parent", "N")));
+
+        // Paths use the depth, not the stored level
+        assertThat(tree.paths())
+                .extracting(CategoryDTO::getPaths, CategoryDTO::getCategoryLevel)
+                .containsExactly(
+                        tuple("Middle without parent", 1),
+                        tuple("Top", 1),
+                        tuple("Top > Low directly under top", 2),
+                        tuple("Top > Middle", 2),
+                        tuple("Top > Middle > Middle under middle", 3),
+                        tuple("Top > Middle > Middle under middle > Low under wrong middle", 4),
+                        tuple("Top > Middle > Low", 3));
+
+        // The level lists join the parents by their stored levels, as the former queries did
+        assertThat(names(tree.topLevel())).containsExactly("Top");
+        assertThat(names(tree.middleLevel(1))).containsExactly("Middle");
+        assertThat(names(tree.middleLevel(null))).containsExactly("Middle");
+        assertThat(names(tree.lowLevel(null, null))).containsExactly("Low");
+        assertThat(names(tree.lowLevel(1, 3))).containsExactly("Low");
+        assertThat(names(tree.lowLevel(2, null))).isEmpty();
+    }
+
+    @Test
+    void deepChainsKeepTheWholePath() {
+        int depth = 60;
+        List<CategoryDTO> rows = new ArrayList<>();
+        for (int no = 1; no <= depth; no++) {
+            rows.add(row(no, Math.min(no, 3), no == 1 ? null : no - 1, "C" + no, "N"));
+        }
+        CategoryTree tree = CategoryTree.build(1, rows);
+
+        List<CategoryDTO> paths = tree.paths();
+        assertThat(paths).hasSize(depth);
+        CategoryDTO deepest = paths.get(depth - 1);
+        assertThat(deepest.getCategoryNo()).isEqualTo(depth);
+        assertThat(deepest.getCategoryLevel()).isEqualTo(depth);
+        assertThat(deepest.getOne()).isEqualTo(1);
+        assertThat(deepest.getTwo()).isEqualTo(2);
+        assertThat(deepest.getThree()).isEqualTo(3);
+
+        String expectedPath = rows.stream().map(CategoryDTO::getCategoryNm).collect(Collectors.joining(" > "));
+        assertThat(deepest.getPaths()).isEqualTo(expectedPath);
+
+        List<Category> ancestors = tree.ancestors(depth);
+        assertThat(ancestors).hasSize(depth - 1);
+        assertThat(ancestors.get(0).getCategoryNm()).isEqualTo("C1");
+        assertThat(ancestors.get(depth - 2).getCategoryPath()).isEqualTo(expectedPath.substring(0, expectedPath.lastIndexOf(" > ")));
+    }
+
+    @Test
+    void resultsAreCopies() {
+        CategoryTree tree = CategoryTree.build(1, Arrays.asList(
+                row(1, 1, null, "Top", "N"),
+                row(2, 2, 1, "Middle", "N")));
+
+        tree.middleLevel(1).get(0).setCategoryNm("Changed");
+        tree.paths().get(0).setPaths("Changed");
+
+        assertThat(names(tree.middleLevel(1))).containsExactly("Middle");
+        assertThat(tree.middleLevel(1).get(0).getCategoryPath()).isEqualTo("Top > Middle");
+        assertThat(tree.paths()).extracting(CategoryDTO::getPaths).containsExactly("Top", "Top > Middle");
+    }
+
+    private static List<String> names(List<Category> categories) {
+        return categories.stream().map(Category::getCategoryNm).collect(Collectors.toList());
+    }
+
+    private static CategoryDTO row(int categoryNo, int categoryLevel, Integer parentCategoryNo, String categoryNm, String deleteYn) {
+        return CategoryDTO.builder()
+                .categoryNo(categoryNo)
+                .categoryLevel(categoryLevel)
+                .parentCategoryNo(parentCategoryNo)
+                .categoryNm(categoryNm)
+                .categoryDeleteYn(deleteYn)
+                .build();
+    }
+}
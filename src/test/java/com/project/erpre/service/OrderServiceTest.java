@@ -0,0 +1,222 @@
+package com.project.erpre.service;
+
+import com.project.erpre.model.*;
+import com.project.erpre.repository.PageCounter;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import({OrderService.class, OrderDetailService.class, PriceBookIndex.class, PageCounter.class})
+class OrderServiceTest {
+
+    private static final int LINE_COUNT = 40;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderDetailService orderDetailService;
+
+    @Autowired
+    private PriceBookIndex priceBookIndex;
+
+    private Integer orderNo;
+
+    private Integer customerNo;
+
+    @BeforeEach
+    void setUp() {
+        Category top = category("Top", 1, null);
+        Category middle = category("Middle", 2, top.getCategoryNo());
+        Category low = category("Low", 3, middle.getCategoryNo());
+
+        Employee employee = Employee.builder()
+                .employeeId("tester")
+                .employeePw("tester")
+                .employeeName("Tester")
+                .employeeTel("010-0000-0000")
+                .employeeRole("staff")
+                .employeeDeleteYn("N")
+                .build();
+        entityManager.persist(employee);
+
+        Customer customer = new Customer();
+        customer.setCustomerName("Customer");
+        customer.setCustomerBusinessRegNo("000-00-00000");
+        customer.setCustomerDeleteYn("N");
+        entityManager.persist(customer);
+
+        Order order = Order.builder()
+                .employee(employee)
+                .customer(customer)
+                .orderHStatus("ing")
+                .orderHTotalPrice(BigDecimal.TEN.multiply(BigDecimal.valueOf(LINE_COUNT)))
+                .orderHDeleteYn("N")
+                .build();
+        entityManager.persist(order);
+
+        for (int i = 0; i < LINE_COUNT; i++) {
+            Product product = new Product();
+            product.setProductCd(String.format("P%05d", i));
+            product.setProductNm("Product " + i);
+            product.setProductPrice(BigDecimal.TEN);
+            product.setCategory(low);
+            entityManager.persist(product);
+
+            entityManager.persist(OrderDetail.builder()
+                    .order(order)
+                    .product(product)
+                    .orderDPrice(BigDecimal.TEN)
+                    .orderDQty(1)
+                    .orderDTotalPrice(BigDecimal.TEN)
+                    .orderDDeliveryRequestDate(Timestamp.valueOf(LocalDateTime.now()))
+                    .build());
+        }
+
+        orderNo = order.getOrderNo();
+        customerNo = customer.getCustomerNo();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void getOrderHeaderByIdUsesSingleStatement() {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        OrderDTO orderDTO = orderService.getOrderHeaderById(orderNo);
+
+        assertThat(orderDTO.getOrderDetails()).hasSize(LINE_COUNT);
+        assertThat(orderDTO.getProducts()).hasSize(LINE_COUNT);
+        assertThat(orderDTO.getCustomer().getCustomerName()).isEqualTo("Customer");
+        assertThat(orderDTO.getEmployee().getEmployeeName()).isEqualTo("Tester");
+        assertThat(orderDTO.getProducts().get(0).getCategory().getCategoryPath()).isEqualTo("Top > Middle > Low");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void createOrderWithDetailsInsertsAllLinesInOneCall() {
+        OrderDTO request = orderRequest();
+        for (int i = 0; i < LINE_COUNT; i++) {
+            request.getOrderDetails().add(OrderDetailDTO.builder()
+                    .productCd(String.format("P%05d", i))
+                    .orderDPrice(BigDecimal.valueOf(1500))
+                    .orderDQty(2)
+                    .build());
+        }
+
+        OrderDTO created = orderService.createOrderWithDetails(request);
+        entityManager.clear();
+
+        Order order = entityManager.find(Order.class, created.getOrderNo());
+        assertThat(order.getOrderDetails()).hasSize(LINE_COUNT);
+        assertThat(order.getOrderHTotalPrice()).isEqualByComparingTo(BigDecimal.valueOf(1500L * 2 * LINE_COUNT));
+        assertThat(order.getOrderDetails()).allSatisfy(detail ->
+                assertThat(detail.getOrderDTotalPrice()).isEqualByComparingTo(BigDecimal.valueOf(3000)));
+    }
+
+    @Test
+    void createOrderWithDetailsRejectsUnknownProducts() {
+        OrderDTO request = orderRequest();
+        request.getOrderDetails().add(OrderDetailDTO.builder().productCd("P00000").orderDPrice(BigDecimal.TEN).orderDQty(1).build());
+        request.getOrderDetails().add(OrderDetailDTO.builder().productCd("NOPE").orderDPrice(BigDecimal.TEN).orderDQty(1).build());
+
+        assertThatThrownBy(() -> orderService.createOrderWithDetails(request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("NOPE");
+    }
+
+    @Test
+    void createOrderWithDetailsPricesLinesFromThePriceBook() {
+        entityManager.getEntityManager()
+                .createNativeQuery("INSERT INTO m_price (customer_no, product_cd, price_customer, price_start_date, " +
+                        "price_insert_date, price_delete_yn) VALUES (?, 'P00000', 1234.50, CURRENT_DATE - 1, CURRENT_TIMESTAMP, 'N')")
+                .setParameter(1, customerNo)
+                .executeUpdate();
+        priceBookIndex.reload();
+
+        OrderDTO unpriced = orderRequest();
+        unpriced.getOrderDetails().add(OrderDetailDTO.builder().productCd("P00000").orderDQty(2).build());
+        unpriced.getOrderDetails().add(OrderDetailDTO.builder().productCd("P00001").orderDQty(1).build());
+        assertThatThrownBy(() -> orderService.createOrderWithDetails(unpriced))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("P00001");
+
+        OrderDTO request = orderRequest();
+        request.getOrderDetails().add(OrderDetailDTO.builder().productCd("P00000").orderDQty(2).build());
+        OrderDTO created = orderService.createOrderWithDetails(request);
+
+        assertThat(created.getOrderDetails().get(0).getOrderDPrice()).isEqualByComparingTo("1234.50");
+        assertThat(created.getOrderHTotalPrice()).isEqualByComparingTo("2469.00");
+    }
+
+    @Test
+    void lineChangesAreAppliedToTheTotalAsDeltas() {
+        List<OrderDetail> lines = entityManager.getEntityManager()
+                .createQuery("SELECT d FROM OrderDetail d WHERE d.order.orderNo = :orderNo ORDER BY d.orderNo", OrderDetail.class)
+                .setParameter("orderNo", orderNo)
+                .getResultList();
+        entityManager.clear();
+
+        orderService.deleteOrderDetail(orderNo, lines.get(0).getOrderNo());
+        assertThat(totalPrice()).isEqualByComparingTo(BigDecimal.valueOf(10L * (LINE_COUNT - 1)));
+
+        orderDetailService.updateOrderDetail(lines.get(1).getOrderNo(), OrderDetailDTO.builder()
+                .orderNo(orderNo)
+                .productCd(lines.get(1).getProduct().getProductCd())
+                .orderDPrice(BigDecimal.valueOf(5))
+                .orderDQty(5)
+                .orderDTotalPrice(BigDecimal.valueOf(25))
+                .build());
+        assertThat(totalPrice()).isEqualByComparingTo(BigDecimal.valueOf(10L * (LINE_COUNT - 1) + 15));
+    }
+
+    private BigDecimal totalPrice() {
+        entityManager.clear();
+        return entityManager.find(Order.class, orderNo).getOrderHTotalPrice();
+    }
+
+    private OrderDTO orderRequest() {
+        Customer customer = new Customer();
+        customer.setCustomerNo(customerNo);
+        return OrderDTO.builder()
+                .customer(customer)
+                .employee(Employee.builder().employeeId("tester").build())
+                .build();
+    }
+
+    private Category category(String name, int level, Integer parentCategoryNo) {
+        Category category = new Category();
+        category.setCategoryNm(name);
+        category.setCategoryLevel(level);
+        category.setParentCategoryNo(parentCategoryNo);
+        category.setCategoryDeleteYn("N");
+        entityManager.persist(category);
+        entityManager.flush();
+        // Reload so that parentCategory is populated from parent_category_no
+        entityManager.clear();
+        return entityManager.find(Category.class, category.getCategoryNo());
+    }
+}
@@ -0,0 +1,148 @@
+package com.project.erpre.service;
+
+import com.project.erpre.model.Category;
+import com.project.erpre.model.Product;
+import com.project.erpre.model.ProductFacetsDTO;
+import com.project.erpre.repository.PageCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import({ProductService.class, CategoryService.class, CustomerPriceBookCache.class, ProductDetailCache.class, PageCounter.class})
+class ProductServiceTest {
+
+    private static final List<String> STATUSES = Arrays.asList("all", "active", "deleted");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductService productService;
+
+    private final List<Integer> topCategoryNos = new ArrayList<>();
+    private final List<Integer> middleCategoryNos = new ArrayList<>();
+    private final List<Integer> lowCategoryNos = new ArrayList<>();
+
+    private int productCount;
+
+    @BeforeEach
+    void setUp() {
+        // Two top categories, three middle and five low categories with uneven product counts
+        for (int t = 0; t < 2; t++) {
+            Category top = category("Top " + t, 1, null);
+            topCategoryNos.add(top.getCategoryNo());
+            for (int m = 0; m < 2 - t; m++) {
+                Category middle = category("Middle " + t + m, 2, top.getCategoryNo());
+                middleCategoryNos.add(middle.getCategoryNo());
+                for (int l = 0; l < 2 - m; l++) {
+                    Category low = category("Low " + t + m + l, 3, middle.getCategoryNo());
+                    lowCategoryNos.add(low.getCategoryNo());
+                    for (int i = 0; i < 3 + lowCategoryNos.size(); i++) {
+                        product(low, i % 3 == 0 ? "Y" : "N");
+                    }
+                }
+            }
+        }
+        // Products without a category count in the totals and statuses only
+        product(null, "N");
+        product(null, "Y");
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void facetCountsMatchProductListTotals() {
+        for (String productCd : Arrays.asList(null, "P0001")) {
+            for (String status : STATUSES) {
+                for (Integer top : withNull(topCategoryNos)) {
+                    for (Integer middle : withNull(middleCategoryNos)) {
+                        for (Integer low : withNull(lowCategoryNos)) {
+                            assertFacetsMatchList(status, top, middle, low, productCd);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void topCategoriesComeFromTheCategoryTree() {
+        assertThat(productService.getTopCategory())
+                .extracting(Category::getCategoryNo)
+                .containsExactlyElementsOf(topCategoryNos);
+    }
+
+    private void assertFacetsMatchList(String status, Integer top, Integer middle, Integer low, String productCd) {
+        String filter = status + "/" + top + "/" + middle + "/" + low + "/" + productCd;
+        ProductFacetsDTO facets = productService.getProductFacets(status, top, middle, low, productCd, productCd);
+
+        assertThat(facets.getTotal()).as(filter).isEqualTo(listTotal(status, top, middle, low, productCd));
+        for (ProductFacetsDTO.CategoryCount option : facets.getTopCategories()) {
+            assertThat(option.getCount()).as(filter + " top " + option.getCategoryNo())
+                    .isEqualTo(listTotal(status, option.getCategoryNo(), null, null, productCd));
+        }
+        for (ProductFacetsDTO.CategoryCount option : facets.getMiddleCategories()) {
+            assertThat(option.getCount()).as(filter + " middle " + option.getCategoryNo())
+                    .isEqualTo(listTotal(status, top, option.getCategoryNo(), null, productCd));
+        }
+        for (ProductFacetsDTO.CategoryCount option : facets.getLowCategories()) {
+            assertThat(option.getCount()).as(filter + " low " + option.getCategoryNo())
+                    .isEqualTo(listTotal(status, top, middle, option.getCategoryNo(), productCd));
+        }
+        for (Map.Entry<String, Long> option : facets.getStatuses().entrySet()) {
+            assertThat(option.getValue()).as(filter + " status " + option.getKey())
+                    .isEqualTo(listTotal(option.getKey(), top, middle, low, productCd));
+        }
+        assertThat(facets.getStatuses()).containsOnlyKeys(STATUSES);
+    }
+
+    private long listTotal(String status, Integer top, Integer middle, Integer low, String productCd) {
+        return productService.getProductsList(0, 20, status, top, middle, low, productCd, productCd,
+                "productCd", "asc", "exact").getTotalElements();
+    }
+
+    private static List<Integer> withNull(List<Integer> categoryNos) {
+        List<Integer> values = new ArrayList<>();
+        values.add(null);
+        values.addAll(categoryNos);
+        return values;
+    }
+
+    private void product(Category category, String deleteYn) {
+        Product product = new Product();
+        product.setProductCd(String.format("P%05d", productCount++));
+        product.setProductNm("Product " + productCount);
+        product.setProductPrice(BigDecimal.TEN);
+        product.setProductDeleteYn(deleteYn);
+        product.setCategory(category);
+        entityManager.persist(product);
+    }
+
+    private Category category(String name, int level, Integer parentCategoryNo) {
+        Category category = new Category();
+        category.setCategoryNm(name);
+        category.setCategoryLevel(level);
+        category.setParentCategoryNo(parentCategoryNo);
+        category.setCategoryDeleteYn("N");
+        entityManager.persist(category);
+        entityManager.flush();
+        // Reload so that parentCategory is populated from parent_category_no
+        entityManager.clear();
+        return entityManager.find(Category.class, category.getCategoryNo());
+    }
+}